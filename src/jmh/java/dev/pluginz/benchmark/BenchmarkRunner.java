@@ -0,0 +1,32 @@
+package dev.pluginz.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * BenchmarkRunner is the entry point of the benchmarks jar.
+ * It accepts the usual JMH command line (e.g. {@code -p size=1000,100000 LookupBenchmark})
+ * and always attaches the GC profiler so that allocation rates are reported next to
+ * throughput and average time.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Runs the selected benchmarks.
+     * @param args JMH command line arguments.
+     * @throws RunnerException if a benchmark fails.
+     * @throws CommandLineOptionException if the arguments cannot be parsed.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,74 @@
+package dev.pluginz.benchmark;
+
+import dev.pluginz.BTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BloomFilterBenchmark measures {@link BTree} lookups with and without a Bloom filter.
+ * Misses probe odd values that are never present, so the filter rejects almost all of them;
+ * hits show what the filter costs for keys that are present.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class BloomFilterBenchmark {
+
+    @Param({"0", "0.01", "0.001"})
+    public double falsePositiveRate;
+
+    @Param({"64"})
+    public int minDegree;
+
+    @Param({"100000", "10000000"})
+    public int size;
+
+    private BTree<IntKey> tree;
+    private IntKey[] hits;
+    private IntKey[] misses;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        tree = new BTree<>(IntKey.class, minDegree);
+        tree.bulkLoad(KeyOrder.SORTED.keys(size, 42));
+        if (falsePositiveRate > 0) {
+            tree.enableBloomFilter(IntKey::getValue, falsePositiveRate);
+        }
+        hits = KeyOrder.RANDOM.keys(size, 7);
+        misses = new IntKey[size];
+        for (int i = 0; i < size; i++) {
+            misses[i] = new IntKey(hits[i].getValue() + 1);
+        }
+    }
+
+    @Benchmark
+    public IntKey hit() {
+        return tree.search(hits[next()]);
+    }
+
+    @Benchmark
+    public IntKey miss() {
+        return tree.search(misses[next()]);
+    }
+
+    private int next() {
+        int i = cursor;
+        cursor = i + 1 == size ? 0 : i + 1;
+        return i;
+    }
+}
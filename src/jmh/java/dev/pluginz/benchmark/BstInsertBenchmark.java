@@ -0,0 +1,51 @@
+package dev.pluginz.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BstInsertBenchmark measures building the unbalanced BST from scratch, like {@link InsertBenchmark} does for
+ * the other structures. Sorted and reverse input turn the BST into a list and its build quadratic, so the sizes
+ * stay small enough for every order to finish.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BstInsertBenchmark {
+
+    @Param({"RANDOM", "SORTED", "REVERSE"})
+    public KeyOrder order;
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private IntKey[] keys;
+
+    @Setup
+    public void setup() {
+        keys = order.keys(size, 42);
+    }
+
+    @Benchmark
+    public Structure.Index insertAll() {
+        Structure.Index index = Structure.BST.create();
+        for (IntKey key : keys) {
+            index.insert(key);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,140 @@
+package dev.pluginz.benchmark;
+
+import dev.pluginz.BufferPool;
+import dev.pluginz.ClockPolicy;
+import dev.pluginz.LruPolicy;
+import dev.pluginz.OffHeapBTree;
+import dev.pluginz.TwoQueuePolicy;
+import dev.pluginz.interfaces.EvictionPolicy;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * BufferPoolBenchmark runs lookups on an {@link OffHeapBTree} stored behind a {@link BufferPool}
+ * whose capacity is a fraction of the pages of the tree.
+ * The lookups are skewed: 90% of them go to 10% of the keys, the rest is spread over all keys.
+ * The hit ratio, misses and write-backs of every iteration are reported as secondary results,
+ * so that policies and capacities can be compared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BufferPoolBenchmark {
+
+    public enum Policy {
+        CLOCK(ClockPolicy::new),
+        LRU(LruPolicy::new),
+        TWO_QUEUE(TwoQueuePolicy::new);
+
+        private final IntFunction<EvictionPolicy> factory;
+
+        Policy(IntFunction<EvictionPolicy> factory) {
+            this.factory = factory;
+        }
+    }
+
+    @Param({"CLOCK", "LRU", "TWO_QUEUE"})
+    public Policy policy;
+
+    @Param({"0.01", "0.05", "0.2"})
+    public double capacityFraction;
+
+    @Param({"1000000"})
+    public int size;
+
+    private Path file;
+    private BufferPool pool;
+    private OffHeapBTree<IntKey> tree;
+    private IntKey[] probes;
+    private int cursor;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("benchmark", ".pages");
+        Files.delete(file);
+        int minDegree = 64;
+        long pages;
+        try (OffHeapBTree<IntKey> build = OffHeapBTree.open(file, IntKey.CODEC, minDegree)) {
+            for (IntKey key : KeyOrder.RANDOM.keys(size, 42)) {
+                build.insert(key);
+            }
+            pages = build.getStore().pageCount();
+        }
+        int pageSize = OffHeapBTree.pageSize(minDegree, IntKey.CODEC.width());
+        int capacity = (int) Math.max(8, pages * capacityFraction);
+        pool = new BufferPool(file, pageSize, capacity, policy.factory);
+        tree = new OffHeapBTree<>(IntKey.CODEC, minDegree, pool);
+        Random random = new Random(7);
+        probes = new IntKey[1 << 20];
+        for (int i = 0; i < probes.length; i++) {
+            int bound = random.nextInt(10) == 0 ? size : size / 10;
+            probes[i] = new IntKey(2 * random.nextInt(bound));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStatistics() {
+        pool.resetStatistics();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        tree.close();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * PoolStatistics reports the statistics of the pool of the current iteration as auxiliary counters.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PoolStatistics {
+        private BufferPool pool;
+
+        @Setup(Level.Iteration)
+        public void attach(BufferPoolBenchmark benchmark) {
+            pool = benchmark.pool;
+        }
+
+        public double hitRatio() {
+            return pool.getHitRatio();
+        }
+
+        public long misses() {
+            return pool.getMisses();
+        }
+
+        public long writeBacks() {
+            return pool.getWriteBacks();
+        }
+    }
+
+    @Benchmark
+    public boolean lookup(PoolStatistics statistics) {
+        IntKey key = probes[cursor];
+        cursor = (cursor + 1) & (probes.length - 1);
+        return tree.search(key) != null;
+    }
+}
@@ -0,0 +1,62 @@
+package dev.pluginz.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChurnBenchmark keeps a structure at a constant size: every operation removes the oldest key and inserts a new one.
+ * The keys slide through the key space, so the tree keeps splitting nodes at one end and merging them at the other.
+ * Run it with {@code -prof gc} to see the allocation per operation, which for the B-Trees is mostly new nodes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class ChurnBenchmark {
+
+    @Param({"BTREE_3", "BTREE_16", "BTREE_64", "BST", "TREE_MAP"})
+    public Structure structure;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private IntKey[] window;
+    private Structure.Index index;
+    private int oldest;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        window = KeyOrder.RANDOM.keys(size, 42);
+        index = structure.create();
+        for (IntKey key : window) {
+            index.insert(key);
+        }
+        oldest = 0;
+        next = 2 * size;
+    }
+
+    @Benchmark
+    public void replace() {
+        index.remove(window[oldest]);
+        IntKey key = new IntKey(next);
+        next += 2;
+        index.insert(key);
+        window[oldest] = key;
+        oldest = oldest + 1 == size ? 0 : oldest + 1;
+    }
+}
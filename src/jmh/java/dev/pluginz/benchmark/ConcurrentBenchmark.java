@@ -0,0 +1,101 @@
+package dev.pluginz.benchmark;
+
+import dev.pluginz.BTree;
+import dev.pluginz.ConcurrentBTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConcurrentBenchmark compares ConcurrentBTree with a BTree behind a single global lock
+ * on a shared tree under mixed reads and writes.
+ * Run it with different thread counts, e.g. {@code -t 1}, {@code -t 4}, {@code -t max}, to get the scaling curve.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+@Threads(Threads.MAX)
+public class ConcurrentBenchmark {
+
+    @Param({"CONCURRENT", "GLOBAL_LOCK"})
+    public String implementation;
+
+    @Param({"16", "64"})
+    public int minDegree;
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"95", "50"})
+    public int readPercent;
+
+    private Structure.InsertOnlyIndex index;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        if (implementation.equals("CONCURRENT")) {
+            ConcurrentBTree<IntKey> tree = new ConcurrentBTree<>(IntKey.class, minDegree);
+            index = new Structure.InsertOnlyIndex() {
+                @Override
+                public void insert(IntKey key) {
+                    tree.insert(key);
+                }
+
+                @Override
+                public boolean contains(IntKey key) {
+                    return tree.search(key) != null;
+                }
+            };
+        } else {
+            BTree<IntKey> tree = new BTree<>(IntKey.class, minDegree);
+            index = new Structure.InsertOnlyIndex() {
+                @Override
+                public synchronized void insert(IntKey key) {
+                    tree.insert(key);
+                }
+
+                @Override
+                public synchronized boolean contains(IntKey key) {
+                    return tree.search(key) != null;
+                }
+            };
+        }
+        for (IntKey key : KeyOrder.RANDOM.keys(size, 42)) {
+            index.insert(key);
+        }
+    }
+
+    /**
+     * ThreadState holds the per-thread random generator.
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+        SplittableRandom random = new SplittableRandom();
+    }
+
+    @Benchmark
+    public boolean readWrite(ThreadState state) {
+        int value = state.random.nextInt(2 * size);
+        if (state.random.nextInt(100) < readPercent) {
+            return index.contains(new IntKey(value & ~1));
+        }
+        index.insert(new IntKey(value | 1));
+        return true;
+    }
+}
@@ -0,0 +1,55 @@
+package dev.pluginz.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InsertBenchmark measures building a structure from scratch.
+ * One operation inserts all {@code size} keys in the given {@link KeyOrder}.
+ * BST is measured separately by {@link BstInsertBenchmark}: it degenerates into a list on sorted input,
+ * so its inserts take quadratic time there and would not finish at the sizes used here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class InsertBenchmark {
+
+    @Param({"BTREE_3", "BTREE_16", "BTREE_64", "AVL", "TREE_MAP"})
+    public Structure structure;
+
+    @Param({"RANDOM", "SORTED", "REVERSE"})
+    public KeyOrder order;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private IntKey[] keys;
+
+    @Setup
+    public void setup() {
+        keys = order.keys(size, 42);
+    }
+
+    @Benchmark
+    public Structure.Index insertAll() {
+        Structure.Index index = structure.create();
+        for (IntKey key : keys) {
+            index.insert(key);
+        }
+        return index;
+    }
+}
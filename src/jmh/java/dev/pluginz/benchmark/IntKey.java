@@ -0,0 +1,82 @@
+package dev.pluginz.benchmark;
+
+import dev.pluginz.interfaces.ComparableContent;
+import dev.pluginz.interfaces.KeyCodec;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * IntKey is a minimal ComparableContent implementation wrapping a primitive int.
+ * It is used as the key type for all benchmarks so that every structure compares the same objects.
+ */
+public final class IntKey implements ComparableContent<IntKey> {
+
+    /**
+     * CODEC stores an IntKey as a 4-byte int and compares without decoding.
+     */
+    public static final KeyCodec<IntKey> CODEC = new KeyCodec<>() {
+        @Override
+        public int width() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void write(MemorySegment segment, long offset, IntKey key) {
+            segment.set(ValueLayout.JAVA_INT_UNALIGNED, offset, key.value);
+        }
+
+        @Override
+        public IntKey read(MemorySegment segment, long offset) {
+            return new IntKey(segment.get(ValueLayout.JAVA_INT_UNALIGNED, offset));
+        }
+
+        @Override
+        public int compare(IntKey key, MemorySegment segment, long offset) {
+            return Integer.compare(key.value, segment.get(ValueLayout.JAVA_INT_UNALIGNED, offset));
+        }
+    };
+
+    private final int value;
+
+    /**
+     * IntKey constructor.
+     * @param value the integer value that this key represents.
+     */
+    public IntKey(int value) {
+        this.value = value;
+    }
+
+    /**
+     * Returns the wrapped value.
+     * @return the wrapped value.
+     */
+    public int getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean isLess(IntKey pContent) {
+        return value < pContent.value;
+    }
+
+    @Override
+    public boolean isEqual(IntKey pContent) {
+        return value == pContent.value;
+    }
+
+    @Override
+    public boolean isGreater(IntKey pContent) {
+        return value > pContent.value;
+    }
+
+    @Override
+    public int compare(IntKey pContent) {
+        return Integer.compare(value, pContent.value);
+    }
+
+    @Override
+    public String toString() {
+        return Integer.toString(value);
+    }
+}
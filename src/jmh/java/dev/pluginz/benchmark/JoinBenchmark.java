@@ -0,0 +1,95 @@
+package dev.pluginz.benchmark;
+
+import dev.pluginz.BTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JoinBenchmark merges a delta tree of {@code deltaSize} keys into a main tree of {@code size} keys.
+ * With APPEND the delta lies above all main keys and {@code join} concatenates the trees; with INTERLEAVED
+ * the ranges overlap and {@code join} falls back to a linear merge. {@code insert} re-inserts every delta key,
+ * the approach the new operations replace. {@code split} cuts the main tree in the middle.
+ * The trees are rebuilt before every invocation, which is not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 50)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class JoinBenchmark {
+
+    public enum Layout {
+        APPEND,
+        INTERLEAVED
+    }
+
+    @Param({"APPEND", "INTERLEAVED"})
+    public Layout layout;
+
+    @Param({"64"})
+    public int minDegree;
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"1000", "100000"})
+    public int deltaSize;
+
+    private IntKey[] mainKeys;
+    private IntKey[] deltaKeys;
+    private BTree<IntKey> main;
+    private BTree<IntKey> delta;
+
+    @Setup(Level.Trial)
+    public void keys() {
+        mainKeys = KeyOrder.SORTED.keys(size, 42);
+        deltaKeys = new IntKey[deltaSize];
+        for (int i = 0; i < deltaSize; i++) {
+            // Main keys are even, so odd keys interleave with them.
+            int value = layout == Layout.APPEND ? 2 * size + i : (int) (2L * i * size / deltaSize) + 1;
+            deltaKeys[i] = new IntKey(value);
+        }
+        Arrays.sort(deltaKeys, (a, b) -> a.compare(b));
+    }
+
+    @Setup(Level.Invocation)
+    public void trees() {
+        main = new BTree<>(IntKey.class, minDegree);
+        main.bulkLoad(mainKeys, 0.7);
+        delta = new BTree<>(IntKey.class, minDegree);
+        delta.bulkLoad(deltaKeys, 0.7);
+    }
+
+    @Benchmark
+    public BTree<IntKey> join() {
+        main.join(delta);
+        return main;
+    }
+
+    @Benchmark
+    public BTree<IntKey> insert() {
+        for (IntKey key : deltaKeys) {
+            main.insert(key);
+        }
+        return main;
+    }
+
+    @Benchmark
+    public BTree<IntKey> split() {
+        return main.split(new IntKey(size));
+    }
+}
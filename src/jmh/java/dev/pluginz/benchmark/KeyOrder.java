@@ -0,0 +1,56 @@
+package dev.pluginz.benchmark;
+
+import java.util.Random;
+
+/**
+ * KeyOrder describes the order in which keys are fed into a structure.
+ */
+public enum KeyOrder {
+    RANDOM,
+    SORTED,
+    REVERSE;
+
+    /**
+     * Creates the keys 0, 2, 4, ... 2 * (size - 1) in this order.
+     * Only even values are used so that odd values can serve as guaranteed misses.
+     * @param size the number of keys.
+     * @param seed the seed used for shuffling.
+     * @return the keys in this order.
+     */
+    public IntKey[] keys(int size, long seed) {
+        IntKey[] keys = new IntKey[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = new IntKey(2 * i);
+        }
+        switch (this) {
+            case RANDOM:
+                shuffle(keys, seed);
+                break;
+            case REVERSE:
+                for (int i = 0, j = size - 1; i < j; i++, j--) {
+                    IntKey tmp = keys[i];
+                    keys[i] = keys[j];
+                    keys[j] = tmp;
+                }
+                break;
+            default:
+                break;
+        }
+        return keys;
+    }
+
+    /**
+     * Shuffles the given array in place using a Fisher-Yates shuffle.
+     * @param keys the keys to be shuffled.
+     * @param seed the seed of the random generator.
+     */
+    static void shuffle(IntKey[] keys, long seed) {
+        Random random = new Random(seed);
+        for (int i = keys.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            IntKey tmp = keys[i];
+            keys[i] = keys[j];
+            keys[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package dev.pluginz.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LookupBenchmark measures single lookups against a prebuilt structure.
+ * Hits probe keys that are present, misses probe odd values that never are.
+ * The structure is always built from randomly ordered keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class LookupBenchmark {
+
+    @Param({"BTREE_3", "BTREE_16", "BTREE_64", "BST", "AVL", "TREE_MAP"})
+    public Structure structure;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private Structure.Index index;
+    private IntKey[] hits;
+    private IntKey[] misses;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        index = structure.create();
+        for (IntKey key : KeyOrder.RANDOM.keys(size, 42)) {
+            index.insert(key);
+        }
+        hits = KeyOrder.RANDOM.keys(size, 7);
+        misses = new IntKey[size];
+        for (int i = 0; i < size; i++) {
+            misses[i] = new IntKey(hits[i].getValue() + 1);
+        }
+    }
+
+    @Benchmark
+    public boolean hit() {
+        return index.contains(hits[next()]);
+    }
+
+    @Benchmark
+    public boolean miss() {
+        return index.contains(misses[next()]);
+    }
+
+    private int next() {
+        int i = cursor;
+        cursor = i + 1 == size ? 0 : i + 1;
+        return i;
+    }
+}
@@ -0,0 +1,68 @@
+package dev.pluginz.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MixedBenchmark interleaves lookups and inserts on a prebuilt structure.
+ * {@code readPercent} selects the share of lookups; the rest are inserts of fresh odd keys.
+ * The structure is rebuilt before every iteration so that it does not grow without bound.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class MixedBenchmark {
+
+    @Param({"BTREE_3", "BTREE_16", "BTREE_64", "BST", "TREE_MAP"})
+    public Structure structure;
+
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    @Param({"90", "50"})
+    public int readPercent;
+
+    private IntKey[] keys;
+    private Structure.Index index;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setupKeys() {
+        keys = KeyOrder.RANDOM.keys(size, 42);
+    }
+
+    @Setup(Level.Iteration)
+    public void setupIndex() {
+        index = structure.create();
+        for (IntKey key : keys) {
+            index.insert(key);
+        }
+        random = new SplittableRandom(7);
+    }
+
+    @Benchmark
+    public boolean readWrite() {
+        int value = random.nextInt(2 * size);
+        if (random.nextInt(100) < readPercent) {
+            return index.contains(keys[value >>> 1]);
+        }
+        index.insert(new IntKey(value | 1));
+        return true;
+    }
+}
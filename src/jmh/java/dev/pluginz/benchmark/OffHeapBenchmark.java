@@ -0,0 +1,88 @@
+package dev.pluginz.benchmark;
+
+import dev.pluginz.BTree;
+import dev.pluginz.OffHeapBTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OffHeapBenchmark compares a heap {@link BTree} with an {@link OffHeapBTree} of the same minimum degree.
+ * The index is built once per trial from randomly ordered keys and then probed with hits.
+ * The scores show what reading keys through a codec costs; the GC profiler shows that lookups on
+ * the off-heap tree allocate nothing, while the heap tree keeps the whole index reachable for the collector.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class OffHeapBenchmark {
+
+    public enum Storage {
+        HEAP,
+        OFF_HEAP
+    }
+
+    @Param({"HEAP", "OFF_HEAP"})
+    public Storage storage;
+
+    @Param({"64"})
+    public int minDegree;
+
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    private BTree<IntKey> heapTree;
+    private OffHeapBTree<IntKey> offHeapTree;
+    private IntKey[] hits;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        if (storage == Storage.HEAP) {
+            heapTree = new BTree<>(IntKey.class, minDegree);
+        } else {
+            offHeapTree = new OffHeapBTree<>(IntKey.CODEC, minDegree);
+        }
+        for (IntKey key : KeyOrder.RANDOM.keys(size, 42)) {
+            if (heapTree != null) {
+                heapTree.insert(key);
+            } else {
+                offHeapTree.insert(key);
+            }
+        }
+        hits = KeyOrder.RANDOM.keys(size, 7);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (offHeapTree != null) {
+            offHeapTree.close();
+        }
+    }
+
+    @Benchmark
+    public boolean hit() {
+        IntKey key = hits[next()];
+        return heapTree != null ? heapTree.search(key) != null : offHeapTree.search(key) != null;
+    }
+
+    private int next() {
+        int i = cursor;
+        cursor = i + 1 == size ? 0 : i + 1;
+        return i;
+    }
+}
@@ -0,0 +1,83 @@
+package dev.pluginz.benchmark;
+
+import dev.pluginz.BTree;
+import dev.pluginz.ParallelBTreeBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ParallelBuildBenchmark measures building a {@link BTree} from randomly ordered keys.
+ * {@code parallel} uses a {@link ParallelBTreeBuilder} on a pool of {@code threads} threads, so the scores
+ * across the thread counts form the speedup curve; {@code threads = 1} is the single-threaded sort and build.
+ * {@code sortAndBulkLoad} and {@code insert} are the sequential baselines and do not depend on {@code threads}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx16g"})
+public class ParallelBuildBenchmark {
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int threads;
+
+    @Param({"64"})
+    public int minDegree;
+
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    private IntKey[] keys;
+    private ForkJoinPool pool;
+    private ParallelBTreeBuilder<IntKey> builder;
+
+    @Setup
+    public void setup() {
+        keys = KeyOrder.RANDOM.keys(size, 42);
+        pool = new ForkJoinPool(threads);
+        builder = new ParallelBTreeBuilder<>(IntKey.class, minDegree, 1.0, pool);
+    }
+
+    @TearDown
+    public void teardown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public BTree<IntKey> parallel() {
+        return builder.build(keys);
+    }
+
+    @Benchmark
+    public BTree<IntKey> sortAndBulkLoad() {
+        IntKey[] sorted = keys.clone();
+        Arrays.sort(sorted, (a, b) -> a.compare(b));
+        BTree<IntKey> tree = new BTree<>(IntKey.class, minDegree);
+        tree.bulkLoad(sorted);
+        return tree;
+    }
+
+    @Benchmark
+    public BTree<IntKey> insert() {
+        BTree<IntKey> tree = new BTree<>(IntKey.class, minDegree);
+        for (IntKey key : keys) {
+            tree.insert(key);
+        }
+        return tree;
+    }
+}
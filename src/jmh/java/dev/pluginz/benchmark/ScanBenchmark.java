@@ -0,0 +1,88 @@
+package dev.pluginz.benchmark;
+
+import dev.pluginz.BPlusTree;
+import dev.pluginz.BTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ScanBenchmark compares range scans over BTree and BPlusTree holding the same keys.
+ * Each operation scans {@code rangeLength} consecutive keys from a random start key.
+ * {@code bTreeCount} counts the same range from the subtree sizes instead of scanning it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class ScanBenchmark {
+
+    @Param({"16", "64"})
+    public int minDegree;
+
+    @Param({"100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"100", "10000", "1000000"})
+    public int rangeLength;
+
+    private BTree<IntKey> bTree;
+    private BPlusTree<IntKey> bPlusTree;
+    private SplittableRandom random;
+
+    @Setup
+    public void setup() {
+        IntKey[] keys = KeyOrder.SORTED.keys(size, 42);
+        bTree = new BTree<>(IntKey.class, minDegree);
+        bTree.bulkLoad(keys);
+        bPlusTree = new BPlusTree<>(IntKey.class, minDegree);
+        for (IntKey key : keys) {
+            bPlusTree.insert(key);
+        }
+        random = new SplittableRandom(7);
+    }
+
+    @Benchmark
+    public void bTreeRange(Blackhole blackhole) {
+        IntKey[] bounds = nextRange();
+        scan(bTree.iterator(bounds[0], true, bounds[1], false), blackhole);
+    }
+
+    @Benchmark
+    public int bTreeCount() {
+        IntKey[] bounds = nextRange();
+        return bTree.count(bounds[0], true, bounds[1], false);
+    }
+
+    @Benchmark
+    public void bPlusTreeRange(Blackhole blackhole) {
+        IntKey[] bounds = nextRange();
+        scan(bPlusTree.iterator(bounds[0], true, bounds[1], false), blackhole);
+    }
+
+    private IntKey[] nextRange() {
+        int start = 2 * random.nextInt(size);
+        return new IntKey[]{new IntKey(start), new IntKey(start + 2 * rangeLength)};
+    }
+
+    private static void scan(Iterator<IntKey> iterator, Blackhole blackhole) {
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package dev.pluginz.benchmark;
+
+import dev.pluginz.BTree;
+import dev.pluginz.BTreeSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SnapshotBenchmark compares loading a {@link BTree} from a snapshot file written by {@link BTreeSerializer}
+ * with rebuilding it from the same keys, either by bulk loading the sorted keys or by inserting them one by one.
+ * Saving is measured as well. The file is small enough to stay in the page cache, so the load score
+ * approximates the decoding throughput rather than the disk bandwidth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class SnapshotBenchmark {
+
+    @Param({"64"})
+    public int minDegree;
+
+    @Param({"1000000"})
+    public int size;
+
+    private final BTreeSerializer<IntKey> serializer = new BTreeSerializer<>(IntKey.class, IntKey.CODEC);
+    private IntKey[] keys;
+    private IntKey[] sortedKeys;
+    private BTree<IntKey> tree;
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        keys = KeyOrder.RANDOM.keys(size, 42);
+        sortedKeys = KeyOrder.SORTED.keys(size, 42);
+        tree = new BTree<>(IntKey.class, minDegree);
+        tree.bulkLoad(sortedKeys);
+        file = Files.createTempFile("btree", ".snapshot");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            serializer.write(tree, out);
+        }
+    }
+
+    @TearDown
+    public void teardown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public BTree<IntKey> load() throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            return serializer.read(channel);
+        }
+    }
+
+    @Benchmark
+    public BTree<IntKey> bulkLoad() {
+        BTree<IntKey> loaded = new BTree<>(IntKey.class, minDegree);
+        loaded.bulkLoad(sortedKeys);
+        return loaded;
+    }
+
+    @Benchmark
+    public BTree<IntKey> insert() {
+        BTree<IntKey> loaded = new BTree<>(IntKey.class, minDegree);
+        for (IntKey key : keys) {
+            loaded.insert(key);
+        }
+        return loaded;
+    }
+
+    @Benchmark
+    public long save() throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            serializer.write(tree, out);
+        }
+        return Files.size(file);
+    }
+}
@@ -0,0 +1,64 @@
+package dev.pluginz.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SortedInputBenchmark compares the unbalanced BST with the AVL tree on input in ascending order, the case
+ * in which the BST degenerates into a list. {@code build} inserts all keys into an empty tree, {@code lookup}
+ * searches a random key in a tree built from the sorted keys. The sizes stay small enough for the quadratic
+ * build of the BST to finish; TREE_MAP serves as the balanced reference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class SortedInputBenchmark {
+
+    @Param({"BST", "AVL", "TREE_MAP"})
+    public Structure structure;
+
+    @Param({"1000", "10000", "50000"})
+    public int size;
+
+    private IntKey[] sortedKeys;
+    private IntKey[] probes;
+    private Structure.Index index;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        sortedKeys = KeyOrder.SORTED.keys(size, 42);
+        probes = KeyOrder.RANDOM.keys(size, 7);
+        index = build();
+    }
+
+    @Benchmark
+    public Structure.Index build() {
+        Structure.Index built = structure.create();
+        for (IntKey key : sortedKeys) {
+            built.insert(key);
+        }
+        return built;
+    }
+
+    @Benchmark
+    public boolean lookup() {
+        int i = cursor;
+        cursor = i + 1 == size ? 0 : i + 1;
+        return index.contains(probes[i]);
+    }
+}
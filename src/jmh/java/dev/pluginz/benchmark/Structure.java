@@ -0,0 +1,125 @@
+package dev.pluginz.benchmark;
+
+import dev.pluginz.AVLTree;
+import dev.pluginz.BTree;
+import dev.pluginz.abschreiben.BinarySearchTree;
+
+import java.util.Comparator;
+import java.util.TreeMap;
+
+/**
+ * Structure enumerates the data structures under test.
+ * The BTREE_* constants differ only in their minimum degree.
+ */
+public enum Structure {
+    BTREE_2,
+    BTREE_3,
+    BTREE_16,
+    BTREE_64,
+    BTREE_256,
+    BST,
+    AVL,
+    TREE_MAP;
+
+    /**
+     * InsertOnlyIndex is the view of a structure that only grows, such as ConcurrentBTree.
+     */
+    public interface InsertOnlyIndex {
+        void insert(IntKey key);
+
+        boolean contains(IntKey key);
+    }
+
+    /**
+     * Index is the common view of all structures used by the benchmarks.
+     */
+    public interface Index extends InsertOnlyIndex {
+        void remove(IntKey key);
+    }
+
+    /**
+     * Creates a new, empty instance of this structure.
+     * @return the new index.
+     */
+    public Index create() {
+        switch (this) {
+            case BST:
+                return new Index() {
+                    private final BinarySearchTree<IntKey> tree = new BinarySearchTree<>();
+
+                    @Override
+                    public void insert(IntKey key) {
+                        tree.insert(key);
+                    }
+
+                    @Override
+                    public boolean contains(IntKey key) {
+                        return tree.search(key) != null;
+                    }
+
+                    @Override
+                    public void remove(IntKey key) {
+                        tree.remove(key);
+                    }
+                };
+            case AVL:
+                return new Index() {
+                    private final AVLTree<IntKey> tree = new AVLTree<>();
+
+                    @Override
+                    public void insert(IntKey key) {
+                        tree.insert(key);
+                    }
+
+                    @Override
+                    public boolean contains(IntKey key) {
+                        return tree.search(key) != null;
+                    }
+
+                    @Override
+                    public void remove(IntKey key) {
+                        tree.remove(key);
+                    }
+                };
+            case TREE_MAP:
+                return new Index() {
+                    private final TreeMap<IntKey, IntKey> map = new TreeMap<>(Comparator.comparingInt(IntKey::getValue));
+
+                    @Override
+                    public void insert(IntKey key) {
+                        map.put(key, key);
+                    }
+
+                    @Override
+                    public boolean contains(IntKey key) {
+                        return map.containsKey(key);
+                    }
+
+                    @Override
+                    public void remove(IntKey key) {
+                        map.remove(key);
+                    }
+                };
+            default:
+                int minDegree = Integer.parseInt(name().substring("BTREE_".length()));
+                return new Index() {
+                    private final BTree<IntKey> tree = new BTree<>(IntKey.class, minDegree);
+
+                    @Override
+                    public void insert(IntKey key) {
+                        tree.insert(key);
+                    }
+
+                    @Override
+                    public boolean contains(IntKey key) {
+                        return tree.search(key) != null;
+                    }
+
+                    @Override
+                    public void remove(IntKey key) {
+                        tree.remove(key);
+                    }
+                };
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package dev.pluginz;
+
+import dev.pluginz.interfaces.ComparableContent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AVLTree is a self-balancing variant of {@link dev.pluginz.abschreiben.BinarySearchTree} with the same public API.
+ * Like there, a tree is either empty or holds a key and two subtrees that are trees themselves, a key equal to
+ * a present one is not inserted again, and {@link #getLeftTree()} and {@link #getRightTree()} return empty trees
+ * below a leaf.
+ * <p>
+ * After every insert and removal, the heights of the two subtrees of every node on the changed path are brought
+ * back to a difference of at most one by rotations. The height therefore stays below 1.44 log2(n + 2), so lookups,
+ * inserts and removals take O(log n) even for sorted input, on which the unbalanced tree degenerates into a list.
+ * A rotation moves keys between the tree objects on the path, so a subtree obtained earlier may hold a different
+ * part of the tree after a modification.
+ * @param <ContentType> the type of the keys.
+ */
+public class AVLTree<ContentType extends ComparableContent<ContentType>> {
+
+    /**
+     * AVLNode holds the key of a non-empty tree, its subtrees and its height.
+     */
+    private static final class AVLNode<CT extends ComparableContent<CT>> {
+        private CT content;
+        private AVLTree<CT> left;
+        private AVLTree<CT> right;
+        private int height;
+
+        AVLNode(CT content) {
+            this.content = content;
+            this.left = new AVLTree<>();
+            this.right = new AVLTree<>();
+        }
+    }
+
+    private AVLNode<ContentType> node;
+
+    /**
+     * AVLTree constructor, creating an empty tree.
+     */
+    public AVLTree() {
+        this.node = null;
+    }
+
+    /**
+     * Checks whether the tree is empty.
+     * @return true if the tree holds no key, false otherwise.
+     */
+    public boolean isEmpty() {
+        return node == null;
+    }
+
+    /**
+     * Returns the key at the root of the tree.
+     * @return the key, or null if the tree is empty.
+     */
+    public ContentType getContent() {
+        return isEmpty() ? null : node.content;
+    }
+
+    /**
+     * Returns the left subtree, which holds the smaller keys.
+     * @return the left subtree, or null if the tree is empty.
+     */
+    public AVLTree<ContentType> getLeftTree() {
+        return isEmpty() ? null : node.left;
+    }
+
+    /**
+     * Returns the right subtree, which holds the greater keys.
+     * @return the right subtree, or null if the tree is empty.
+     */
+    public AVLTree<ContentType> getRightTree() {
+        return isEmpty() ? null : node.right;
+    }
+
+    /**
+     * Returns the height of the tree, the number of edges from the root to the deepest leaf, in O(1).
+     * @return the height, -1 if the tree is empty.
+     */
+    public int getHeight() {
+        return isEmpty() ? -1 : node.height;
+    }
+
+    /**
+     * Inserts a key and rebalances the path to it. If an equal key is present or the key is null, nothing happens.
+     * @param pContent the key to be inserted.
+     */
+    public void insert(ContentType pContent) {
+        if (pContent == null) {
+            return;
+        }
+        List<AVLTree<ContentType>> path = new ArrayList<>();
+        AVLTree<ContentType> tree = this;
+        while (!tree.isEmpty()) {
+            int cmp = pContent.compare(tree.node.content);
+            if (cmp == 0) {
+                return;
+            }
+            path.add(tree);
+            tree = cmp < 0 ? tree.node.left : tree.node.right;
+        }
+        tree.node = new AVLNode<>(pContent);
+        rebalance(path);
+    }
+
+    /**
+     * Removes the key equal to the given one, if present, and rebalances the path to the removed node.
+     * A key with two subtrees is replaced by its successor, the smallest key of its right subtree.
+     * @param pContent the key to be removed.
+     */
+    public void remove(ContentType pContent) {
+        if (pContent == null) {
+            return;
+        }
+        List<AVLTree<ContentType>> path = new ArrayList<>();
+        AVLTree<ContentType> tree = this;
+        while (true) {
+            if (tree.isEmpty()) {
+                return;
+            }
+            int cmp = pContent.compare(tree.node.content);
+            if (cmp == 0) {
+                break;
+            }
+            path.add(tree);
+            tree = cmp < 0 ? tree.node.left : tree.node.right;
+        }
+        if (tree.node.left.isEmpty()) {
+            tree.node = tree.node.right.node;
+        } else if (tree.node.right.isEmpty()) {
+            tree.node = tree.node.left.node;
+        } else {
+            path.add(tree);
+            AVLTree<ContentType> smallest = tree.node.right;
+            while (!smallest.node.left.isEmpty()) {
+                path.add(smallest);
+                smallest = smallest.node.left;
+            }
+            tree.node.content = smallest.node.content;
+            smallest.node = smallest.node.right.node;
+        }
+        rebalance(path);
+    }
+
+    /**
+     * Searches for the key equal to the given one.
+     * @param pContent the key to be searched for.
+     * @return the key if it is found, null otherwise or if the parameter is null.
+     */
+    public ContentType search(ContentType pContent) {
+        if (pContent == null) {
+            return null;
+        }
+        AVLTree<ContentType> tree = this;
+        while (!tree.isEmpty()) {
+            ContentType content = tree.node.content;
+            int cmp = pContent.compare(content);
+            if (cmp < 0) {
+                tree = tree.node.left;
+            } else if (cmp > 0) {
+                tree = tree.node.right;
+            } else {
+                return content;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Updates the heights along a path from the root downwards, starting at its lower end, and rotates
+     * every tree whose subtrees differ in height by two. Stops early once a height does not change,
+     * since the trees above cannot be affected then.
+     * @param path the trees from the root to the parent of the changed subtree.
+     */
+    private static <CT extends ComparableContent<CT>> void rebalance(List<AVLTree<CT>> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            AVLTree<CT> tree = path.get(i);
+            int before = tree.node.height;
+            int balance = tree.node.left.getHeight() - tree.node.right.getHeight();
+            if (balance > 1) {
+                AVLTree<CT> left = tree.node.left;
+                if (left.node.left.getHeight() < left.node.right.getHeight()) {
+                    left.rotateLeft();
+                }
+                tree.rotateRight();
+            } else if (balance < -1) {
+                AVLTree<CT> right = tree.node.right;
+                if (right.node.right.getHeight() < right.node.left.getHeight()) {
+                    right.rotateRight();
+                }
+                tree.rotateLeft();
+            } else {
+                tree.updateHeight();
+            }
+            if (tree.node.height == before && balance >= -1 && balance <= 1) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Lifts the root of the left subtree into this tree. The tree object of the left subtree is reused
+     * for the former root, which becomes the right subtree.
+     */
+    private void rotateRight() {
+        AVLNode<ContentType> top = node;
+        AVLTree<ContentType> leftTree = top.left;
+        AVLNode<ContentType> lifted = leftTree.node;
+        top.left = lifted.right;
+        leftTree.node = top;
+        leftTree.updateHeight();
+        lifted.right = leftTree;
+        node = lifted;
+        updateHeight();
+    }
+
+    /**
+     * Lifts the root of the right subtree into this tree. The tree object of the right subtree is reused
+     * for the former root, which becomes the left subtree.
+     */
+    private void rotateLeft() {
+        AVLNode<ContentType> top = node;
+        AVLTree<ContentType> rightTree = top.right;
+        AVLNode<ContentType> lifted = rightTree.node;
+        top.right = lifted.left;
+        rightTree.node = top;
+        rightTree.updateHeight();
+        lifted.left = rightTree;
+        node = lifted;
+        updateHeight();
+    }
+
+    private void updateHeight() {
+        node.height = 1 + Math.max(node.left.getHeight(), node.right.getHeight());
+    }
+}
@@ -0,0 +1,74 @@
+package dev.pluginz;
+
+import dev.pluginz.interfaces.PageStore;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+
+/**
+ * ArenaPageStore keeps its pages in native memory allocated from a shared {@link Arena}.
+ * Pages are carved out of chunks of about one megabyte, so growing the store never copies
+ * existing pages and the heap only holds one segment reference per chunk.
+ */
+public class ArenaPageStore implements PageStore {
+
+    private static final long CHUNK_BYTES = 1 << 20;
+    private static final long PAGE_ALIGNMENT = 8;
+
+    private final Arena arena = Arena.ofShared();
+    private final int pageSize;
+    private final int pagesPerChunk;
+    private MemorySegment[] chunks = new MemorySegment[8];
+    private long pageCount;
+
+    /**
+     * ArenaPageStore constructor.
+     * @param pageSize the size of every page in bytes, a positive multiple of 8.
+     * @throws IllegalArgumentException if pageSize is not a positive multiple of 8.
+     */
+    public ArenaPageStore(int pageSize) {
+        if (pageSize <= 0 || pageSize % PAGE_ALIGNMENT != 0) {
+            throw new IllegalArgumentException("Page size must be a positive multiple of " + PAGE_ALIGNMENT + ", got " + pageSize);
+        }
+        this.pageSize = pageSize;
+        this.pagesPerChunk = (int) Math.max(1, CHUNK_BYTES / pageSize);
+    }
+
+    @Override
+    public int pageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public long pageCount() {
+        return pageCount;
+    }
+
+    @Override
+    public long allocate() {
+        int chunk = (int) (pageCount / pagesPerChunk);
+        if (pageCount % pagesPerChunk == 0) {
+            if (chunk == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunks.length * 2);
+            }
+            // Arena memory is zeroed on allocation.
+            chunks[chunk] = arena.allocate((long) pagesPerChunk * pageSize, PAGE_ALIGNMENT);
+        }
+        return pageCount++;
+    }
+
+    @Override
+    public MemorySegment page(long id) {
+        if (id < 0 || id >= pageCount) {
+            throw new IndexOutOfBoundsException("Page " + id + " has not been allocated");
+        }
+        return chunks[(int) (id / pagesPerChunk)].asSlice((id % pagesPerChunk) * pageSize, pageSize);
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+        chunks = null;
+    }
+}
@@ -0,0 +1,337 @@
+package dev.pluginz;
+
+import dev.pluginz.interfaces.ComparableContent;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * BPlusTree is a generic class that represents a B+ tree data structure.
+ * All keys live in the leaves, which are chained from left to right; inner nodes only hold separator keys
+ * that guide the search. A range scan therefore needs a single descent followed by a linear walk along the leaves.
+ * Like {@link BTree}, it uses the ComparableContent key contract and keeps duplicate keys.
+ */
+public class BPlusTree<CT extends ComparableContent<CT>> implements Iterable<CT> {
+
+    /**
+     * Node is a nested class that represents a node in the B+ tree.
+     * Leaves use keys and next; inner nodes use keys as separators and children.
+     */
+    static final class Node<CT> {
+        final CT[] keys;
+        final Node<CT>[] children;
+        final boolean isLeaf;
+        int numKeys;
+        Node<CT> next;
+
+        /**
+         * Node constructor.
+         * @param isLeaf indicates whether the node is a leaf node.
+         * @param keys the array holding the keys of the node.
+         */
+        @SuppressWarnings("unchecked")
+        Node(boolean isLeaf, CT[] keys) {
+            this.isLeaf = isLeaf;
+            this.keys = keys;
+            this.children = isLeaf ? null : (Node<CT>[]) new Node<?>[keys.length + 1];
+        }
+    }
+
+    private final int t;
+    private final Class<CT> clazz;
+    private Node<CT> root;
+    private long size;
+
+    /**
+     * BPlusTree constructor using the {@link BTree#DEFAULT_MIN_DEGREE}.
+     * @param clazz the Class object representing CT.
+     */
+    public BPlusTree(Class<CT> clazz) {
+        this(clazz, BTree.DEFAULT_MIN_DEGREE);
+    }
+
+    /**
+     * BPlusTree constructor.
+     * Every node except the root holds between minDegree - 1 and 2 * minDegree - 1 keys.
+     * @param clazz the Class object representing CT.
+     * @param minDegree the minimum degree of the tree, at least 2.
+     * @throws IllegalArgumentException if minDegree is smaller than 2.
+     */
+    public BPlusTree(Class<CT> clazz, int minDegree) {
+        if (minDegree < 2) {
+            throw new IllegalArgumentException("Minimum degree must be at least 2, got " + minDegree);
+        }
+        this.t = minDegree;
+        this.clazz = clazz;
+        this.root = newNode(true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<CT> newNode(boolean isLeaf) {
+        return new Node<>(isLeaf, (CT[]) java.lang.reflect.Array.newInstance(clazz, 2 * t - 1));
+    }
+
+    /**
+     * Returns the minimum degree of the tree.
+     * @return the minimum degree.
+     */
+    public int getMinDegree() {
+        return t;
+    }
+
+    /**
+     * Returns the number of keys in the tree.
+     * @return the number of keys.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Inserts a key into the tree.
+     * Full nodes are split on the way down, so the insertion needs a single pass.
+     * @param key the key to be inserted.
+     */
+    public void insert(CT key) {
+        Node<CT> node = root;
+        if (node.numKeys == 2 * t - 1) {
+            Node<CT> s = newNode(false);
+            s.children[0] = node;
+            root = s;
+            splitChild(s, 0);
+            node = s;
+        }
+        while (!node.isLeaf) {
+            int i = upperBound(node, key);
+            if (node.children[i].numKeys == 2 * t - 1) {
+                splitChild(node, i);
+                if (key.compare(node.keys[i]) >= 0) {
+                    i++;
+                }
+            }
+            node = node.children[i];
+        }
+        int i = upperBound(node, key);
+        System.arraycopy(node.keys, i, node.keys, i + 1, node.numKeys - i);
+        node.keys[i] = key;
+        node.numKeys++;
+        size++;
+    }
+
+    /**
+     * Splits a full child node of the given node.
+     * A leaf keeps its first t keys and the first key of the new right leaf is copied up as separator.
+     * An inner node moves its median key up, as in a classic B-tree.
+     * @param node the parent node.
+     * @param i the index of the child to be split.
+     */
+    private void splitChild(Node<CT> node, int i) {
+        Node<CT> y = node.children[i];
+        Node<CT> z = newNode(y.isLeaf);
+        CT separator;
+        if (y.isLeaf) {
+            System.arraycopy(y.keys, t, z.keys, 0, t - 1);
+            z.numKeys = t - 1;
+            y.numKeys = t;
+            z.next = y.next;
+            y.next = z;
+            separator = z.keys[0];
+        } else {
+            System.arraycopy(y.keys, t, z.keys, 0, t - 1);
+            System.arraycopy(y.children, t, z.children, 0, t);
+            z.numKeys = t - 1;
+            y.numKeys = t - 1;
+            separator = y.keys[t - 1];
+            for (int j = t; j < 2 * t; j++) {
+                y.children[j] = null;
+            }
+        }
+        for (int j = y.numKeys; j < 2 * t - 1; j++) {
+            y.keys[j] = null;
+        }
+        System.arraycopy(node.children, i + 1, node.children, i + 2, node.numKeys - i);
+        node.children[i + 1] = z;
+        System.arraycopy(node.keys, i, node.keys, i + 1, node.numKeys - i);
+        node.keys[i] = separator;
+        node.numKeys++;
+    }
+
+    /**
+     * Searches for a key in the tree.
+     * @param key the key to be searched for.
+     * @return the key if it is found, null otherwise.
+     */
+    public CT search(CT key) {
+        Node<CT> leaf = findLeaf(key);
+        int i = lowerBound(leaf, key);
+        if (i == leaf.numKeys) {
+            leaf = leaf.next;
+            i = 0;
+        }
+        if (leaf != null && key.compare(leaf.keys[i]) == 0) {
+            return leaf.keys[i];
+        }
+        return null;
+    }
+
+    /**
+     * Descends to the leftmost leaf that may hold keys not less than the given key.
+     * @param key the key to be located.
+     * @return the leaf.
+     */
+    private Node<CT> findLeaf(CT key) {
+        Node<CT> node = root;
+        while (!node.isLeaf) {
+            node = node.children[lowerBound(node, key)];
+        }
+        return node;
+    }
+
+    /**
+     * Finds the first position in a node whose key is not less than the given key.
+     * @param node the node to be searched.
+     * @param key the key to be located.
+     * @return the index of the first key not less than the given key, or the number of keys if there is none.
+     */
+    private int lowerBound(Node<CT> node, CT key) {
+        int lo = 0;
+        int hi = node.numKeys;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (key.compare(node.keys[mid]) > 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Finds the first position in a node whose key is greater than the given key.
+     * @param node the node to be searched.
+     * @param key the key to be located.
+     * @return the index of the first greater key, or the number of keys if there is none.
+     */
+    private int upperBound(Node<CT> node, CT key) {
+        int lo = 0;
+        int hi = node.numKeys;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (key.compare(node.keys[mid]) < 0) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns an iterator over all keys in ascending order.
+     * @return the iterator.
+     */
+    @Override
+    public Iterator<CT> iterator() {
+        return iterator(null, false, null, false);
+    }
+
+    /**
+     * Returns an iterator over the keys between two bounds in ascending order.
+     * The iterator descends once to the first leaf of the range and then follows the leaf chain.
+     * It is not fail-fast; the tree must not be modified while iterating.
+     * @param from the lower bound, or null for no lower bound.
+     * @param fromInclusive whether keys equal to the lower bound are included.
+     * @param to the upper bound, or null for no upper bound.
+     * @param toInclusive whether keys equal to the upper bound are included.
+     * @return the iterator.
+     */
+    public Iterator<CT> iterator(CT from, boolean fromInclusive, CT to, boolean toInclusive) {
+        return new LeafIterator(from, fromInclusive, to, toInclusive);
+    }
+
+    /**
+     * Returns a sequential stream of all keys in ascending order.
+     * @return the stream.
+     */
+    public Stream<CT> stream() {
+        return stream(null, false, null, false);
+    }
+
+    /**
+     * Returns a sequential stream of the keys between two bounds in ascending order.
+     * @param from the lower bound, or null for no lower bound.
+     * @param fromInclusive whether keys equal to the lower bound are included.
+     * @param to the upper bound, or null for no upper bound.
+     * @param toInclusive whether keys equal to the upper bound are included.
+     * @return the stream.
+     */
+    public Stream<CT> stream(CT from, boolean fromInclusive, CT to, boolean toInclusive) {
+        Iterator<CT> iterator = iterator(from, fromInclusive, to, toInclusive);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * LeafIterator walks the leaf chain from the first key within the lower bound.
+     */
+    private class LeafIterator implements Iterator<CT> {
+        private Node<CT> leaf;
+        private int index;
+        private final CT upper;
+        private final boolean upperInclusive;
+
+        LeafIterator(CT lower, boolean lowerInclusive, CT upper, boolean upperInclusive) {
+            this.upper = upper;
+            this.upperInclusive = upperInclusive;
+            if (lower == null) {
+                Node<CT> node = root;
+                while (!node.isLeaf) {
+                    node = node.children[0];
+                }
+                leaf = node;
+            } else {
+                leaf = findLeaf(lower);
+                index = lowerInclusive ? lowerBound(leaf, lower) : upperBound(leaf, lower);
+                // Keys equal to an exclusive lower bound may continue in the following leaves.
+                while (leaf != null && index == leaf.numKeys) {
+                    leaf = leaf.next;
+                    index = leaf == null || lowerInclusive ? 0 : upperBound(leaf, lower);
+                }
+            }
+            advanceLeaf();
+        }
+
+        private void advanceLeaf() {
+            while (leaf != null && index >= leaf.numKeys) {
+                leaf = leaf.next;
+                index = 0;
+            }
+            if (leaf != null && upper != null) {
+                int cmp = leaf.keys[index].compare(upper);
+                if (cmp > 0 || (cmp == 0 && !upperInclusive)) {
+                    leaf = null;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null;
+        }
+
+        @Override
+        public CT next() {
+            if (leaf == null) {
+                throw new NoSuchElementException();
+            }
+            CT key = leaf.keys[index++];
+            advanceLeaf();
+            return key;
+        }
+    }
+}
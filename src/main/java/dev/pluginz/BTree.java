@@ -1,43 +1,122 @@
 package dev.pluginz;
 
 import dev.pluginz.interfaces.ComparableContent;
+import dev.pluginz.interfaces.KeyHasher;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * BTree is a generic class that represents a B-Tree data structure.
  * The B-Tree nodes store objects of a generic type CT that extends ComparableContent<CT>.
+ * Its keys can be iterated and streamed in ascending order, optionally restricted to a range.
+ * Every node counts the keys of its subtree, so the size, the rank of a key, the key at a rank and the
+ * number of keys in a range are found in O(log n).
  */
-public class BTree<CT extends ComparableContent<CT>> {
+public class BTree<CT extends ComparableContent<CT>> implements Iterable<CT> {
 
     /**
      * BTreeListener is an interface for classes that want to be notified when the BTree changes.
+     * Listeners are notified once per logical operation, or once per batch while notifications are suspended.
      */
     public interface BTreeListener<CT extends ComparableContent<CT>> {
         void onTreeChanged(BTree<CT> tree);
+
+        /**
+         * Called when the BTree changes, together with a description of the change.
+         * The default implementation ignores the event and calls {@link #onTreeChanged(BTree)}.
+         * @param tree the BTree that has changed.
+         * @param event the changes since the last notification.
+         */
+        default void onTreeChanged(BTree<CT> tree, TreeChangeEvent<CT> event) {
+            onTreeChanged(tree);
+        }
+    }
+
+    /**
+     * TreeChangeEvent describes all changes coalesced into a single notification.
+     */
+    public static class TreeChangeEvent<CT extends ComparableContent<CT>> {
+        private final List<CT> insertedKeys = new ArrayList<>();
+        private final List<CT> removedKeys = new ArrayList<>();
+        private int splitCount;
+        private int mergeCount;
+        private boolean rootChanged;
+
+        /**
+         * Returns the keys inserted since the last notification, in insertion order.
+         * @return the inserted keys.
+         */
+        public List<CT> getInsertedKeys() {
+            return insertedKeys;
+        }
+
+        /**
+         * Returns the keys removed since the last notification, in removal order.
+         * @return the removed keys.
+         */
+        public List<CT> getRemovedKeys() {
+            return removedKeys;
+        }
+
+        /**
+         * Returns the number of node splits since the last notification.
+         * @return the number of splits.
+         */
+        public int getSplitCount() {
+            return splitCount;
+        }
+
+        /**
+         * Returns the number of node merges since the last notification.
+         * @return the number of merges.
+         */
+        public int getMergeCount() {
+            return mergeCount;
+        }
+
+        /**
+         * Indicates whether the tree got a new root since the last notification.
+         * @return true if the root node was replaced, false otherwise.
+         */
+        public boolean isRootChanged() {
+            return rootChanged;
+        }
     }
 
     /**
      * Node is a nested class that represents a node in the B-Tree.
      */
     public class Node<CT extends ComparableContent<CT>> {
-        private static final int T = 3; // Minimum degree (can be adjusted)
         private CT[] keys;
         private Node<CT>[] children;
         private int numKeys;
+        private int size;
         private boolean isLeaf;
 
         /**
          * Node constructor.
+         * The arrays are cloned from empty templates of the tree, which is much cheaper than
+         * creating them reflectively for every node.
          * @param isLeaf indicates whether the node is a leaf node.
-         * @param clazz the Class object representing CT.
          */
         @SuppressWarnings("unchecked")
-        Node(boolean isLeaf, Class<CT> clazz) {
+        Node(boolean isLeaf) {
             this.isLeaf = isLeaf;
-            this.keys = (CT[]) java.lang.reflect.Array.newInstance(clazz, 2 * T - 1);
-            this.children = (Node<CT>[]) java.lang.reflect.Array.newInstance(Node.class, 2 * T);
+            this.keys = (CT[]) keyTemplate.clone();
+            this.children = (Node<CT>[]) childTemplate.clone();
             this.numKeys = 0;
         }
 
@@ -58,6 +137,14 @@ public class BTree<CT extends ComparableContent<CT>> {
             return isLeaf;
         }
 
+        /**
+         * Returns the number of keys in the subtree rooted with this node.
+         * @return the number of keys in the subtree.
+         */
+        public int getSize() {
+            return size;
+        }
+
         public void setNumKeys(int numKeys) {
             this.numKeys = numKeys;
         }
@@ -79,17 +166,75 @@ public class BTree<CT extends ComparableContent<CT>> {
         }
     }
 
+    /**
+     * The minimum degree used when no explicit one is given.
+     */
+    public static final int DEFAULT_MIN_DEGREE = 3;
+
+    /**
+     * The maximum number of nodes freed by merges that are kept for reuse.
+     */
+    private static final int FREE_NODES = 16;
+
+    /**
+     * The smallest capacity a Bloom filter is created with.
+     */
+    private static final long MIN_BLOOM_CAPACITY = 1024;
+
+    private final int t;
+    private final Object[] keyTemplate;
+    private final Node<?>[] childTemplate;
+    private final Node<?>[] freeNodes = newNodeArray(FREE_NODES);
+    private int freeCount;
     private Node<CT> root;
     private Class<CT> clazz;
     private List<BTreeListener<CT>> listeners = new ArrayList<>();
+    private TreeChangeEvent<CT> pendingChange;
+    private int suspendDepth;
+    private TreeMetrics metrics;
+    private BloomFilter<CT> bloomFilter;
 
     /**
-     * BTree constructor.
+     * BTree constructor using the {@link #DEFAULT_MIN_DEGREE}.
      * @param clazz the Class object representing CT.
      */
     public BTree(Class<CT> clazz) {
-        this.root = new Node<>(true, clazz);
+        this(clazz, DEFAULT_MIN_DEGREE);
+    }
+
+    /**
+     * BTree constructor.
+     * Every node except the root holds between minDegree - 1 and 2 * minDegree - 1 keys,
+     * so larger values give wider nodes and a flatter tree.
+     * @param clazz the Class object representing CT.
+     * @param minDegree the minimum degree of the tree, at least 2.
+     * @throws IllegalArgumentException if minDegree is smaller than 2.
+     */
+    public BTree(Class<CT> clazz, int minDegree) {
+        if (minDegree < 2) {
+            throw new IllegalArgumentException("Minimum degree must be at least 2, got " + minDegree);
+        }
+        this.t = minDegree;
         this.clazz = clazz;
+        this.keyTemplate = (Object[]) java.lang.reflect.Array.newInstance(clazz, 2 * t - 1);
+        this.childTemplate = newNodeArray(2 * t);
+        this.root = newNode(true);
+    }
+
+    /**
+     * Returns the minimum degree of the B-Tree.
+     * @return the minimum degree.
+     */
+    public int getMinDegree() {
+        return t;
+    }
+
+    /**
+     * Returns the maximum number of keys a node can hold.
+     * @return the maximum number of keys per node.
+     */
+    private int maxKeys() {
+        return 2 * t - 1;
     }
 
     /**
@@ -97,17 +242,33 @@ public class BTree<CT extends ComparableContent<CT>> {
      * @param key the key to be inserted.
      */
     public void insert(CT key) {
+        TreeMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        beginChange();
         Node<CT> r = root;
-        if (r.getNumKeys() == 2 * Node.T - 1) {
-            Node<CT> s = new Node<>(false, clazz);
+        if (r.getNumKeys() == maxKeys()) {
+            Node<CT> s = newNode(false);
             s.getChildren()[0] = r;
+            s.size = r.size;
             root = s;
+            if (pendingChange != null) {
+                pendingChange.rootChanged = true;
+            }
             splitChild(s, 0);
             insertNonFull(s, key);
         } else {
             insertNonFull(r, key);
         }
-        notifyListeners();
+        if (bloomFilter != null) {
+            addToBloomFilter(key);
+        }
+        if (pendingChange != null) {
+            pendingChange.insertedKeys.add(key);
+        }
+        endChange();
+        if (m != null) {
+            m.recordInsert(start);
+        }
     }
 
     /**
@@ -117,128 +278,1617 @@ public class BTree<CT extends ComparableContent<CT>> {
      */
     private void splitChild(Node<CT> node, int i) {
         Node<CT> y = node.getChildren()[i];
-            Node<CT> z = new Node<>(y.isLeaf(), clazz);
-            z.setNumKeys(Node.T - 1);
-            for (int j = 0; j < Node.T - 1; j++) {
-                z.getKeys()[j] = y.getKeys()[j + Node.T];
-            }
-            if (!y.isLeaf()) {
-                for (int j = 0; j < Node.T; j++) {
-                    z.getChildren()[j] = y.getChildren()[j + Node.T];
-                }
-            }
-            y.setNumKeys(Node.T - 1);
-            for (int j = node.getNumKeys(); j >= i + 1; j--) {
-                node.getChildren()[j + 1] = node.getChildren()[j];
-            }
-            node.getChildren()[i + 1] = z;
-            for (int j = node.getNumKeys() - 1; j >= i; j--) {
-                node.getKeys()[j + 1] = node.getKeys()[j];
+        Node<CT> z = newNode(y.isLeaf());
+        z.setNumKeys(t - 1);
+        for (int j = 0; j < t - 1; j++) {
+            z.getKeys()[j] = y.getKeys()[j + t];
+        }
+        if (!y.isLeaf()) {
+            for (int j = 0; j < t; j++) {
+                z.getChildren()[j] = y.getChildren()[j + t];
             }
-            node.getKeys()[i] = y.getKeys()[Node.T - 1];
-            node.setNumKeys(node.getNumKeys() + 1);
-            notifyListeners();
         }
+        y.setNumKeys(t - 1);
+        z.size = subtreeSize(z);
+        y.size -= z.size + 1;
+        for (int j = node.getNumKeys(); j >= i + 1; j--) {
+            node.getChildren()[j + 1] = node.getChildren()[j];
+        }
+        node.getChildren()[i + 1] = z;
+        for (int j = node.getNumKeys() - 1; j >= i; j--) {
+            node.getKeys()[j + 1] = node.getKeys()[j];
+        }
+        node.getKeys()[i] = y.getKeys()[t - 1];
+        node.setNumKeys(node.getNumKeys() + 1);
+        if (pendingChange != null) {
+            pendingChange.splitCount++;
+        }
+        if (metrics != null) {
+            metrics.recordSplit();
+        }
+    }
 
     /**
-     * Inserts a key into a non-full node.
+     * Inserts a key into the subtree rooted with a non-full node.
+     * Full children are split on the way down, so the descent needs no recursion.
      * @param node the node.
      * @param key the key to be inserted.
      */
     private void insertNonFull(Node<CT> node, CT key) {
-        int i = node.getNumKeys() - 1;
-        if (node.isLeaf()) {
-            while (i >= 0 && key.isLess(node.getKeys()[i])) {
-                node.getKeys()[i + 1] = node.getKeys()[i];
-                i--;
-            }
-            node.getKeys()[i + 1] = key;
-            node.setNumKeys(node.getNumKeys() + 1);
-        } else {
-            while (i >= 0 && key.isLess(node.getKeys()[i])) {
-                i--;
-            }
-            i++;
-            if (node.getChildren()[i].getNumKeys() == 2 * Node.T - 1) {
+        while (!node.isLeaf()) {
+            node.size++;
+            int i = upperBound(node, key);
+            if (node.getChildren()[i].getNumKeys() == maxKeys()) {
                 splitChild(node, i);
-                if (key.isGreater(node.getKeys()[i])) {
+                if (key.compare(node.getKeys()[i]) > 0) {
                     i++;
                 }
             }
-            insertNonFull(node.getChildren()[i], key);
+            node = node.getChildren()[i];
         }
-        notifyListeners();
+        int i = upperBound(node, key);
+        System.arraycopy(node.getKeys(), i, node.getKeys(), i + 1, node.getNumKeys() - i);
+        node.getKeys()[i] = key;
+        node.setNumKeys(node.getNumKeys() + 1);
+        node.size++;
     }
 
     /**
-     * Searches for a key in the B-Tree.
-     * @param key the key to be searched for.
-     * @return the key if it is found, null otherwise.
+     * Computes the number of keys in the subtree rooted with a node from the sizes of its children.
+     * @param node the node.
+     * @return the number of keys in its subtree.
      */
-    public CT search(CT key) {
-        return search(root, key);
+    private int subtreeSize(Node<CT> node) {
+        int size = node.getNumKeys();
+        if (!node.isLeaf()) {
+            for (int i = 0; i <= node.getNumKeys(); i++) {
+                size += node.getChildren()[i].size;
+            }
+        }
+        return size;
     }
 
     /**
-     * Searches for a key in the subtree rooted with the given node.
-     * @param node the root of the subtree.
-     * @param key the key to be searched for.
-     * @return the key if it is found, null otherwise.
+     * Finds the first position in a node whose key is greater than the given key.
+     * Uses a binary search with a single comparison per probe.
+     * @param node the node to be searched.
+     * @param key the key to be located.
+     * @return the index of the first greater key, or the number of keys if there is none.
      */
-    private CT search(Node<CT> node, CT key) {
-        int i = 0;
-            while (i < node.getNumKeys() && key.isGreater(node.getKeys()[i])) {
-                i++;
+    private int upperBound(Node<CT> node, CT key) {
+        CT[] keys = node.getKeys();
+        int lo = 0;
+        int hi = node.getNumKeys();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (key.compare(keys[mid]) < 0) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Finds the first position in a node whose key is not less than the given key.
+     * Uses a binary search with a single comparison per probe.
+     * @param node the node to be searched.
+     * @param key the key to be located.
+     * @return the index of the first key not less than the given key, or the number of keys if there is none.
+     */
+    private int lowerBound(Node<CT> node, CT key) {
+        CT[] keys = node.getKeys();
+        int lo = 0;
+        int hi = node.getNumKeys();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (key.compare(keys[mid]) > 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Removes a key from the B-Tree.
+     * The tree is rebalanced on the way down: before descending into a child with only t - 1 keys,
+     * the child borrows a key from a sibling or is merged with one. Deletion therefore needs a single
+     * pass from the root to a leaf, and the tree shrinks in height when the root runs empty.
+     * If the tree contains duplicates of the key, only one of them is removed.
+     * @param key the key to be removed.
+     * @return the removed key, or null if the key was not found.
+     */
+    public CT remove(CT key) {
+        TreeMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        beginChange();
+        CT removed = remove(root, key);
+        if (root.getNumKeys() == 0 && !root.isLeaf()) {
+            Node<CT> old = root;
+            root = root.getChildren()[0];
+            free(old);
+            if (pendingChange != null) {
+                pendingChange.rootChanged = true;
             }
-            if (i < node.getNumKeys() && key.isEqual(node.getKeys()[i])) {
-                return node.getKeys()[i];
+        }
+        if (removed != null && pendingChange != null) {
+            pendingChange.removedKeys.add(removed);
+        }
+        endChange();
+        if (m != null) {
+            m.recordRemove(start, removed != null);
+        }
+        return removed;
+    }
+
+    /**
+     * Removes a key from the subtree rooted with the given node.
+     * The node must be the root or hold at least t keys.
+     * The nodes on the way down are kept in a path, and their sizes are only decremented once the key
+     * has been removed, so a key that is not found leaves all sizes untouched.
+     * Borrowing and merging on the way down only read the sizes of children, which are not on the path yet.
+     * @param node the root of the subtree.
+     * @param key the key to be removed.
+     * @return the removed key, or null if the key was not found.
+     */
+    private CT remove(Node<CT> node, CT key) {
+        // Removing never makes the tree higher, so the path fits into the current height.
+        Node<CT>[] path = newNodeArray(getHeight() + 1);
+        int depth = 0;
+        while (true) {
+            path[depth++] = node;
+            CT[] keys = node.getKeys();
+            int lo = 0;
+            int hi = node.getNumKeys() - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = key.compare(keys[mid]);
+                if (cmp == 0) {
+                    CT removed = removeAt(node, mid);
+                    for (int d = 0; d < depth; d++) {
+                        path[d].size--;
+                    }
+                    return removed;
+                } else if (cmp < 0) {
+                    hi = mid - 1;
+                } else {
+                    lo = mid + 1;
+                }
             }
             if (node.isLeaf()) {
                 return null;
+            }
+            node = node.getChildren()[ensureChildCanLose(node, lo)];
+        }
+    }
+
+    /**
+     * Removes the key at the given position of a node. The caller decrements the size of the node.
+     * In an inner node the key is replaced by its predecessor or successor if the neighbouring child
+     * can spare a key; otherwise both neighbouring children are merged and the key is removed from the merged node.
+     * @param node the node holding the key, the root or holding at least t keys.
+     * @param i the position of the key.
+     * @return the removed key.
+     */
+    private CT removeAt(Node<CT> node, int i) {
+        CT removed = node.getKeys()[i];
+        while (!node.isLeaf()) {
+            Node<CT> left = node.getChildren()[i];
+            Node<CT> right = node.getChildren()[i + 1];
+            if (left.getNumKeys() >= t) {
+                node.getKeys()[i] = removeLast(left);
+                return removed;
+            } else if (right.getNumKeys() >= t) {
+                node.getKeys()[i] = removeFirst(right);
+                return removed;
+            }
+            // The key moves down into the merged node and is removed from there.
+            merge(node, i);
+            node = left;
+            node.size--;
+            i = t - 1;
+        }
+        removeEntry(node, i, i);
+        return removed;
+    }
+
+    /**
+     * Removes the largest key from the subtree rooted with the given node.
+     * @param node the root of the subtree, holding at least t keys.
+     * @return the removed key.
+     */
+    private CT removeLast(Node<CT> node) {
+        node.size--;
+        while (!node.isLeaf()) {
+            node = node.getChildren()[ensureChildCanLose(node, node.getNumKeys())];
+            node.size--;
+        }
+        CT last = node.getKeys()[node.getNumKeys() - 1];
+        removeEntry(node, node.getNumKeys() - 1, node.getNumKeys());
+        return last;
+    }
+
+    /**
+     * Removes the smallest key from the subtree rooted with the given node.
+     * @param node the root of the subtree, holding at least t keys.
+     * @return the removed key.
+     */
+    private CT removeFirst(Node<CT> node) {
+        node.size--;
+        while (!node.isLeaf()) {
+            node = node.getChildren()[ensureChildCanLose(node, 0)];
+            node.size--;
+        }
+        CT first = node.getKeys()[0];
+        removeEntry(node, 0, 0);
+        return first;
+    }
+
+    /**
+     * Makes sure that a child holds at least t keys before the deletion descends into it,
+     * by borrowing a key from a sibling or by merging it with a sibling.
+     * @param node the parent node.
+     * @param i the index of the child.
+     * @return the index of the child that now covers the keys of the original child.
+     */
+    private int ensureChildCanLose(Node<CT> node, int i) {
+        Node<CT>[] children = node.getChildren();
+        if (children[i].getNumKeys() >= t) {
+            return i;
+        }
+        if (i > 0 && children[i - 1].getNumKeys() >= t) {
+            borrowFromLeft(node, i);
+        } else if (i < node.getNumKeys() && children[i + 1].getNumKeys() >= t) {
+            borrowFromRight(node, i);
+        } else if (i < node.getNumKeys()) {
+            merge(node, i);
+        } else {
+            merge(node, i - 1);
+            return i - 1;
+        }
+        return i;
+    }
+
+    /**
+     * Moves the last key of the left sibling up into the parent and the separator down into the child.
+     * @param node the parent node.
+     * @param i the index of the child receiving the key.
+     */
+    private void borrowFromLeft(Node<CT> node, int i) {
+        Node<CT> child = node.getChildren()[i];
+        Node<CT> sibling = node.getChildren()[i - 1];
+        System.arraycopy(child.getKeys(), 0, child.getKeys(), 1, child.getNumKeys());
+        child.getKeys()[0] = node.getKeys()[i - 1];
+        int moved = 1;
+        if (!child.isLeaf()) {
+            System.arraycopy(child.getChildren(), 0, child.getChildren(), 1, child.getNumKeys() + 1);
+            child.getChildren()[0] = sibling.getChildren()[sibling.getNumKeys()];
+            moved += child.getChildren()[0].size;
+        }
+        child.setNumKeys(child.getNumKeys() + 1);
+        child.size += moved;
+        sibling.size -= moved;
+        node.getKeys()[i - 1] = sibling.getKeys()[sibling.getNumKeys() - 1];
+        removeEntry(sibling, sibling.getNumKeys() - 1, sibling.getNumKeys());
+    }
+
+    /**
+     * Moves the first key of the right sibling up into the parent and the separator down into the child.
+     * @param node the parent node.
+     * @param i the index of the child receiving the key.
+     */
+    private void borrowFromRight(Node<CT> node, int i) {
+        Node<CT> child = node.getChildren()[i];
+        Node<CT> sibling = node.getChildren()[i + 1];
+        child.getKeys()[child.getNumKeys()] = node.getKeys()[i];
+        int moved = 1;
+        if (!child.isLeaf()) {
+            child.getChildren()[child.getNumKeys() + 1] = sibling.getChildren()[0];
+            moved += sibling.getChildren()[0].size;
+        }
+        child.setNumKeys(child.getNumKeys() + 1);
+        child.size += moved;
+        sibling.size -= moved;
+        node.getKeys()[i] = sibling.getKeys()[0];
+        removeEntry(sibling, 0, 0);
+    }
+
+    /**
+     * Merges the child at index i, the separator key i and the child at index i + 1 into the child at index i.
+     * @param node the parent node.
+     * @param i the index of the separator key.
+     */
+    private void merge(Node<CT> node, int i) {
+        Node<CT> left = node.getChildren()[i];
+        Node<CT> right = node.getChildren()[i + 1];
+        int n = left.getNumKeys();
+        left.getKeys()[n] = node.getKeys()[i];
+        System.arraycopy(right.getKeys(), 0, left.getKeys(), n + 1, right.getNumKeys());
+        if (!left.isLeaf()) {
+            System.arraycopy(right.getChildren(), 0, left.getChildren(), n + 1, right.getNumKeys() + 1);
+        }
+        left.setNumKeys(n + 1 + right.getNumKeys());
+        left.size += 1 + right.size;
+        removeEntry(node, i, i + 1);
+        free(right);
+        if (pendingChange != null) {
+            pendingChange.mergeCount++;
+        }
+        if (metrics != null) {
+            metrics.recordMerge();
+        }
+    }
+
+    /**
+     * Removes a key and a child pointer from a node, closing the gaps.
+     * @param node the node.
+     * @param keyIndex the index of the key to be removed.
+     * @param childIndex the index of the child to be removed; ignored for leaves.
+     */
+    private void removeEntry(Node<CT> node, int keyIndex, int childIndex) {
+        int n = node.getNumKeys();
+        System.arraycopy(node.getKeys(), keyIndex + 1, node.getKeys(), keyIndex, n - keyIndex - 1);
+        node.getKeys()[n - 1] = null;
+        if (!node.isLeaf()) {
+            System.arraycopy(node.getChildren(), childIndex + 1, node.getChildren(), childIndex, n - childIndex);
+            node.getChildren()[n] = null;
+        }
+        node.setNumKeys(n - 1);
+    }
+
+    /**
+     * Loads sorted keys into the B-Tree with completely filled nodes.
+     * @param sortedKeys the keys in ascending order.
+     * @see #bulkLoad(Iterator, double)
+     */
+    public void bulkLoad(CT[] sortedKeys) {
+        bulkLoad(sortedKeys, 1.0);
+    }
+
+    /**
+     * Loads sorted keys into the B-Tree.
+     * @param sortedKeys the keys in ascending order.
+     * @param fillFactor the targeted share of used key slots per node, in (0, 1].
+     * @see #bulkLoad(Iterator, double)
+     */
+    public void bulkLoad(CT[] sortedKeys, double fillFactor) {
+        bulkLoad(Arrays.asList(sortedKeys).iterator(), fillFactor);
+    }
+
+    /**
+     * Loads sorted keys into the B-Tree.
+     * @param sortedKeys the keys in ascending order.
+     * @param fillFactor the targeted share of used key slots per node, in (0, 1].
+     * @see #bulkLoad(Iterator, double)
+     */
+    public void bulkLoad(Stream<? extends CT> sortedKeys, double fillFactor) {
+        bulkLoad(sortedKeys.iterator(), fillFactor);
+    }
+
+    /**
+     * Loads sorted keys into the B-Tree.
+     * If the tree is empty, the nodes are built bottom-up in linear time without any splits, each node
+     * holding about fillFactor * (2 * t - 1) keys (but never less than t - 1).
+     * The order of the input is verified on the fly: if a key is smaller than its predecessor, the sorted
+     * prefix is still built bottom-up and the remaining keys are inserted one by one.
+     * If the tree is not empty, all keys are inserted one by one.
+     * Listeners receive a single notification for the whole load.
+     * @param sortedKeys the keys in ascending order.
+     * @param fillFactor the targeted share of used key slots per node, in (0, 1].
+     * @throws IllegalArgumentException if fillFactor is not in (0, 1].
+     */
+    public void bulkLoad(Iterator<? extends CT> sortedKeys, double fillFactor) {
+        if (!(fillFactor > 0 && fillFactor <= 1)) {
+            throw new IllegalArgumentException("Fill factor must be in (0, 1], got " + fillFactor);
+        }
+        suspendNotifications();
+        try {
+            if (root.getNumKeys() == 0) {
+                List<CT> keys = new ArrayList<>();
+                CT unsorted = null;
+                while (sortedKeys.hasNext()) {
+                    CT key = sortedKeys.next();
+                    if (!keys.isEmpty() && key.compare(keys.get(keys.size() - 1)) < 0) {
+                        unsorted = key;
+                        break;
+                    }
+                    keys.add(key);
+                }
+                buildFromSorted(keys, fillFactor, false);
+                if (unsorted != null) {
+                    insert(unsorted);
+                }
+            }
+            while (sortedKeys.hasNext()) {
+                insert(sortedKeys.next());
+            }
+        } finally {
+            resumeNotifications();
+        }
+    }
+
+    /**
+     * Replaces the content of the B-Tree with the given sorted keys.
+     * @param keys the keys in ascending order.
+     * @param fillFactor the targeted share of used key slots per node.
+     * @param parallel whether the nodes of each level are built in parallel.
+     * @see #buildLevels(List, double, boolean)
+     */
+    void buildFromSorted(List<CT> keys, double fillFactor, boolean parallel) {
+        beginChange();
+        root = buildLevels(keys, fillFactor, parallel);
+        if (bloomFilter != null) {
+            rebuildBloomFilter(Math.max(bloomFilter.getCapacity(), 2L * keys.size()));
+        }
+        if (pendingChange != null) {
+            pendingChange.insertedKeys.addAll(keys);
+            pendingChange.rootChanged = true;
+        }
+    }
+
+    /**
+     * Builds the nodes for the given sorted keys level by level.
+     * Each level is cut into groups of keys; the key between two neighbouring groups is passed up
+     * as a separator to the next level, until a single node remains as the root.
+     * The position of every group follows from its index alone, so the nodes of a level can be built
+     * independently of each other. If parallel is set, they are built by a parallel stream, which runs
+     * in the fork-join pool of the calling task, or in the common pool if the caller is no such task.
+     * @param keys the keys in ascending order.
+     * @param fillFactor the targeted share of used key slots per node.
+     * @param parallel whether the nodes of each level are built in parallel.
+     * @return the root of the built nodes.
+     */
+    private Node<CT> buildLevels(List<CT> keys, double fillFactor, boolean parallel) {
+        int perNode = Math.max(t - 1, Math.min(maxKeys(), (int) Math.round(fillFactor * maxKeys())));
+        List<CT> levelKeys = keys;
+        Node<CT>[] children = null;
+        while (true) {
+            int n = levelKeys.size();
+            // Each group but the last is followed by a separator, so g groups hold n - (g - 1) keys.
+            int groups = Math.max(1, (n + 1) / (perNode + 1));
+            while (n - groups + 1 > groups * maxKeys()) {
+                groups++;
+            }
+            int keysInNodes = n - groups + 1;
+            int base = keysInNodes / groups;
+            int extra = keysInNodes % groups;
+            Node<CT>[] nodes = newNodeArray(groups);
+            Object[] separators = new Object[groups - 1];
+            List<CT> source = levelKeys;
+            Node<CT>[] below = children;
+            IntConsumer buildGroup = g -> {
+                // Every group before g holds its keys plus one separator, and just as many children.
+                int first = g * (base + 1) + Math.min(g, extra);
+                int count = base + (g < extra ? 1 : 0);
+                // The free list is not thread-safe, and a tree that is built in parallel has none to reuse.
+                Node<CT> node = parallel ? new Node<>(below == null) : newNode(below == null);
+                for (int j = 0; j < count; j++) {
+                    node.keys[j] = source.get(first + j);
+                }
+                if (below != null) {
+                    System.arraycopy(below, first, node.children, 0, count + 1);
+                }
+                node.numKeys = count;
+                node.size = subtreeSize(node);
+                nodes[g] = node;
+                if (g < separators.length) {
+                    separators[g] = source.get(first + count);
+                }
+            };
+            if (parallel) {
+                IntStream.range(0, groups).parallel().forEach(buildGroup);
             } else {
-                return search(node.getChildren()[i], key);
+                for (int g = 0; g < groups; g++) {
+                    buildGroup.accept(g);
+                }
+            }
+            if (groups == 1) {
+                return nodes[0];
             }
+            @SuppressWarnings("unchecked")
+            List<CT> next = (List<CT>) (List<?>) Arrays.asList(separators);
+            levelKeys = next;
+            children = nodes;
         }
+    }
 
     /**
-     * Traverses the B-Tree in order and prints the keys.
+     * Moves all keys of another B-Tree into this one; the other tree is empty afterwards.
+     * If all keys of one tree are not greater than all keys of the other, the trees are concatenated in
+     * O(log n): the smaller tree is hung into the spine of the taller one at the level of its own height,
+     * with a single key taken from the other tree in between, and the nodes of both trees are kept.
+     * If the key ranges overlap, the keys are merged like {@link #union(BTree)} does, in linear time.
+     * Listeners of both trees are notified and a Bloom filter of this tree is extended, which takes time
+     * linear in the number of moved keys.
+     * @param other the tree whose keys are moved, with the same key class and minimum degree.
+     * @throws IllegalArgumentException if other is this tree or differs in key class or minimum degree.
      */
-    public void traverse() {
-        if (root != null) {
-            root.traverse();
+    public void join(BTree<CT> other) {
+        if (other == this) {
+            throw new IllegalArgumentException("A tree cannot be joined with itself");
+        }
+        if (other.clazz != clazz || other.t != t) {
+            throw new IllegalArgumentException("Trees must have the same key class and minimum degree");
+        }
+        if (other.size() == 0) {
+            return;
+        }
+        List<CT> moved = listeners.isEmpty() && other.listeners.isEmpty() && bloomFilter == null
+                ? null : other.stream().toList();
+        beginChange();
+        if (size() == 0) {
+            free(root);
+            root = other.root;
+        } else if (last().compare(other.first()) <= 0) {
+            CT separator = other.removeFirst();
+            root = join(new Part(root, getHeight()), separator, new Part(other.root, other.getHeight())).node;
+        } else if (other.last().compare(first()) <= 0) {
+            CT separator = other.removeLast();
+            root = join(new Part(other.root, other.getHeight()), separator, new Part(root, getHeight())).node;
+        } else {
+            root = buildLevels(merge(this, other), 1.0, false);
         }
+        other.root = other.newNode(true);
+        other.afterKeysMoved(moved, false);
+        afterKeysMoved(moved, true);
+        endChange();
     }
 
     /**
-     * Returns the root node of the B-Tree.
-     * @return the root node.
+     * Adds all keys of another B-Tree to this one, keeping the other tree unchanged.
+     * Both trees are merged in a single pass over their keys in order, and the nodes are rebuilt bottom-up
+     * from the merged keys like {@link #bulkLoad(ComparableContent[])} does, so the union takes O(n + m) time for any
+     * key ranges. Duplicates are kept, keys of this tree before equal keys of the other.
+     * @param other the tree whose keys are added.
      */
-    public Node<CT> getRoot() {
-        return root;
+    public void union(BTree<CT> other) {
+        List<CT> added = other.stream().toList();
+        beginChange();
+        root = buildLevels(merge(this, other), 1.0, false);
+        afterKeysMoved(added, true);
+        endChange();
     }
 
     /**
-     * Adds a BTreeListener.
-     * @param listener the listener to be added.
+     * Splits the B-Tree at a key: the keys smaller than the key stay in this tree, the others are moved to
+     * a new tree with the same key class and minimum degree. Duplicates of the key all go to the new tree.
+     * The search path of the key is cut apart and the pieces on either side are joined bottom-up, so the
+     * split takes O(log n) and keeps the nodes off the path. Listeners are notified of the moved keys.
+     * A Bloom filter keeps the moved keys, which then count as false positives.
+     * @param key the first key that belongs to the new tree.
+     * @return the new tree holding the keys not smaller than the key.
      */
-    public void addListener(BTreeListener<CT> listener) {
-        listeners.add(listener);
+    public BTree<CT> split(CT key) {
+        BTree<CT> upper = new BTree<>(clazz, t);
+        beginChange();
+        int height = getHeight();
+        Node<CT>[] path = newNodeArray(height + 1);
+        int[] index = new int[height + 1];
+        Node<CT> node = root;
+        for (int d = 0; ; d++) {
+            path[d] = node;
+            index[d] = lowerBound(node, key);
+            if (node.isLeaf()) {
+                break;
+            }
+            node = node.getChildren()[index[d]];
+        }
+        Part lower = new Part(slice(node, 0, index[height]), 0);
+        Part higher = new Part(slice(node, index[height], node.getNumKeys()), 0);
+        free(node);
+        for (int d = height - 1; d >= 0; d--) {
+            node = path[d];
+            int i = index[d];
+            int h = height - d;
+            if (i > 0) {
+                lower = join(new Part(slice(node, 0, i - 1), h), node.getKeys()[i - 1], lower);
+            }
+            if (i < node.getNumKeys()) {
+                higher = join(higher, node.getKeys()[i], new Part(slice(node, i + 1, node.getNumKeys()), h));
+            }
+            free(node);
+        }
+        root = collapse(lower).node;
+        upper.root = collapse(higher).node;
+        if (pendingChange != null) {
+            pendingChange.removedKeys.addAll(upper.stream().toList());
+            pendingChange.rootChanged = true;
+        }
+        endChange();
+        return upper;
     }
 
     /**
-     * Removes a BTreeListener.
-     * @param listener the listener to be removed.
+     * Part is the root of a B-Tree in the making together with its height.
+     * Its root may hold fewer than t - 1 keys, even none.
      */
-    public void removeListener(BTreeListener<CT> listener) {
-        listeners.remove(listener);
+    private final class Part {
+        private final Node<CT> node;
+        private final int height;
+
+        Part(Node<CT> node, int height) {
+            this.node = node;
+            this.height = height;
+        }
     }
 
     /**
-     * Notifies all listeners that the B-Tree has changed.
+     * Joins two trees and a key in between into one tree. All keys of a must not be greater than the key,
+     * and all keys of b not smaller. The lower tree is combined with the node of equal height on the facing
+     * spine of the higher one; full nodes on that spine are split on the way down like inserts do, so that
+     * a node pushed up by the combination always fits. Takes O(t * (|height(a) - height(b)| + 1)).
+     * @param a the tree with the smaller keys.
+     * @param key the key between both trees.
+     * @param b the tree with the greater keys.
+     * @return the joined tree.
      */
-    private void notifyListeners() {
-        for (BTreeListener<CT> listener : listeners) {
-            listener.onTreeChanged(this);
+    private Part join(Part a, CT key, Part b) {
+        a = collapse(a);
+        b = collapse(b);
+        if (a.height == b.height) {
+            CT separator = combine(a.node, key, b.node);
+            if (separator == null) {
+                return a;
+            }
+            Node<CT> top = newNode(false);
+            top.keys[0] = separator;
+            top.children[0] = a.node;
+            top.children[1] = b.node;
+            top.numKeys = 1;
+            top.size = subtreeSize(top);
+            return new Part(top, a.height + 1);
+        }
+        boolean descendRight = a.height > b.height;
+        Part high = descendRight ? a : b;
+        Part low = descendRight ? b : a;
+        Node<CT> top = high.node;
+        int height = high.height;
+        if (top.numKeys == maxKeys()) {
+            Node<CT> s = newNode(false);
+            s.children[0] = top;
+            s.size = top.size;
+            splitChild(s, 0);
+            top = s;
+            height++;
+        }
+        int added = low.node.size + 1;
+        Node<CT> node = top;
+        for (int h = height; ; h--) {
+            node.size += added;
+            int i = descendRight ? node.numKeys : 0;
+            if (h == low.height + 1) {
+                break;
+            }
+            if (node.children[i].numKeys == maxKeys()) {
+                splitChild(node, i);
+                i = descendRight ? node.numKeys : 0;
+            }
+            node = node.children[i];
+        }
+        if (descendRight) {
+            int i = node.numKeys;
+            CT separator = combine(node.children[i], key, low.node);
+            if (separator != null) {
+                node.keys[i] = separator;
+                node.children[i + 1] = low.node;
+                node.numKeys++;
+            }
+        } else {
+            Node<CT> first = node.children[0];
+            CT separator = combine(low.node, key, first);
+            node.children[0] = low.node;
+            if (separator != null) {
+                System.arraycopy(node.keys, 0, node.keys, 1, node.numKeys);
+                System.arraycopy(node.children, 1, node.children, 2, node.numKeys);
+                node.keys[0] = separator;
+                node.children[1] = first;
+                node.numKeys++;
+            }
+        }
+        return new Part(top, height);
+    }
+
+    /**
+     * Combines two nodes of equal height and a key in between. If all keys fit into one node, they are
+     * moved into x and y is freed; otherwise they are spread evenly over both nodes, which then hold at
+     * least t - 1 keys each, and the middle key is returned to be placed between them.
+     * @param x the node with the smaller keys.
+     * @param key the key between both nodes.
+     * @param y the node with the greater keys.
+     * @return the key separating x and y, or null if everything went into x.
+     */
+    @SuppressWarnings("unchecked")
+    private CT combine(Node<CT> x, CT key, Node<CT> y) {
+        int total = x.numKeys + 1 + y.numKeys;
+        if (total <= maxKeys()) {
+            x.keys[x.numKeys] = key;
+            System.arraycopy(y.keys, 0, x.keys, x.numKeys + 1, y.numKeys);
+            if (!x.isLeaf) {
+                System.arraycopy(y.children, 0, x.children, x.numKeys + 1, y.numKeys + 1);
+            }
+            x.numKeys = total;
+            x.size += 1 + y.size;
+            free(y);
+            return null;
+        }
+        Object[] keys = new Object[total];
+        System.arraycopy(x.keys, 0, keys, 0, x.numKeys);
+        keys[x.numKeys] = key;
+        System.arraycopy(y.keys, 0, keys, x.numKeys + 1, y.numKeys);
+        Node<CT>[] children = null;
+        if (!x.isLeaf) {
+            children = newNodeArray(total + 1);
+            System.arraycopy(x.children, 0, children, 0, x.numKeys + 1);
+            System.arraycopy(y.children, 0, children, x.numKeys + 1, y.numKeys + 1);
+        }
+        int left = (total - 1) / 2;
+        int right = total - 1 - left;
+        System.arraycopy(keys, 0, x.keys, 0, left);
+        System.arraycopy(keys, left + 1, y.keys, 0, right);
+        Arrays.fill(x.keys, left, maxKeys(), null);
+        Arrays.fill(y.keys, right, maxKeys(), null);
+        if (children != null) {
+            System.arraycopy(children, 0, x.children, 0, left + 1);
+            System.arraycopy(children, left + 1, y.children, 0, right + 1);
+            Arrays.fill(x.children, left + 1, maxKeys() + 1, null);
+            Arrays.fill(y.children, right + 1, maxKeys() + 1, null);
+        }
+        x.numKeys = left;
+        y.numKeys = right;
+        x.size = subtreeSize(x);
+        y.size = subtreeSize(y);
+        return (CT) keys[left];
+    }
+
+    /**
+     * Removes inner roots without keys from a part, lowering its height accordingly.
+     * @param part the part.
+     * @return a part whose root holds keys or is a leaf.
+     */
+    private Part collapse(Part part) {
+        Node<CT> node = part.node;
+        int height = part.height;
+        while (node.numKeys == 0 && !node.isLeaf) {
+            Node<CT> child = node.children[0];
+            free(node);
+            node = child;
+            height--;
+        }
+        return node == part.node ? part : new Part(node, height);
+    }
+
+    /**
+     * Creates a node holding the keys of another node from one position to another, and the children in between.
+     * @param node the node to be copied from.
+     * @param from the index of the first key.
+     * @param to the index after the last key, which is also the index of the last child.
+     * @return the new node.
+     */
+    private Node<CT> slice(Node<CT> node, int from, int to) {
+        Node<CT> slice = newNode(node.isLeaf);
+        System.arraycopy(node.keys, from, slice.keys, 0, to - from);
+        if (!node.isLeaf) {
+            System.arraycopy(node.children, from, slice.children, 0, to - from + 1);
+        }
+        slice.numKeys = to - from;
+        slice.size = subtreeSize(slice);
+        return slice;
+    }
+
+    /**
+     * Merges the keys of two trees in a single pass.
+     * @param first the tree whose keys come first among equal keys.
+     * @param second the other tree.
+     * @return all keys in ascending order.
+     */
+    private static <CT extends ComparableContent<CT>> List<CT> merge(BTree<CT> first, BTree<CT> second) {
+        List<CT> merged = new ArrayList<>(first.size() + second.size());
+        Iterator<CT> a = first.iterator();
+        Iterator<CT> b = second.iterator();
+        CT x = a.hasNext() ? a.next() : null;
+        CT y = b.hasNext() ? b.next() : null;
+        while (x != null && y != null) {
+            if (x.compare(y) <= 0) {
+                merged.add(x);
+                x = a.hasNext() ? a.next() : null;
+            } else {
+                merged.add(y);
+                y = b.hasNext() ? b.next() : null;
+            }
+        }
+        for (; x != null; x = a.hasNext() ? a.next() : null) {
+            merged.add(x);
+        }
+        for (; y != null; y = b.hasNext() ? b.next() : null) {
+            merged.add(y);
+        }
+        return merged;
+    }
+
+    /**
+     * Records keys that were moved into or out of the B-Tree for the listeners and the Bloom filter.
+     * @param keys the moved keys, or null if neither tree has listeners or a Bloom filter.
+     * @param added whether the keys were added to this tree or removed from it.
+     */
+    private void afterKeysMoved(List<CT> keys, boolean added) {
+        if (!added) {
+            beginChange();
+            if (bloomFilter != null) {
+                rebuildBloomFilter(bloomFilter.getCapacity());
+            }
+        } else if (bloomFilter != null) {
+            for (CT key : keys) {
+                addToBloomFilter(key);
+            }
+        }
+        if (pendingChange != null) {
+            (added ? pendingChange.insertedKeys : pendingChange.removedKeys).addAll(keys);
+            pendingChange.rootChanged = true;
+        }
+        if (!added) {
+            endChange();
+        }
+    }
+
+    /**
+     * Removes the smallest key, rebalancing on the way down.
+     * @return the removed key.
+     */
+    private CT removeFirst() {
+        CT first = removeFirst(root);
+        shrinkRoot();
+        return first;
+    }
+
+    /**
+     * Removes the largest key, rebalancing on the way down.
+     * @return the removed key.
+     */
+    private CT removeLast() {
+        CT last = removeLast(root);
+        shrinkRoot();
+        return last;
+    }
+
+    /**
+     * Replaces an inner root that has run empty by its only child.
+     */
+    private void shrinkRoot() {
+        if (root.getNumKeys() == 0 && !root.isLeaf()) {
+            Node<CT> old = root;
+            root = root.getChildren()[0];
+            free(old);
+        }
+    }
+
+    /**
+     * Returns the smallest key of a non-empty tree.
+     * @return the smallest key.
+     */
+    private CT first() {
+        Node<CT> node = root;
+        while (!node.isLeaf()) {
+            node = node.getChildren()[0];
+        }
+        return node.getKeys()[0];
+    }
+
+    /**
+     * Returns the largest key of a non-empty tree.
+     * @return the largest key.
+     */
+    private CT last() {
+        Node<CT> node = root;
+        while (!node.isLeaf()) {
+            node = node.getChildren()[node.getNumKeys()];
+        }
+        return node.getKeys()[node.getNumKeys() - 1];
+    }
+
+    /**
+     * Searches for a key in the B-Tree.
+     * @param key the key to be searched for.
+     * @return the key if it is found, null otherwise.
+     */
+    public CT search(CT key) {
+        TreeMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        BloomFilter<CT> filter = bloomFilter;
+        if (filter != null && !filter.mightContain(key)) {
+            if (m != null) {
+                m.recordSearch(start, 0, false);
+            }
+            return null;
+        }
+        CT found = m == null ? search(root, key) : searchCounted(key, m, start);
+        if (found == null && filter != null) {
+            filter.recordFalsePositive();
+        }
+        return found;
+    }
+
+    /**
+     * Searches for a key like {@link #search(Node, ComparableContent)} and records the lookup.
+     * @param key the key to be searched for.
+     * @param m the metrics receiving the lookup.
+     * @param start the value of {@link System#nanoTime()} when the lookup started.
+     * @return the key if it is found, null otherwise.
+     */
+    private CT searchCounted(CT key, TreeMetrics m, long start) {
+        int comparisons = 0;
+        Node<CT> node = root;
+        while (true) {
+            CT[] keys = node.getKeys();
+            int lo = 0;
+            int hi = node.getNumKeys() - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = key.compare(keys[mid]);
+                comparisons++;
+                if (cmp == 0) {
+                    m.recordSearch(start, comparisons, true);
+                    return keys[mid];
+                } else if (cmp < 0) {
+                    hi = mid - 1;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            if (node.isLeaf()) {
+                m.recordSearch(start, comparisons, false);
+                return null;
+            }
+            node = node.getChildren()[lo];
+        }
+    }
+
+    /**
+     * Searches for a key in the subtree rooted with the given node.
+     * @param node the root of the subtree.
+     * @param key the key to be searched for.
+     * @return the key if it is found, null otherwise.
+     */
+    private CT search(Node<CT> node, CT key) {
+        while (true) {
+            CT[] keys = node.getKeys();
+            int lo = 0;
+            int hi = node.getNumKeys() - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = key.compare(keys[mid]);
+                if (cmp == 0) {
+                    return keys[mid];
+                } else if (cmp < 0) {
+                    hi = mid - 1;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            if (node.isLeaf()) {
+                return null;
+            }
+            node = node.getChildren()[lo];
+        }
+    }
+
+    /**
+     * Returns the number of keys in the B-Tree, duplicates included, in O(1).
+     * @return the number of keys.
+     */
+    public int size() {
+        return root.size;
+    }
+
+    /**
+     * Returns the rank of a key, the number of keys in the B-Tree that are smaller than it.
+     * The key itself does not have to be present. If it is, it is the key at this rank.
+     * @param key the key to be ranked.
+     * @return the number of smaller keys, between 0 and {@link #size()}.
+     */
+    public int rank(CT key) {
+        return countBelow(key, false);
+    }
+
+    /**
+     * Returns the key at a rank, the k-th smallest key counting from 0.
+     * @param k the rank, in [0, {@link #size()}).
+     * @return the key at the rank.
+     * @throws IllegalArgumentException if k is negative or not smaller than the size.
+     */
+    public CT select(int k) {
+        if (k < 0 || k >= size()) {
+            throw new IllegalArgumentException("Rank must be in [0, " + size() + "), got " + k);
+        }
+        Node<CT> node = root;
+        while (!node.isLeaf()) {
+            int i = 0;
+            while (k >= node.getChildren()[i].size) {
+                k -= node.getChildren()[i].size;
+                if (k == 0) {
+                    return node.getKeys()[i];
+                }
+                k--;
+                i++;
+            }
+            node = node.getChildren()[i];
+        }
+        return node.getKeys()[k];
+    }
+
+    /**
+     * Counts the keys between two bounds in O(log n), without visiting them.
+     * @param from the lower bound, or null for no lower bound.
+     * @param fromInclusive whether keys equal to the lower bound are counted.
+     * @param to the upper bound, or null for no upper bound.
+     * @param toInclusive whether keys equal to the upper bound are counted.
+     * @return the number of keys in the range, 0 if the lower bound lies above the upper bound.
+     */
+    public int count(CT from, boolean fromInclusive, CT to, boolean toInclusive) {
+        int below = from == null ? 0 : countBelow(from, !fromInclusive);
+        int upTo = to == null ? size() : countBelow(to, toInclusive);
+        return Math.max(0, upTo - below);
+    }
+
+    /**
+     * Counts the keys that are smaller than a key, or not greater than it.
+     * @param key the key.
+     * @param inclusive whether keys equal to the key are counted.
+     * @return the number of keys.
+     */
+    private int countBelow(CT key, boolean inclusive) {
+        int count = 0;
+        Node<CT> node = root;
+        while (true) {
+            int i = inclusive ? upperBound(node, key) : lowerBound(node, key);
+            count += i;
+            if (node.isLeaf()) {
+                return count;
+            }
+            for (int j = 0; j < i; j++) {
+                count += node.getChildren()[j].size;
+            }
+            node = node.getChildren()[i];
+        }
+    }
+
+    /**
+     * Traverses the B-Tree in order and prints the keys.
+     */
+    public void traverse() {
+        if (root != null) {
+            root.traverse();
+        }
+    }
+
+    /**
+     * Returns an iterator over all keys in ascending order.
+     * The iterator is not fail-fast; the tree must not be modified while iterating.
+     * @return the iterator.
+     */
+    @Override
+    public Iterator<CT> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Returns an iterator over the keys between two bounds in ascending order.
+     * @param from the lower bound, or null for no lower bound.
+     * @param fromInclusive whether keys equal to the lower bound are included.
+     * @param to the upper bound, or null for no upper bound.
+     * @param toInclusive whether keys equal to the upper bound are included.
+     * @return the iterator.
+     * @see #spliterator(ComparableContent, boolean, ComparableContent, boolean)
+     */
+    public Iterator<CT> iterator(CT from, boolean fromInclusive, CT to, boolean toInclusive) {
+        return Spliterators.iterator(spliterator(from, fromInclusive, to, toInclusive));
+    }
+
+    /**
+     * Returns a spliterator over all keys in ascending order.
+     * @return the spliterator.
+     */
+    @Override
+    public Spliterator<CT> spliterator() {
+        return new RangeSpliterator(null, false, null, false);
+    }
+
+    /**
+     * Returns a spliterator over the keys between two bounds in ascending order.
+     * The start position is found in O(log n) and the spliterator only keeps the path from the root to
+     * the current key, so it uses O(height) memory. Splitting cuts the remaining keys at a key of the
+     * highest node on that path, so parallel streams work on disjoint subtrees.
+     * The spliterator is not fail-fast; the tree must not be modified while it is in use.
+     * @param from the lower bound, or null for no lower bound.
+     * @param fromInclusive whether keys equal to the lower bound are included.
+     * @param to the upper bound, or null for no upper bound.
+     * @param toInclusive whether keys equal to the upper bound are included.
+     * @return the spliterator.
+     */
+    public Spliterator<CT> spliterator(CT from, boolean fromInclusive, CT to, boolean toInclusive) {
+        return new RangeSpliterator(from, fromInclusive, to, toInclusive);
+    }
+
+    /**
+     * Returns a sequential stream of all keys in ascending order.
+     * @return the stream.
+     */
+    public Stream<CT> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a sequential stream of the keys between two bounds in ascending order.
+     * @param from the lower bound, or null for no lower bound.
+     * @param fromInclusive whether keys equal to the lower bound are included.
+     * @param to the upper bound, or null for no upper bound.
+     * @param toInclusive whether keys equal to the upper bound are included.
+     * @return the stream.
+     */
+    public Stream<CT> stream(CT from, boolean fromInclusive, CT to, boolean toInclusive) {
+        return StreamSupport.stream(spliterator(from, fromInclusive, to, toInclusive), false);
+    }
+
+    /**
+     * Returns a parallel stream of all keys.
+     * @return the stream.
+     */
+    public Stream<CT> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Returns the root node of the B-Tree.
+     * @return the root node.
+     */
+    public Node<CT> getRoot() {
+        return root;
+    }
+
+    /**
+     * Replaces the root node. Used by loaders that assemble the nodes of an empty tree themselves;
+     * the subtree sizes are computed here, so loaders only have to fill in keys and children.
+     * @param root the new root node.
+     */
+    void setRoot(Node<CT> root) {
+        this.root = root;
+        // Post-order walk with one frame per level, so that every child is sized before its parent.
+        int height = getHeight();
+        Node<CT>[] path = newNodeArray(height + 1);
+        int[] next = new int[height + 1];
+        int depth = 0;
+        path[0] = root;
+        while (depth >= 0) {
+            Node<CT> node = path[depth];
+            if (!node.isLeaf() && next[depth] <= node.getNumKeys()) {
+                path[depth + 1] = node.getChildren()[next[depth]++];
+                next[++depth] = 0;
+            } else {
+                node.size = subtreeSize(node);
+                path[depth--] = null;
+            }
+        }
+        if (bloomFilter != null) {
+            rebuildBloomFilter(bloomFilter.getCapacity());
+        }
+    }
+
+    /**
+     * Creates a node that belongs to this tree, reusing a node freed by a merge if there is one.
+     * @param isLeaf indicates whether the node is a leaf node.
+     * @return the new node.
+     */
+    @SuppressWarnings("unchecked")
+    final Node<CT> newNode(boolean isLeaf) {
+        if (freeCount == 0) {
+            return new Node<>(isLeaf);
+        }
+        Node<CT> node = (Node<CT>) freeNodes[--freeCount];
+        freeNodes[freeCount] = null;
+        node.isLeaf = isLeaf;
+        return node;
+    }
+
+    /**
+     * Creates an empty array of nodes. Java cannot create an array of Node&lt;CT&gt; directly,
+     * so a wildcard array is created and cast; the array only ever holds nodes of this tree.
+     * @param length the length of the array.
+     * @return the new array.
+     */
+    @SuppressWarnings("unchecked")
+    private Node<CT>[] newNodeArray(int length) {
+        return (Node<CT>[]) new BTree<?>.Node<?>[length];
+    }
+
+    /**
+     * Keeps a node that has been unlinked from the tree for reuse by {@link #newNode(boolean)}.
+     * The references it holds are cleared, so that it does not keep keys or subtrees reachable.
+     * @param node the unlinked node.
+     */
+    private void free(Node<CT> node) {
+        if (freeCount == FREE_NODES) {
+            return;
+        }
+        Arrays.fill(node.keys, 0, node.numKeys, null);
+        Arrays.fill(node.children, 0, node.numKeys + 1, null);
+        node.numKeys = 0;
+        node.size = 0;
+        freeNodes[freeCount++] = node;
+    }
+
+    /**
+     * Attaches metrics to the B-Tree, or detaches them.
+     * While metrics are attached, every insert, remove and search is counted and timed, and lookups count
+     * their comparisons. Without metrics the operations record nothing.
+     * @param metrics the metrics to be attached, possibly shared with other trees, or null to detach them.
+     */
+    public void setMetrics(TreeMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the attached metrics.
+     * @return the metrics, or null if none are attached.
+     */
+    public TreeMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Maintains a Bloom filter over the keys of the B-Tree, so that {@link #search(ComparableContent)} rejects most
+     * absent keys by hashing alone, without descending the tree. The filter is filled with the current keys and
+     * kept up to date by every insert and bulk load; when more keys are added than it was sized for, it is
+     * rebuilt from the tree with twice the capacity, so the false-positive rate stays near the configured one.
+     * <p>
+     * Removals are not reflected, since a Bloom filter cannot forget a key: a removed key keeps passing the
+     * filter and costs a regular lookup, which {@link BloomFilter#getFalsePositives()} counts. Call this method
+     * again to rebuild the filter after many removals.
+     * @param hasher the hasher for the keys; keys that compare equal must have equal hashes.
+     * @param falsePositiveRate the targeted share of absent keys that still need a lookup, in (0, 1).
+     * @throws IllegalArgumentException if falsePositiveRate is not in (0, 1).
+     */
+    public void enableBloomFilter(KeyHasher<? super CT> hasher, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be in (0, 1), got " + falsePositiveRate);
+        }
+        bloomFilter = fillBloomFilter(new BloomFilter<>(hasher, Math.max(MIN_BLOOM_CAPACITY, 2L * size()), falsePositiveRate));
+    }
+
+    /**
+     * Stops maintaining the Bloom filter. Lookups descend the tree for every key again.
+     */
+    public void disableBloomFilter() {
+        bloomFilter = null;
+    }
+
+    /**
+     * Returns the Bloom filter, whose statistics show how many lookups it saved.
+     * The statistics survive the rebuilds caused by growth.
+     * @return the Bloom filter, or null if none is enabled.
+     */
+    public BloomFilter<CT> getBloomFilter() {
+        return bloomFilter;
+    }
+
+    /**
+     * Adds an inserted key to the Bloom filter, or rebuilds the filter with twice the capacity if it is full.
+     * @param key the key that has been inserted into the tree.
+     */
+    private void addToBloomFilter(CT key) {
+        if (bloomFilter.getInsertions() >= bloomFilter.getCapacity()) {
+            rebuildBloomFilter(2 * bloomFilter.getCapacity());
+        } else {
+            bloomFilter.add(key);
+        }
+    }
+
+    /**
+     * Replaces the Bloom filter with one of the given capacity that holds the current keys of the tree.
+     * @param capacity the capacity of the new filter.
+     */
+    private void rebuildBloomFilter(long capacity) {
+        BloomFilter<CT> previous = bloomFilter;
+        BloomFilter<CT> filter = new BloomFilter<>(previous.getHasher(), capacity, previous.getFalsePositiveRate());
+        filter.inheritStatistics(previous);
+        bloomFilter = fillBloomFilter(filter);
+    }
+
+    private BloomFilter<CT> fillBloomFilter(BloomFilter<CT> filter) {
+        for (CT key : this) {
+            filter.add(key);
+        }
+        return filter;
+    }
+
+    /**
+     * Returns the height of the B-Tree, the number of edges from the root to any leaf.
+     * @return the height, 0 for a tree that consists of the root only.
+     */
+    public int getHeight() {
+        int height = 0;
+        for (Node<CT> node = root; !node.isLeaf(); node = node.getChildren()[0]) {
+            height++;
+        }
+        return height;
+    }
+
+    /**
+     * Measures the height, node count, key count and average fill of the B-Tree by visiting every node,
+     * and records the result in the attached metrics, if any.
+     * @return the shape of the tree.
+     */
+    public TreeMetrics.Shape measureShape() {
+        long nodes = 0;
+        long keys = 0;
+        Deque<Node<CT>> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node<CT> node = pending.pop();
+            nodes++;
+            keys += node.getNumKeys();
+            if (!node.isLeaf()) {
+                for (int i = 0; i <= node.getNumKeys(); i++) {
+                    pending.push(node.getChildren()[i]);
+                }
+            }
+        }
+        TreeMetrics.Shape shape = new TreeMetrics.Shape(getHeight(), nodes, keys, (double) keys / (nodes * maxKeys()));
+        if (metrics != null) {
+            metrics.recordShape(shape);
+        }
+        return shape;
+    }
+
+    /**
+     * Adds a BTreeListener.
+     * @param listener the listener to be added.
+     */
+    public void addListener(BTreeListener<CT> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a BTreeListener.
+     * @param listener the listener to be removed.
+     */
+    public void removeListener(BTreeListener<CT> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Suspends change notifications, e.g. around bulk work.
+     * Changes are collected until the matching {@link #resumeNotifications()} and then reported in a single event.
+     * Calls may be nested.
+     */
+    public void suspendNotifications() {
+        suspendDepth++;
+    }
+
+    /**
+     * Resumes change notifications suspended by {@link #suspendNotifications()}.
+     * When the outermost suspension ends, all collected changes are reported in a single event.
+     * @throws IllegalStateException if notifications are not suspended.
+     */
+    public void resumeNotifications() {
+        if (suspendDepth == 0) {
+            throw new IllegalStateException("Notifications are not suspended");
+        }
+        suspendDepth--;
+        if (suspendDepth == 0) {
+            notifyListeners();
+        }
+    }
+
+    /**
+     * Starts recording a change. Nothing is recorded while there are no listeners.
+     */
+    private void beginChange() {
+        if (pendingChange == null && !listeners.isEmpty()) {
+            pendingChange = new TreeChangeEvent<>();
+        }
+    }
+
+    /**
+     * Finishes a logical operation and notifies the listeners unless notifications are suspended.
+     */
+    private void endChange() {
+        if (suspendDepth == 0) {
+            notifyListeners();
+        }
+    }
+
+    /**
+     * Notifies all listeners of the recorded changes.
+     */
+    private void notifyListeners() {
+        TreeChangeEvent<CT> event = pendingChange;
+        if (event == null) {
+            return;
+        }
+        pendingChange = null;
+        for (BTreeListener<CT> listener : listeners) {
+            listener.onTreeChanged(this, event);
+        }
+    }
+
+    /**
+     * RangeSpliterator walks the keys of the tree in order with an explicit stack of (node, index) frames.
+     * The frame on top of the stack points at the next key to be returned; in an inner node the child
+     * left of that key has already been visited. Every other frame points at the child that is currently
+     * being walked. A split-off prefix ends at a fence, a path of the same form leading to the first key
+     * that belongs to the rest.
+     */
+    private class RangeSpliterator implements Spliterator<CT> {
+        private final Node<CT>[] nodes;
+        private final int[] indexes;
+        private int depth;
+        private final Node<CT>[] fenceNodes;
+        private final int[] fenceIndexes;
+        private int fenceDepth;
+        private final CT upper;
+        private final boolean upperInclusive;
+        private long estimate;
+
+        /**
+         * Creates a spliterator positioned at the first key within the lower bound.
+         */
+        RangeSpliterator(CT lower, boolean lowerInclusive, CT upper, boolean upperInclusive) {
+            int height = 0;
+            for (Node<CT> node = root; !node.isLeaf(); node = node.getChildren()[0]) {
+                height++;
+            }
+            this.nodes = newNodeArray(height + 1);
+            this.indexes = new int[height + 1];
+            this.fenceNodes = newNodeArray(height + 1);
+            this.fenceIndexes = new int[height + 1];
+            this.upper = upper;
+            this.upperInclusive = upperInclusive;
+            this.estimate = count(lower, lowerInclusive, upper, upperInclusive);
+            Node<CT> node = root;
+            while (true) {
+                int i = 0;
+                if (lower != null) {
+                    i = lowerInclusive ? lowerBound(node, lower) : upperBound(node, lower);
+                }
+                nodes[depth] = node;
+                indexes[depth] = i;
+                depth++;
+                if (node.isLeaf()) {
+                    break;
+                }
+                node = node.getChildren()[i];
+            }
+        }
+
+        /**
+         * Creates a copy of the given spliterator that stops at the given fence.
+         */
+        @SuppressWarnings("unchecked")
+        private RangeSpliterator(RangeSpliterator other, Node<CT>[] fenceNodes, int[] fenceIndexes, int fenceDepth) {
+            this.nodes = other.nodes.clone();
+            this.indexes = other.indexes.clone();
+            this.depth = other.depth;
+            this.fenceNodes = fenceNodes.clone();
+            this.fenceIndexes = fenceIndexes.clone();
+            this.fenceDepth = fenceDepth;
+            this.upper = other.upper;
+            this.upperInclusive = other.upperInclusive;
+            this.estimate = other.estimate;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super CT> action) {
+            while (depth > 0) {
+                Node<CT> node = nodes[depth - 1];
+                int i = indexes[depth - 1];
+                if (fenceDepth > 0 && node == fenceNodes[fenceDepth - 1] && i == fenceIndexes[fenceDepth - 1]) {
+                    depth = 0;
+                    return false;
+                }
+                if (i >= node.getNumKeys()) {
+                    nodes[--depth] = null;
+                    continue;
+                }
+                CT key = node.getKeys()[i];
+                if (upper != null) {
+                    int cmp = key.compare(upper);
+                    if (cmp > 0 || (cmp == 0 && !upperInclusive)) {
+                        depth = 0;
+                        return false;
+                    }
+                }
+                indexes[depth - 1] = i + 1;
+                if (!node.isLeaf()) {
+                    for (Node<CT> child = node.getChildren()[i + 1]; ; child = child.getChildren()[0]) {
+                        nodes[depth] = child;
+                        indexes[depth] = 0;
+                        depth++;
+                        if (child.isLeaf()) {
+                            break;
+                        }
+                    }
+                }
+                action.accept(key);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Splits off the keys before the middle key of the highest node that has a key strictly
+         * between the current position and the fence.
+         * @return the prefix, or null if the remaining keys cannot be split.
+         */
+        @Override
+        public Spliterator<CT> trySplit() {
+            if (depth == 0) {
+                return null;
+            }
+            Node<CT>[] pathNodes = newNodeArray(nodes.length);
+            int[] pathIndexes = new int[nodes.length];
+            // Whether the current position and the fence still run through the node at depth d.
+            boolean onStart = true;
+            boolean onFence = fenceDepth > 0;
+            Node<CT> node = nodes[0];
+            for (int d = 0; ; d++) {
+                // Keys from index s on lie behind the current position; child s only if it is still pending.
+                int s = onStart ? indexes[d] : 0;
+                boolean startPending = !onStart || d < depth - 1;
+                // Keys from index e on lie behind the fence; child e too unless the fence lies inside it.
+                int e = onFence ? fenceIndexes[d] : node.getNumKeys();
+                boolean fenceInside = onFence && d < fenceDepth - 1;
+
+                int lowest = startPending ? s : s + 1;
+                if (lowest < e) {
+                    pathNodes[d] = node;
+                    pathIndexes[d] = (lowest + e) >>> 1;
+                    RangeSpliterator prefix = new RangeSpliterator(this, pathNodes, pathIndexes, d + 1);
+                    for (int j = 0; j < nodes.length; j++) {
+                        nodes[j] = j <= d ? pathNodes[j] : null;
+                        indexes[j] = j <= d ? pathIndexes[j] : 0;
+                    }
+                    depth = d + 1;
+                    estimate >>>= 1;
+                    prefix.estimate = estimate;
+                    return prefix;
+                }
+                // No key of this node qualifies, so the remaining keys lie in a single child.
+                int child;
+                if (startPending && s == e) {
+                    child = s;
+                    onFence = fenceInside;
+                } else if (!startPending && s + 1 == e) {
+                    // Key s goes to the prefix in any case, so the split may happen anywhere in child e.
+                    child = e;
+                    onStart = false;
+                    onFence = fenceInside;
+                } else {
+                    return null;
+                }
+                if (node.isLeaf()) {
+                    return null;
+                }
+                pathNodes[d] = node;
+                pathIndexes[d] = child;
+                node = node.getChildren()[child];
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return depth == 0 ? 0 : estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | NONNULL;
+        }
+
+        @Override
+        public Comparator<? super CT> getComparator() {
+            return ComparableContent::compare;
         }
     }
-}
\ No newline at end of file
+}
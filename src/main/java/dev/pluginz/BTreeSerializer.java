@@ -0,0 +1,268 @@
+package dev.pluginz;
+
+import dev.pluginz.interfaces.ComparableContent;
+import dev.pluginz.interfaces.KeyCodec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * BTreeSerializer saves a {@link BTree} in a compact binary snapshot and loads it back.
+ * The nodes are written in level order, each as its key count followed by its keys encoded with a {@link KeyCodec}:
+ * <pre>
+ * [magic: long][version: int][minDegree: int][keyWidth: int][height: int]
+ * [numKeys: int][keys] for every node, level by level from the root
+ * [crc32: int] over everything before it
+ * </pre>
+ * Child links are not stored: the children of one level are the nodes of the next level, in order, and a node
+ * with n keys owns the next n + 1 of them. Loading therefore rebuilds the nodes directly, without a single comparison.
+ * Both directions stream through a fixed-size buffer and never hold more than two levels of node references.
+ */
+public class BTreeSerializer<CT extends ComparableContent<CT>> {
+
+    private static final long MAGIC = 0x4254524545534E50L;
+    private static final int VERSION = 1;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /**
+     * The largest minimum degree a snapshot may have. The header is read before the checksum can be verified,
+     * so this bound keeps a corrupt header from making the loader allocate huge nodes.
+     */
+    static final int MAX_MIN_DEGREE = 1 << 16;
+
+    private final Class<CT> clazz;
+    private final KeyCodec<CT> codec;
+
+    /**
+     * BTreeSerializer constructor.
+     * @param clazz the Class object representing CT.
+     * @param codec the codec used to encode the keys.
+     */
+    public BTreeSerializer(Class<CT> clazz, KeyCodec<CT> codec) {
+        this.clazz = clazz;
+        this.codec = codec;
+    }
+
+    /**
+     * Writes a snapshot of a tree to a stream. The stream is neither flushed nor closed.
+     * @param tree the tree to be written.
+     * @param out the stream to be written to.
+     * @throws IllegalArgumentException if the minimum degree of the tree is too large to be loaded again.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void write(BTree<CT> tree, OutputStream out) throws IOException {
+        write(tree, Channels.newChannel(out));
+    }
+
+    /**
+     * Writes a snapshot of a tree to a channel. The channel is not closed.
+     * @param tree the tree to be written.
+     * @param out the channel to be written to.
+     * @throws IllegalArgumentException if the minimum degree of the tree is too large to be loaded again.
+     * @throws IOException if the channel cannot be written.
+     */
+    public void write(BTree<CT> tree, WritableByteChannel out) throws IOException {
+        int width = codec.width();
+        if (tree.getMinDegree() > maxMinDegree(width)) {
+            throw new IllegalArgumentException("Minimum degree " + tree.getMinDegree() + " exceeds the maximum of "
+                    + maxMinDegree(width) + " for snapshots");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(BUFFER_BYTES, Integer.BYTES + (2 * tree.getMinDegree() - 1) * width));
+        MemorySegment segment = MemorySegment.ofArray(buffer.array());
+        CRC32 checksum = new CRC32();
+        int height = 0;
+        for (BTree<CT>.Node<CT> node = tree.getRoot(); !node.isLeaf(); node = node.getChildren()[0]) {
+            height++;
+        }
+        buffer.putLong(MAGIC).putInt(VERSION).putInt(tree.getMinDegree()).putInt(width).putInt(height);
+        List<BTree<CT>.Node<CT>> level = List.of(tree.getRoot());
+        for (int depth = 0; depth <= height; depth++) {
+            List<BTree<CT>.Node<CT>> next = depth < height ? new ArrayList<>() : null;
+            for (BTree<CT>.Node<CT> node : level) {
+                int numKeys = node.getNumKeys();
+                if (buffer.remaining() < Integer.BYTES + numKeys * width) {
+                    drain(buffer, out, checksum);
+                }
+                buffer.putInt(numKeys);
+                CT[] keys = node.getKeys();
+                for (int i = 0; i < numKeys; i++) {
+                    codec.write(segment, buffer.position(), keys[i]);
+                    buffer.position(buffer.position() + width);
+                }
+                if (next != null) {
+                    BTree<CT>.Node<CT>[] children = node.getChildren();
+                    for (int i = 0; i <= numKeys; i++) {
+                        next.add(children[i]);
+                    }
+                }
+            }
+            level = next;
+        }
+        drain(buffer, out, checksum);
+        buffer.putInt((int) checksum.getValue());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Returns the largest minimum degree whose nodes, with their key count, still fit into an int-sized buffer
+     * and which does not exceed {@link #MAX_MIN_DEGREE}.
+     */
+    private static int maxMinDegree(int width) {
+        return Math.min(MAX_MIN_DEGREE, ((Integer.MAX_VALUE - Integer.BYTES) / width + 1) / 2);
+    }
+
+    private static void drain(ByteBuffer buffer, WritableByteChannel out, CRC32 checksum) throws IOException {
+        buffer.flip();
+        checksum.update(buffer.array(), 0, buffer.limit());
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Loads a tree from a snapshot in a stream. The stream may be read past the end of the snapshot and is not closed.
+     * @param in the stream to be read from.
+     * @return the loaded tree.
+     * @throws IOException if the stream cannot be read or does not hold a valid snapshot for this codec.
+     */
+    public BTree<CT> read(InputStream in) throws IOException {
+        return read(Channels.newChannel(in));
+    }
+
+    /**
+     * Loads a tree from a snapshot in a channel. The channel is not closed.
+     * @param in the channel to be read from.
+     * @return the loaded tree.
+     * @throws IOException if the channel cannot be read or does not hold a valid snapshot for this codec.
+     */
+    public BTree<CT> read(ReadableByteChannel in) throws IOException {
+        Input input = new Input(in);
+        input.require(24);
+        if (input.buffer.getLong() != MAGIC || input.buffer.getInt() != VERSION) {
+            throw new IOException("Not a BTree snapshot");
+        }
+        int minDegree = input.buffer.getInt();
+        int width = input.buffer.getInt();
+        int height = input.buffer.getInt();
+        if (width != codec.width() || minDegree < 2 || minDegree > maxMinDegree(width) || height < 0) {
+            throw new IOException("Snapshot has minimum degree " + minDegree + " and key width " + width
+                    + ", expected key width " + codec.width());
+        }
+        int maxKeys = 2 * minDegree - 1;
+        BTree<CT> tree = new BTree<>(clazz, minDegree);
+        List<BTree<CT>.Node<CT>> parents = null;
+        BTree<CT>.Node<CT> root = null;
+        long count = 1;
+        for (int depth = 0; depth <= height; depth++) {
+            boolean leaf = depth == height;
+            List<BTree<CT>.Node<CT>> level = leaf ? null : new ArrayList<>((int) Math.min(count, Integer.MAX_VALUE));
+            long nextCount = 0;
+            int parent = 0;
+            int childIndex = 0;
+            for (long n = 0; n < count; n++) {
+                input.require(Integer.BYTES);
+                int numKeys = input.buffer.getInt();
+                int minKeys = depth == 0 ? (height == 0 ? 0 : 1) : minDegree - 1;
+                if (numKeys < minKeys || numKeys > maxKeys) {
+                    throw new IOException("Snapshot is corrupt: node with " + numKeys + " keys at depth " + depth);
+                }
+                BTree<CT>.Node<CT> node = tree.newNode(leaf);
+                input.require(numKeys * width);
+                CT[] keys = node.getKeys();
+                for (int i = 0; i < numKeys; i++) {
+                    keys[i] = codec.read(input.segment, input.buffer.position());
+                    input.buffer.position(input.buffer.position() + width);
+                }
+                node.setNumKeys(numKeys);
+                nextCount += numKeys + 1;
+                if (parents == null) {
+                    root = node;
+                } else {
+                    BTree<CT>.Node<CT> owner = parents.get(parent);
+                    owner.getChildren()[childIndex++] = node;
+                    if (childIndex > owner.getNumKeys()) {
+                        parent++;
+                        childIndex = 0;
+                    }
+                }
+                if (level != null) {
+                    level.add(node);
+                }
+            }
+            parents = level;
+            count = nextCount;
+        }
+        int expected = input.checksum();
+        input.require(Integer.BYTES);
+        if (input.buffer.getInt() != expected) {
+            throw new IOException("Snapshot is corrupt: checksum mismatch");
+        }
+        tree.setRoot(root);
+        return tree;
+    }
+
+    /**
+     * Input reads a channel through a fixed-size buffer and checksums every byte that has been consumed.
+     */
+    private static final class Input {
+        private final ReadableByteChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        private MemorySegment segment = MemorySegment.ofArray(buffer.array());
+        private final CRC32 checksum = new CRC32();
+
+        Input(ReadableByteChannel channel) {
+            this.channel = channel;
+            buffer.limit(0);
+        }
+
+        /**
+         * Makes sure that the buffer holds at least the given number of unread bytes, growing it for large nodes.
+         * @param bytes the number of bytes.
+         * @throws EOFException if the channel ends before.
+         */
+        void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            checksum.update(buffer.array(), 0, buffer.position());
+            buffer.compact();
+            if (bytes > buffer.capacity()) {
+                ByteBuffer larger = ByteBuffer.allocate(bytes);
+                larger.put(buffer.flip());
+                buffer = larger;
+                segment = MemorySegment.ofArray(buffer.array());
+            }
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("Snapshot is truncated");
+                }
+            }
+            buffer.flip();
+        }
+
+        /**
+         * Returns the checksum of all bytes consumed so far.
+         * @return the checksum.
+         */
+        int checksum() {
+            checksum.update(buffer.array(), 0, buffer.position());
+            // Bytes before the position are now part of the checksum and must not be added again.
+            buffer.compact().flip();
+            return (int) checksum.getValue();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package dev.pluginz;
+
+import dev.pluginz.interfaces.KeyHasher;
+
+/**
+ * BloomFilter is a set of bits that answers whether a key might have been added, with false positives but
+ * without false negatives. Each key sets {@link #getHashCount()} bits chosen by double hashing of the 64-bit hash
+ * of a {@link KeyHasher}; the filter is sized so that it reaches the configured false-positive rate once
+ * {@link #getCapacity()} keys have been added.
+ * <p>
+ * The filter also keeps the statistics that show whether it pays off: how many queries it answered, how many
+ * it rejected, and how many of the accepted ones turned out to be absent after all.
+ * It is not thread-safe.
+ */
+public class BloomFilter<CT> {
+
+    private final KeyHasher<? super CT> hasher;
+    private final long[] words;
+    private final long bitCount;
+    private final int hashCount;
+    private final long capacity;
+    private final double falsePositiveRate;
+    private long setBits;
+    private long insertions;
+    private long queries;
+    private long negatives;
+    private long falsePositives;
+
+    /**
+     * BloomFilter constructor.
+     * @param hasher the hasher for the keys; equal keys must have equal hashes.
+     * @param capacity the number of keys for which the false-positive rate is reached, at least 1.
+     * @param falsePositiveRate the targeted share of absent keys that are accepted, in (0, 1).
+     * @throws IllegalArgumentException if capacity is smaller than 1 or falsePositiveRate is not in (0, 1).
+     */
+    public BloomFilter(KeyHasher<? super CT> hasher, long capacity, double falsePositiveRate) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1, got " + capacity);
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be in (0, 1), got " + falsePositiveRate);
+        }
+        this.hasher = hasher;
+        this.capacity = capacity;
+        this.falsePositiveRate = falsePositiveRate;
+        double ln2 = Math.log(2);
+        double optimalBits = -capacity * Math.log(falsePositiveRate) / (ln2 * ln2);
+        long wordCount = Math.min(Integer.MAX_VALUE - 8, Math.max(1, (long) Math.ceil(optimalBits / Long.SIZE)));
+        this.words = new long[(int) wordCount];
+        this.bitCount = wordCount * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * ln2));
+    }
+
+    /**
+     * Adds a key.
+     * @param key the key to be added.
+     */
+    public void add(CT key) {
+        long hash = mix(hasher.hash(key));
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash + i * h2, bitCount);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((words[word] & mask) == 0) {
+                words[word] |= mask;
+                setBits++;
+            }
+        }
+        insertions++;
+    }
+
+    /**
+     * Checks whether a key might have been added. The query is counted, and so is a rejection.
+     * @param key the key to be checked.
+     * @return false if the key has certainly not been added, true if it might have been.
+     */
+    public boolean mightContain(CT key) {
+        queries++;
+        long hash = mix(hasher.hash(key));
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash + i * h2, bitCount);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                negatives++;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records that a key accepted by {@link #mightContain(Object)} was absent after all.
+     */
+    void recordFalsePositive() {
+        falsePositives++;
+    }
+
+    /**
+     * Takes over the query statistics of a filter this filter replaces.
+     * @param previous the replaced filter.
+     */
+    void inheritStatistics(BloomFilter<CT> previous) {
+        queries += previous.queries;
+        negatives += previous.negatives;
+        falsePositives += previous.falsePositives;
+    }
+
+    /**
+     * Finalizes a hash so that hashers with poorly distributed bits, such as small integers, spread over all bits.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Returns the hasher of the filter.
+     * @return the hasher.
+     */
+    public KeyHasher<? super CT> getHasher() {
+        return hasher;
+    }
+
+    /**
+     * Returns the number of keys for which the filter was sized.
+     * @return the capacity.
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the false-positive rate for which the filter was sized.
+     * @return the targeted false-positive rate.
+     */
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    /**
+     * Returns the number of bits of the filter.
+     * @return the number of bits.
+     */
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * Returns the number of bits set per key.
+     * @return the number of hash functions.
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Returns the number of keys added so far, including duplicates.
+     * @return the number of insertions.
+     */
+    public long getInsertions() {
+        return insertions;
+    }
+
+    /**
+     * Returns the number of queries answered.
+     * @return the number of queries.
+     */
+    public long getQueries() {
+        return queries;
+    }
+
+    /**
+     * Returns the number of queries the filter rejected, each of which saved a lookup.
+     * @return the number of rejected queries.
+     */
+    public long getNegatives() {
+        return negatives;
+    }
+
+    /**
+     * Returns the number of accepted queries whose key turned out to be absent.
+     * @return the number of false positives.
+     */
+    public long getFalsePositives() {
+        return falsePositives;
+    }
+
+    /**
+     * Returns the share of queries for absent keys that the filter failed to reject.
+     * @return the observed false-positive rate, or 0 if no absent key was queried.
+     */
+    public double getObservedFalsePositiveRate() {
+        long absent = negatives + falsePositives;
+        return absent == 0 ? 0 : (double) falsePositives / absent;
+    }
+
+    /**
+     * Returns the false-positive rate the filter has with its current fill, the share of set bits raised to the
+     * number of hash functions. It grows beyond {@link #getFalsePositiveRate()} once more than the capacity is added.
+     * @return the expected false-positive rate.
+     */
+    public double getExpectedFalsePositiveRate() {
+        return Math.pow((double) setBits / bitCount, hashCount);
+    }
+}
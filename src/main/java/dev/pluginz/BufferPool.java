@@ -0,0 +1,364 @@
+package dev.pluginz;
+
+import dev.pluginz.interfaces.EvictionPolicy;
+import dev.pluginz.interfaces.PinnedPageStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * BufferPool is a page store that keeps a bounded number of pages of a page file in memory.
+ * The pages live in a fixed number of frames of native memory. Pinning a page that is not resident loads it
+ * into a free frame, or evicts the page of a frame chosen by the {@link EvictionPolicy} and writes it back
+ * first if it is dirty. Pinned pages are never evicted, so a tree has to unpin every page it pins.
+ * <p>
+ * The file uses the same format as {@link MappedPageStore}, see {@link PageFileHeader}.
+ * Hits, misses, evictions and write-backs are counted so that the capacity can be sized against a working set.
+ * The pool is not thread-safe.
+ */
+public class BufferPool implements PinnedPageStore {
+
+    private final FileChannel channel;
+    private final Arena arena = Arena.ofShared();
+    private final MemorySegment header;
+    private final int pageSize;
+    private final MemorySegment[] frames;
+    private final long[] framePages;
+    private final int[] pinCounts;
+    private final boolean[] dirty;
+    private final PageTable table;
+    private final EvictionPolicy policy;
+    private final int[] freeFrames;
+    private int freeCount;
+    private long pageCount;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long writeBacks;
+
+    /**
+     * BufferPool constructor using a {@link ClockPolicy}.
+     * @param path the path of the page file, which is created if it does not exist or is empty.
+     * @param pageSize the size of every page in bytes, a positive multiple of 8.
+     * @param capacity the number of pages kept in memory, at least 1.
+     * @throws IllegalArgumentException if pageSize is not a positive multiple of 8 or capacity is smaller than 1.
+     * @throws IOException if the file cannot be opened, is not a page file, or uses a different page size.
+     */
+    public BufferPool(Path path, int pageSize, int capacity) throws IOException {
+        this(path, pageSize, capacity, ClockPolicy::new);
+    }
+
+    /**
+     * BufferPool constructor.
+     * @param path the path of the page file, which is created if it does not exist or is empty.
+     * @param pageSize the size of every page in bytes, a positive multiple of 8.
+     * @param capacity the number of pages kept in memory, at least 1.
+     * @param policy creates the eviction policy for the given number of frames, for example {@code LruPolicy::new}.
+     * @throws IllegalArgumentException if pageSize is not a positive multiple of 8 or capacity is smaller than 1.
+     * @throws IOException if the file cannot be opened, is not a page file, or uses a different page size.
+     */
+    public BufferPool(Path path, int pageSize, int capacity, IntFunction<? extends EvictionPolicy> policy) throws IOException {
+        this(path, open(path, pageSize, capacity), pageSize, capacity, policy);
+    }
+
+    /**
+     * BufferPool constructor working on an open channel, which the pool takes ownership of.
+     * @param path the path of the page file, used in error messages.
+     * @param channel the channel of the page file, readable and writable.
+     * @param pageSize the size of every page in bytes, a positive multiple of 8.
+     * @param capacity the number of pages kept in memory, at least 1.
+     * @param policy creates the eviction policy for the given number of frames.
+     * @throws IOException if the file is not a page file or uses a different page size.
+     */
+    BufferPool(Path path, FileChannel channel, int pageSize, int capacity, IntFunction<? extends EvictionPolicy> policy) throws IOException {
+        this.channel = channel;
+        this.pageSize = pageSize;
+        try {
+            this.policy = policy.apply(capacity);
+            this.table = new PageTable(capacity);
+            this.frames = new MemorySegment[capacity];
+            this.framePages = new long[capacity];
+            this.pinCounts = new int[capacity];
+            this.dirty = new boolean[capacity];
+            this.freeFrames = new int[capacity];
+            Arrays.fill(framePages, -1);
+            // The stack hands out the frames in ascending order.
+            for (int i = 0; i < capacity; i++) {
+                freeFrames[i] = capacity - 1 - i;
+            }
+            this.freeCount = capacity;
+            MemorySegment memory = arena.allocate((long) capacity * pageSize, 8);
+            for (int i = 0; i < capacity; i++) {
+                frames[i] = memory.asSlice((long) i * pageSize, pageSize);
+            }
+            this.header = arena.allocate(PageFileHeader.BYTES, 8);
+            if (channel.size() == 0) {
+                PageFileHeader.init(header, pageSize);
+            } else {
+                if (readFully(header.asByteBuffer(), 0) < PageFileHeader.BYTES) {
+                    throw new IOException(path + " is not a page file");
+                }
+                this.pageCount = PageFileHeader.validate(header, path, pageSize);
+            }
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static FileChannel open(Path path, int pageSize, int capacity) throws IOException {
+        if (pageSize <= 0 || pageSize % 8 != 0) {
+            throw new IllegalArgumentException("Page size must be a positive multiple of 8, got " + pageSize);
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1, got " + capacity);
+        }
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    @Override
+    public int pageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public long pageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Returns the number of pages the pool keeps in memory.
+     * @return the capacity.
+     */
+    public int getCapacity() {
+        return frames.length;
+    }
+
+    /**
+     * Allocates a new page filled with zeros. The page starts out resident and dirty.
+     * @return the id of the new page.
+     * @throws IllegalStateException if every frame is pinned.
+     * @throws UncheckedIOException if an evicted page cannot be written back.
+     */
+    @Override
+    public long allocate() {
+        int frame = obtainFrame();
+        long id = pageCount++;
+        frames[frame].fill((byte) 0);
+        install(frame, id);
+        dirty[frame] = true;
+        return id;
+    }
+
+    /**
+     * Pins a page, loading it from the file if it is not resident.
+     * @param id the id of the page, between 0 and pageCount() - 1.
+     * @return the frame holding the page, valid until the page is unpinned.
+     * @throws IndexOutOfBoundsException if the page has not been allocated.
+     * @throws IllegalStateException if the page is not resident and every frame is pinned.
+     * @throws UncheckedIOException if the page cannot be read or an evicted page cannot be written back.
+     */
+    @Override
+    public MemorySegment pin(long id) {
+        if (id < 0 || id >= pageCount) {
+            throw new IndexOutOfBoundsException("Page " + id + " has not been allocated");
+        }
+        int frame = table.get(id);
+        if (frame >= 0) {
+            hits++;
+            policy.accessed(frame);
+        } else {
+            misses++;
+            frame = obtainFrame();
+            try {
+                load(frame, id);
+            } catch (RuntimeException e) {
+                // The frame holds no page now, so it must not be lost to the pool.
+                freeFrames[freeCount++] = frame;
+                throw e;
+            }
+            install(frame, id);
+        }
+        pinCounts[frame]++;
+        return frames[frame];
+    }
+
+    /**
+     * Releases a pinned page.
+     * @param id the id of the page.
+     * @param dirty whether the page was modified while pinned; a dirty page is written back before it is evicted.
+     * @throws IllegalStateException if the page is not pinned.
+     */
+    @Override
+    public void unpin(long id, boolean dirty) {
+        int frame = table.get(id);
+        if (frame < 0 || pinCounts[frame] == 0) {
+            throw new IllegalStateException("Page " + id + " is not pinned");
+        }
+        pinCounts[frame]--;
+        this.dirty[frame] |= dirty;
+    }
+
+    /**
+     * Writes all dirty pages and the header back to the file and forces them to the disk.
+     * @throws UncheckedIOException if the file cannot be written.
+     */
+    @Override
+    public void flush() {
+        for (int frame = 0; frame < frames.length; frame++) {
+            if (dirty[frame]) {
+                writeBack(frame);
+            }
+        }
+        try {
+            PageFileHeader.setPageCount(header, pageCount);
+            writeFully(header.asByteBuffer(), 0);
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Flushes the pool, closes the file and releases all frames.
+     * @throws UncheckedIOException if the file cannot be written or closed.
+     */
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                arena.close();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of pins that found their page resident.
+     * @return the number of hits.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of pins that had to load their page from the file.
+     * @return the number of misses.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the fraction of pins that found their page resident.
+     * @return the hit ratio between 0 and 1, or 0 if no page was pinned yet.
+     */
+    public double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Returns the number of pages evicted to make room for other pages.
+     * @return the number of evictions.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of dirty pages written back to the file, on eviction or flush.
+     * @return the number of write-backs.
+     */
+    public long getWriteBacks() {
+        return writeBacks;
+    }
+
+    /**
+     * Resets the hit, miss, eviction and write-back counters to zero.
+     */
+    public void resetStatistics() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        writeBacks = 0;
+    }
+
+    /**
+     * Returns a free frame, evicting a page if there is none.
+     * @return the frame.
+     */
+    private int obtainFrame() {
+        if (freeCount > 0) {
+            return freeFrames[--freeCount];
+        }
+        int frame = policy.victim(f -> pinCounts[f] == 0);
+        if (frame < 0) {
+            throw new IllegalStateException("All " + frames.length + " frames are pinned");
+        }
+        if (dirty[frame]) {
+            writeBack(frame);
+        }
+        long id = framePages[frame];
+        table.remove(id);
+        framePages[frame] = -1;
+        policy.evicted(frame, id);
+        evictions++;
+        return frame;
+    }
+
+    private void install(int frame, long id) {
+        framePages[frame] = id;
+        table.put(id, frame);
+        policy.loaded(frame, id);
+    }
+
+    private void load(int frame, long id) {
+        try {
+            int read = readFully(frames[frame].asByteBuffer(), PageFileHeader.position(id, pageSize));
+            // A page that was allocated but never written back lies beyond the end of the file.
+            frames[frame].asSlice(read).fill((byte) 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeBack(int frame) {
+        try {
+            writeFully(frames[frame].asByteBuffer(), PageFileHeader.position(framePages[frame], pageSize));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        dirty[frame] = false;
+        writeBacks++;
+    }
+
+    private int readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.position();
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package dev.pluginz;
+
+import dev.pluginz.interfaces.EvictionPolicy;
+
+import java.util.function.IntPredicate;
+
+/**
+ * ClockPolicy approximates LRU with a single reference bit per frame.
+ * A hand sweeps over the frames in a circle: a frame whose bit is set gets a second chance and loses its bit,
+ * the first frame without it is evicted. Accesses only set a bit, so hits cost no list maintenance.
+ */
+public class ClockPolicy implements EvictionPolicy {
+    private final boolean[] referenced;
+    private final boolean[] occupied;
+    private int hand;
+
+    /**
+     * ClockPolicy constructor.
+     * @param capacity the number of frames of the pool.
+     */
+    public ClockPolicy(int capacity) {
+        referenced = new boolean[capacity];
+        occupied = new boolean[capacity];
+    }
+
+    @Override
+    public void loaded(int frame, long pageId) {
+        occupied[frame] = true;
+        referenced[frame] = true;
+    }
+
+    @Override
+    public void accessed(int frame) {
+        referenced[frame] = true;
+    }
+
+    @Override
+    public int victim(IntPredicate evictable) {
+        // Two rounds clear every reference bit, so a third one cannot find anything new.
+        for (int step = 0; step < 2 * referenced.length; step++) {
+            int frame = hand;
+            hand = hand + 1 == referenced.length ? 0 : hand + 1;
+            if (occupied[frame] && evictable.test(frame)) {
+                if (!referenced[frame]) {
+                    return frame;
+                }
+                referenced[frame] = false;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void evicted(int frame, long pageId) {
+        occupied[frame] = false;
+        referenced[frame] = false;
+    }
+}
@@ -0,0 +1,288 @@
+package dev.pluginz;
+
+import dev.pluginz.interfaces.ComparableContent;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * ConcurrentBTree is a thread-safe B-Tree using optimistic lock coupling.
+ * Every node carries a {@link StampedLock} that serves as a version counter. Readers never take a lock:
+ * they remember the version of each node they read and validate it before trusting what they read,
+ * restarting from the root if a writer interfered. Writers descend the same way and only upgrade to
+ * write locks on the nodes they actually modify: the leaf they insert into, or a full node and its
+ * parent when splitting. The root pointer is guarded by a separate lock that acts as the parent of the root.
+ * Like {@link BTree}, duplicate keys are kept. Keys cannot be removed.
+ */
+public class ConcurrentBTree<CT extends ComparableContent<CT>> {
+
+    /**
+     * Node is a nested class that represents a node in the ConcurrentBTree.
+     * Its fields are only modified while holding the write lock of the node.
+     */
+    static final class Node<CT> {
+        final StampedLock lock = new StampedLock();
+        final CT[] keys;
+        final Node<CT>[] children;
+        final boolean isLeaf;
+        int numKeys;
+
+        /**
+         * Node constructor.
+         * @param isLeaf indicates whether the node is a leaf node.
+         * @param keys the array holding the keys of the node.
+         */
+        @SuppressWarnings("unchecked")
+        Node(boolean isLeaf, CT[] keys) {
+            this.isLeaf = isLeaf;
+            this.keys = keys;
+            this.children = isLeaf ? null : (Node<CT>[]) new Node<?>[keys.length + 1];
+        }
+    }
+
+    private final int t;
+    private final Class<CT> clazz;
+    private final StampedLock rootLock = new StampedLock();
+    private Node<CT> root;
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * ConcurrentBTree constructor using the {@link BTree#DEFAULT_MIN_DEGREE}.
+     * @param clazz the Class object representing CT.
+     */
+    public ConcurrentBTree(Class<CT> clazz) {
+        this(clazz, BTree.DEFAULT_MIN_DEGREE);
+    }
+
+    /**
+     * ConcurrentBTree constructor.
+     * @param clazz the Class object representing CT.
+     * @param minDegree the minimum degree of the tree, at least 2.
+     * @throws IllegalArgumentException if minDegree is smaller than 2.
+     */
+    public ConcurrentBTree(Class<CT> clazz, int minDegree) {
+        if (minDegree < 2) {
+            throw new IllegalArgumentException("Minimum degree must be at least 2, got " + minDegree);
+        }
+        this.t = minDegree;
+        this.clazz = clazz;
+        this.root = newNode(true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<CT> newNode(boolean isLeaf) {
+        return new Node<>(isLeaf, (CT[]) java.lang.reflect.Array.newInstance(clazz, 2 * t - 1));
+    }
+
+    /**
+     * Returns the minimum degree of the tree.
+     * @return the minimum degree.
+     */
+    public int getMinDegree() {
+        return t;
+    }
+
+    /**
+     * Returns the number of keys in the tree.
+     * The result is exact when no insertion is in progress.
+     * @return the number of keys.
+     */
+    public long size() {
+        return size.sum();
+    }
+
+    /**
+     * Returns the root node. Only meant for inspecting a quiescent tree.
+     * @return the root node.
+     */
+    Node<CT> getRoot() {
+        return root;
+    }
+
+    /**
+     * Searches for a key in the tree without taking any lock.
+     * @param key the key to be searched for.
+     * @return the key if it is found, null otherwise.
+     */
+    public CT search(CT key) {
+        while (true) {
+            long rootVersion = rootLock.tryOptimisticRead();
+            Node<CT> node = root;
+            long version = node.lock.tryOptimisticRead();
+            if (rootVersion == 0 || version == 0 || !rootLock.validate(rootVersion)) {
+                Thread.onSpinWait();
+                continue;
+            }
+            while (true) {
+                CT[] keys = node.keys;
+                int lo = 0;
+                int hi = node.numKeys - 1;
+                CT found = null;
+                boolean torn = false;
+                while (lo <= hi) {
+                    int mid = (lo + hi) >>> 1;
+                    CT current = keys[mid];
+                    if (current == null) {
+                        // Only possible while a writer shifts the keys.
+                        torn = true;
+                        break;
+                    }
+                    int cmp = key.compare(current);
+                    if (cmp == 0) {
+                        found = current;
+                        break;
+                    } else if (cmp < 0) {
+                        hi = mid - 1;
+                    } else {
+                        lo = mid + 1;
+                    }
+                }
+                if (torn) {
+                    break;
+                }
+                if (found != null || node.isLeaf) {
+                    if (node.lock.validate(version)) {
+                        return found;
+                    }
+                    break;
+                }
+                Node<CT> child = node.children[lo];
+                long childVersion = child == null ? 0 : child.lock.tryOptimisticRead();
+                if (childVersion == 0 || !node.lock.validate(version)) {
+                    break;
+                }
+                node = child;
+                version = childVersion;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Inserts a key into the tree.
+     * Full nodes met on the way down are split eagerly, after which the descent restarts from the root.
+     * @param key the key to be inserted.
+     */
+    public void insert(CT key) {
+        while (!tryInsert(key)) {
+            Thread.onSpinWait();
+        }
+        size.increment();
+    }
+
+    /**
+     * Makes one attempt to insert a key.
+     * @param key the key to be inserted.
+     * @return true if the key was inserted, false if the attempt has to be repeated.
+     */
+    private boolean tryInsert(CT key) {
+        long rootVersion = rootLock.tryOptimisticRead();
+        Node<CT> node = root;
+        long version = node.lock.tryOptimisticRead();
+        if (rootVersion == 0 || version == 0 || !rootLock.validate(rootVersion)) {
+            return false;
+        }
+        Node<CT> parent = null;
+        StampedLock parentLock = rootLock;
+        long parentVersion = rootVersion;
+        int childIndex = 0;
+        while (true) {
+            if (node.numKeys == 2 * t - 1) {
+                long parentStamp = parentLock.tryConvertToWriteLock(parentVersion);
+                if (parentStamp == 0) {
+                    return false;
+                }
+                long stamp = node.lock.tryConvertToWriteLock(version);
+                if (stamp == 0) {
+                    parentLock.unlockWrite(parentStamp);
+                    return false;
+                }
+                if (parent == null) {
+                    Node<CT> newRoot = newNode(false);
+                    newRoot.children[0] = node;
+                    splitChild(newRoot, 0);
+                    root = newRoot;
+                } else {
+                    splitChild(parent, childIndex);
+                }
+                node.lock.unlockWrite(stamp);
+                parentLock.unlockWrite(parentStamp);
+                return false;
+            }
+            int i = upperBound(node, key);
+            if (node.isLeaf) {
+                long stamp = i < 0 ? 0 : node.lock.tryConvertToWriteLock(version);
+                if (stamp == 0) {
+                    return false;
+                }
+                // Nodes are never removed and only a split of the leaf itself narrows its key range,
+                // so an unchanged version proves that the key still belongs here.
+                System.arraycopy(node.keys, i, node.keys, i + 1, node.numKeys - i);
+                node.keys[i] = key;
+                node.numKeys++;
+                node.lock.unlockWrite(stamp);
+                return true;
+            }
+            Node<CT> child = i < 0 ? null : node.children[i];
+            long childVersion = child == null ? 0 : child.lock.tryOptimisticRead();
+            if (childVersion == 0 || !node.lock.validate(version)) {
+                return false;
+            }
+            parent = node;
+            parentLock = node.lock;
+            parentVersion = version;
+            childIndex = i;
+            node = child;
+            version = childVersion;
+        }
+    }
+
+    /**
+     * Splits a full child node of the given node. Both nodes must be write-locked by the caller;
+     * the new right sibling is only published through the parent.
+     * @param node the parent node.
+     * @param i the index of the child to be split.
+     */
+    private void splitChild(Node<CT> node, int i) {
+        Node<CT> y = node.children[i];
+        Node<CT> z = newNode(y.isLeaf);
+        System.arraycopy(y.keys, t, z.keys, 0, t - 1);
+        if (!y.isLeaf) {
+            System.arraycopy(y.children, t, z.children, 0, t);
+        }
+        z.numKeys = t - 1;
+        y.numKeys = t - 1;
+        System.arraycopy(node.children, i + 1, node.children, i + 2, node.numKeys - i);
+        node.children[i + 1] = z;
+        System.arraycopy(node.keys, i, node.keys, i + 1, node.numKeys - i);
+        node.keys[i] = y.keys[t - 1];
+        node.numKeys++;
+    }
+
+    /**
+     * Finds the first position in a node whose key is greater than the given key.
+     * The node may be modified concurrently; the caller validates the node version afterwards.
+     * @param node the node to be searched.
+     * @param key the key to be located.
+     * @return the index of the first greater key, the number of keys if there is none,
+     *         or -1 if a concurrent modification was observed.
+     */
+    private int upperBound(Node<CT> node, CT key) {
+        CT[] keys = node.keys;
+        int lo = 0;
+        int hi = node.numKeys;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            CT current = keys[mid];
+            if (current == null) {
+                return -1;
+            }
+            if (key.compare(current) < 0) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+}
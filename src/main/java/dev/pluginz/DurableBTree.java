@@ -0,0 +1,545 @@
+package dev.pluginz;
+
+import dev.pluginz.interfaces.ComparableContent;
+import dev.pluginz.interfaces.KeyCodec;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * DurableBTree makes the mutations of a {@link BTree} survive a crash of the process.
+ * Every insertion and removal is applied to the in-memory tree and appended to a write-ahead log as a
+ * logical record; the call only returns once the record has been forced to the disk. Concurrent writers
+ * share a single force through group commit: the first waiting writer forces everything appended so far,
+ * the others wait for it and usually find their records already durable.
+ * <p>
+ * A checkpoint writes all keys to a checkpoint file and starts a new, empty log. On startup the checkpoint
+ * is bulk loaded and the log replayed on top of it. A record that was torn by a crash fails its checksum and
+ * ends the replay, so the recovered tree holds exactly the operations whose records reached the disk in full.
+ * <p>
+ * The log starts with [magic: long][epoch: long] and holds fixed-size records [crc32: int][op: byte][key].
+ * The checkpoint holds [magic: long][epoch: long][count: long][keys in order][crc32: int]. A checkpoint with
+ * epoch e contains every operation of the logs up to epoch e, so a log with an epoch not greater than the
+ * one of the checkpoint is left over from a crash during a checkpoint and skipped.
+ * <p>
+ * All methods are thread-safe.
+ */
+public class DurableBTree<CT extends ComparableContent<CT>> implements AutoCloseable {
+
+    static final String LOG_FILE = "btree.wal";
+    static final String CHECKPOINT_FILE = "btree.checkpoint";
+
+    private static final long LOG_MAGIC = 0x4254524545574C31L;
+    private static final long CHECKPOINT_MAGIC = 0x42545245454B5031L;
+    private static final int LOG_HEADER_BYTES = 16;
+    private static final byte INSERT = 1;
+    private static final byte REMOVE = 2;
+
+    private final BTree<CT> tree;
+    private final KeyCodec<CT> codec;
+    private final Path directory;
+    private final long checkpointInterval;
+    private final int recordSize;
+    private final byte[] scratch;
+    private final MemorySegment scratchSegment;
+    private final CRC32 crc = new CRC32();
+    private FileChannel log;
+    private long epoch;
+    private long size;
+    private ByteBuffer pending;
+    private ByteBuffer writing;
+    private long appended;
+    private long durable;
+    private boolean syncing;
+    private long recordsSinceCheckpoint;
+    private long syncs;
+    private IOException failure;
+    private boolean closed;
+
+    /**
+     * DurableBTree constructor.
+     * Opens the checkpoint and log in the given directory and restores the tree they describe,
+     * or starts an empty tree if there are none.
+     * @param directory the directory holding the checkpoint and the log, created if it does not exist.
+     * @param clazz the Class object representing CT.
+     * @param codec the codec used to write keys to the log and the checkpoint.
+     * @param minDegree the minimum degree of the tree, at least 2.
+     * @param checkpointInterval the number of log records after which a checkpoint is taken automatically,
+     *                           or 0 to only take checkpoints through {@link #checkpoint()}.
+     * @throws IllegalArgumentException if minDegree is smaller than 2 or checkpointInterval is negative.
+     * @throws IOException if the files cannot be read or written, or the checkpoint is corrupt.
+     */
+    public DurableBTree(Path directory, Class<CT> clazz, KeyCodec<CT> codec, int minDegree, long checkpointInterval) throws IOException {
+        if (checkpointInterval < 0) {
+            throw new IllegalArgumentException("Checkpoint interval must not be negative, got " + checkpointInterval);
+        }
+        this.tree = new BTree<>(clazz, minDegree);
+        this.codec = codec;
+        this.directory = directory;
+        this.checkpointInterval = checkpointInterval;
+        this.recordSize = Integer.BYTES + 1 + codec.width();
+        this.scratch = new byte[codec.width()];
+        this.scratchSegment = MemorySegment.ofArray(scratch);
+        this.pending = ByteBuffer.allocate(recordSize * 64);
+        this.writing = ByteBuffer.allocate(recordSize * 64);
+        Files.createDirectories(directory);
+        long checkpointEpoch = loadCheckpoint();
+        openLog(checkpointEpoch);
+    }
+
+    /**
+     * Returns the in-memory tree. It must only be read, and not while other threads modify this tree;
+     * changes made directly to it are not logged.
+     * @return the tree.
+     */
+    public BTree<CT> getTree() {
+        return tree;
+    }
+
+    /**
+     * Returns the number of keys in the tree.
+     * @return the number of keys.
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of times the log was forced to the disk. With concurrent writers it is
+     * smaller than the number of logged operations, since one force commits a whole group.
+     * @return the number of forces.
+     */
+    public synchronized long getSyncCount() {
+        return syncs;
+    }
+
+    /**
+     * Searches for a key in the tree.
+     * @param key the key to be searched for.
+     * @return the key if it is found, null otherwise.
+     */
+    public synchronized CT search(CT key) {
+        return tree.search(key);
+    }
+
+    /**
+     * Inserts a key into the tree and returns once the insertion is durable.
+     * @param key the key to be inserted.
+     * @throws IllegalStateException if the tree is closed.
+     * @throws UncheckedIOException if the log cannot be written.
+     */
+    public void insert(CT key) {
+        long lsn;
+        synchronized (this) {
+            checkOpen();
+            tree.insert(key);
+            size++;
+            lsn = append(INSERT, key);
+        }
+        awaitDurable(lsn);
+        checkpointIfDue();
+    }
+
+    /**
+     * Removes a key from the tree and returns once the removal is durable.
+     * @param key the key to be removed.
+     * @return the removed key, or null if the key was not found, in which case nothing is logged.
+     * @throws IllegalStateException if the tree is closed.
+     * @throws UncheckedIOException if the log cannot be written.
+     */
+    public CT remove(CT key) {
+        long lsn;
+        CT removed;
+        synchronized (this) {
+            checkOpen();
+            removed = tree.remove(key);
+            if (removed == null) {
+                return null;
+            }
+            size--;
+            lsn = append(REMOVE, removed);
+        }
+        awaitDurable(lsn);
+        checkpointIfDue();
+        return removed;
+    }
+
+    /**
+     * Writes all keys to a new checkpoint and starts an empty log.
+     * Writers are blocked while the checkpoint is written.
+     * @throws IllegalStateException if the tree is closed.
+     * @throws UncheckedIOException if the checkpoint or the log cannot be written.
+     */
+    public synchronized void checkpoint() {
+        checkOpen();
+        awaitSyncIdle();
+        try {
+            writeCheckpoint();
+            epoch++;
+            log.truncate(0);
+            writeLogHeader();
+        } catch (IOException e) {
+            failure = e;
+            notifyAll();
+            throw new UncheckedIOException(e);
+        }
+        // The checkpoint holds every appended operation, so their records are no longer needed.
+        pending.clear();
+        durable = appended;
+        recordsSinceCheckpoint = 0;
+        notifyAll();
+    }
+
+    /**
+     * Forces all outstanding records and closes the log. The tree must not be modified afterwards.
+     * The log is closed and the tree counts as closed even if a write failed earlier or fails now.
+     * @throws UncheckedIOException if the log cannot be written or closed, or a write failed earlier.
+     */
+    @Override
+    public void close() {
+        long lsn;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            lsn = appended;
+        }
+        UncheckedIOException error = null;
+        try {
+            awaitDurable(lsn);
+        } catch (UncheckedIOException e) {
+            error = e;
+        }
+        synchronized (this) {
+            awaitSyncIdle();
+            closed = true;
+            try {
+                log.close();
+            } catch (IOException e) {
+                if (error == null) {
+                    error = new UncheckedIOException(e);
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Tree is closed");
+        }
+    }
+
+    private synchronized void checkpointIfDue() {
+        if (!closed && checkpointInterval > 0 && recordsSinceCheckpoint >= checkpointInterval) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Appends a record to the pending buffer. Must be called while holding the monitor.
+     * @param op the operation.
+     * @param key the key of the operation.
+     * @return the log sequence number of the record.
+     */
+    private long append(byte op, CT key) {
+        if (pending.remaining() < recordSize) {
+            ByteBuffer larger = ByteBuffer.allocate(pending.capacity() * 2);
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+        codec.write(scratchSegment, 0, key);
+        crc.reset();
+        crc.update(op);
+        crc.update(scratch);
+        pending.putInt((int) crc.getValue());
+        pending.put(op);
+        pending.put(scratch);
+        recordsSinceCheckpoint++;
+        return ++appended;
+    }
+
+    /**
+     * Blocks until the record with the given sequence number is durable.
+     * If no force is in progress the caller becomes the leader and forces every record appended so far,
+     * otherwise it waits for the current leader and checks again.
+     * @param lsn the log sequence number.
+     */
+    private void awaitDurable(long lsn) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                ByteBuffer batch;
+                long upto;
+                synchronized (this) {
+                    while (syncing && durable < lsn && failure == null) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        }
+                    }
+                    if (failure != null) {
+                        throw new UncheckedIOException(failure);
+                    }
+                    if (durable >= lsn) {
+                        return;
+                    }
+                    syncing = true;
+                    batch = pending;
+                    pending = writing;
+                    writing = batch;
+                    upto = appended;
+                }
+                IOException error = null;
+                try {
+                    batch.flip();
+                    while (batch.hasRemaining()) {
+                        log.write(batch);
+                    }
+                    log.force(false);
+                } catch (IOException e) {
+                    error = e;
+                }
+                synchronized (this) {
+                    batch.clear();
+                    syncing = false;
+                    if (error != null) {
+                        failure = error;
+                    } else {
+                        durable = Math.max(durable, upto);
+                        syncs++;
+                    }
+                    notifyAll();
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void awaitSyncIdle() {
+        boolean interrupted = false;
+        while (syncing) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Loads the checkpoint into the empty tree, if there is one.
+     * @return the epoch of the checkpoint, or 0 if there is none.
+     */
+    private long loadCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        CRC32 checksum = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 16), checksum))) {
+            if (in.readLong() != CHECKPOINT_MAGIC) {
+                throw new IOException(file + " is not a checkpoint");
+            }
+            long checkpointEpoch = in.readLong();
+            long count = in.readLong();
+            try {
+                tree.bulkLoad(new Iterator<CT>() {
+                    private long read;
+
+                    @Override
+                    public boolean hasNext() {
+                        return read < count;
+                    }
+
+                    @Override
+                    public CT next() {
+                        if (read == count) {
+                            throw new NoSuchElementException();
+                        }
+                        try {
+                            in.readFully(scratch);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        read++;
+                        return codec.read(scratchSegment, 0);
+                    }
+                }, 1.0);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            int expected = (int) checksum.getValue();
+            if (in.readInt() != expected) {
+                throw new IOException(file + " is corrupt");
+            }
+            size = count;
+            return checkpointEpoch;
+        } catch (EOFException e) {
+            throw new IOException(file + " is truncated", e);
+        }
+    }
+
+    /**
+     * Opens the log and replays it if it belongs to a later epoch than the checkpoint.
+     * A torn or corrupt record ends the replay and is cut off together with everything after it.
+     * @param checkpointEpoch the epoch of the loaded checkpoint.
+     */
+    private void openLog(long checkpointEpoch) throws IOException {
+        Path file = directory.resolve(LOG_FILE);
+        log = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long valid = 0;
+            if (log.size() >= LOG_HEADER_BYTES) {
+                ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES);
+                readFully(header, 0);
+                if (header.getLong(0) != LOG_MAGIC) {
+                    throw new IOException(file + " is not a write-ahead log");
+                }
+                long logEpoch = header.getLong(8);
+                if (logEpoch > checkpointEpoch) {
+                    epoch = logEpoch;
+                    valid = replay();
+                }
+            }
+            if (valid == 0) {
+                // No usable log: start a fresh one for the epoch after the checkpoint.
+                epoch = checkpointEpoch + 1;
+                log.truncate(0);
+                writeLogHeader();
+            } else {
+                log.truncate(valid);
+                log.position(valid);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Applies all intact records of the log to the tree.
+     * @return the length of the intact part of the log.
+     */
+    private long replay() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(recordSize * 4096);
+        long position = LOG_HEADER_BYTES;
+        long end = log.size();
+        while (position + recordSize <= end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), (end - position) / recordSize * recordSize));
+            readFully(buffer, position);
+            buffer.flip();
+            while (buffer.remaining() >= recordSize) {
+                int stored = buffer.getInt();
+                byte op = buffer.get();
+                buffer.get(scratch);
+                crc.reset();
+                crc.update(op);
+                crc.update(scratch);
+                if (stored != (int) crc.getValue() || (op != INSERT && op != REMOVE)) {
+                    return position;
+                }
+                CT key = codec.read(scratchSegment, 0);
+                if (op == INSERT) {
+                    tree.insert(key);
+                    size++;
+                } else if (tree.remove(key) != null) {
+                    size--;
+                }
+                recordsSinceCheckpoint++;
+                position += recordSize;
+            }
+        }
+        return position;
+    }
+
+    private void writeLogHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES);
+        header.putLong(LOG_MAGIC).putLong(epoch).flip();
+        log.position(0);
+        while (header.hasRemaining()) {
+            log.write(header);
+        }
+        log.force(false);
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file and moves it over the previous one,
+     * so a crash leaves either the old or the new checkpoint in place.
+     * The directory is forced after the move so the new checkpoint survives a crash.
+     */
+    private void writeCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        CRC32 checksum = new CRC32();
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            buffer.putLong(CHECKPOINT_MAGIC).putLong(epoch).putLong(size);
+            for (CT key : tree) {
+                if (buffer.remaining() < scratch.length) {
+                    writeChecked(out, buffer, checksum);
+                }
+                codec.write(scratchSegment, 0, key);
+                buffer.put(scratch);
+            }
+            writeChecked(out, buffer, checksum);
+            buffer.putInt((int) checksum.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // The rename is only durable once the directory entry is; the log must not be truncated before that.
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        }
+    }
+
+    private static void writeChecked(FileChannel out, ByteBuffer buffer, CRC32 checksum) throws IOException {
+        buffer.flip();
+        checksum.update(buffer.array(), 0, buffer.limit());
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (log.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package dev.pluginz;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * FrameList is a doubly linked list of buffer pool frames, stored in two int arrays indexed by frame.
+ * Adding, removing and moving a frame take constant time and never allocate.
+ * The first frame is the most recently added one.
+ */
+final class FrameList {
+    private final int[] prev;
+    private final int[] next;
+    private final boolean[] linked;
+    private int head = -1;
+    private int tail = -1;
+    private int size;
+
+    /**
+     * FrameList constructor.
+     * @param capacity the number of frames of the pool.
+     */
+    FrameList(int capacity) {
+        prev = new int[capacity];
+        next = new int[capacity];
+        linked = new boolean[capacity];
+        Arrays.fill(prev, -1);
+        Arrays.fill(next, -1);
+    }
+
+    boolean contains(int frame) {
+        return linked[frame];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void addFirst(int frame) {
+        prev[frame] = -1;
+        next[frame] = head;
+        if (head >= 0) {
+            prev[head] = frame;
+        } else {
+            tail = frame;
+        }
+        head = frame;
+        linked[frame] = true;
+        size++;
+    }
+
+    void remove(int frame) {
+        if (prev[frame] >= 0) {
+            next[prev[frame]] = next[frame];
+        } else {
+            head = next[frame];
+        }
+        if (next[frame] >= 0) {
+            prev[next[frame]] = prev[frame];
+        } else {
+            tail = prev[frame];
+        }
+        prev[frame] = -1;
+        next[frame] = -1;
+        linked[frame] = false;
+        size--;
+    }
+
+    void moveToFirst(int frame) {
+        if (head != frame) {
+            remove(frame);
+            addFirst(frame);
+        }
+    }
+
+    /**
+     * Finds the least recently added frame that may be evicted.
+     * @param evictable tells whether a frame may be evicted.
+     * @return the frame, or -1 if there is none.
+     */
+    int lastMatching(IntPredicate evictable) {
+        for (int frame = tail; frame >= 0; frame = prev[frame]) {
+            if (evictable.test(frame)) {
+                return frame;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,97 @@
+package dev.pluginz;
+
+import dev.pluginz.abschreiben.BinarySearchTree;
+import dev.pluginz.interfaces.ComparableContent;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * InstrumentedBinarySearchTree is a {@link BinarySearchTree} that records its operations in {@link TreeMetrics}.
+ * The metrics live only in this root object; the subtrees are plain binary search trees, so trees that are
+ * not instrumented pay neither time nor memory for it.
+ * Inserts, removals and lookups are counted and timed, and lookups count their comparisons.
+ * @param <ContentType> the type of the keys.
+ */
+public class InstrumentedBinarySearchTree<ContentType extends ComparableContent<ContentType>> extends BinarySearchTree<ContentType> {
+
+    private final TreeMetrics metrics;
+    // Reused by every search to receive the number of comparisons without allocating.
+    private final int[] comparisons = new int[1];
+
+    /**
+     * InstrumentedBinarySearchTree constructor.
+     * @param metrics the metrics receiving the operations, possibly shared with other trees.
+     */
+    public InstrumentedBinarySearchTree(TreeMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the metrics receiving the operations.
+     * @return the metrics.
+     */
+    public TreeMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void insert(ContentType pContent) {
+        long start = System.nanoTime();
+        super.insert(pContent);
+        metrics.recordInsert(start);
+    }
+
+    @Override
+    public void remove(ContentType pContent) {
+        long start = System.nanoTime();
+        boolean found = tryRemove(pContent);
+        metrics.recordRemove(start, found);
+    }
+
+    /**
+     * Searches like {@link BinarySearchTree#search(ComparableContent)} and records the lookup.
+     * @param pContent the key to be searched for.
+     * @return the key if it is found, null otherwise.
+     */
+    @Override
+    public ContentType search(ContentType pContent) {
+        long start = System.nanoTime();
+        ContentType content = super.search(pContent, comparisons);
+        metrics.recordSearch(start, comparisons[0], content != null);
+        return content;
+    }
+
+    /**
+     * Measures the height and node count of the tree by visiting every node, and records the result in the metrics.
+     * Every node holds exactly one key, so the average fill is 1 unless the tree is empty.
+     * @return the shape of the tree; its height is -1 if the tree is empty.
+     */
+    public TreeMetrics.Shape measureShape() {
+        long nodes = 0;
+        int height = -1;
+        Deque<BinarySearchTree<ContentType>> pending = new ArrayDeque<>();
+        Deque<Integer> depths = new ArrayDeque<>();
+        if (!isEmpty()) {
+            pending.push(this);
+            depths.push(0);
+        }
+        while (!pending.isEmpty()) {
+            BinarySearchTree<ContentType> tree = pending.pop();
+            int depth = depths.pop();
+            nodes++;
+            height = Math.max(height, depth);
+            if (!tree.getLeftTree().isEmpty()) {
+                pending.push(tree.getLeftTree());
+                depths.push(depth + 1);
+            }
+            if (!tree.getRightTree().isEmpty()) {
+                pending.push(tree.getRightTree());
+                depths.push(depth + 1);
+            }
+        }
+        TreeMetrics.Shape shape = new TreeMetrics.Shape(height, nodes, nodes, nodes == 0 ? 0 : 1);
+        metrics.recordShape(shape);
+        return shape;
+    }
+}
@@ -0,0 +1,255 @@
+package dev.pluginz;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * IntBTree is a B-Tree specialized for primitive int keys.
+ * Keys are stored directly in int[] node arrays, so inserting, searching and scanning
+ * never allocate key objects. Like {@link BTree}, duplicate keys are kept.
+ */
+public class IntBTree {
+
+    /**
+     * Node is a nested class that represents a node in the IntBTree.
+     */
+    static final class Node {
+        final int[] keys;
+        final Node[] children;
+        int numKeys;
+        final boolean isLeaf;
+
+        /**
+         * Node constructor.
+         * @param isLeaf indicates whether the node is a leaf node.
+         * @param t the minimum degree of the tree.
+         */
+        Node(boolean isLeaf, int t) {
+            this.isLeaf = isLeaf;
+            this.keys = new int[2 * t - 1];
+            this.children = isLeaf ? null : new Node[2 * t];
+        }
+    }
+
+    private final int t;
+    private Node root;
+    private long size;
+
+    /**
+     * IntBTree constructor using the {@link BTree#DEFAULT_MIN_DEGREE}.
+     */
+    public IntBTree() {
+        this(BTree.DEFAULT_MIN_DEGREE);
+    }
+
+    /**
+     * IntBTree constructor.
+     * @param minDegree the minimum degree of the tree, at least 2.
+     * @throws IllegalArgumentException if minDegree is smaller than 2.
+     */
+    public IntBTree(int minDegree) {
+        if (minDegree < 2) {
+            throw new IllegalArgumentException("Minimum degree must be at least 2, got " + minDegree);
+        }
+        this.t = minDegree;
+        this.root = new Node(true, minDegree);
+    }
+
+    /**
+     * Returns the minimum degree of the tree.
+     * @return the minimum degree.
+     */
+    public int getMinDegree() {
+        return t;
+    }
+
+    /**
+     * Returns the number of keys in the tree.
+     * @return the number of keys.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Inserts a key into the tree.
+     * @param key the key to be inserted.
+     */
+    public void insert(int key) {
+        Node r = root;
+        if (r.numKeys == 2 * t - 1) {
+            Node s = new Node(false, t);
+            s.children[0] = r;
+            root = s;
+            splitChild(s, 0);
+            r = s;
+        }
+        while (!r.isLeaf) {
+            int i = upperBound(r, key);
+            if (r.children[i].numKeys == 2 * t - 1) {
+                splitChild(r, i);
+                if (key > r.keys[i]) {
+                    i++;
+                }
+            }
+            r = r.children[i];
+        }
+        int i = upperBound(r, key);
+        System.arraycopy(r.keys, i, r.keys, i + 1, r.numKeys - i);
+        r.keys[i] = key;
+        r.numKeys++;
+        size++;
+    }
+
+    /**
+     * Splits a full child node of the given node.
+     * @param node the parent node.
+     * @param i the index of the child to be split.
+     */
+    private void splitChild(Node node, int i) {
+        Node y = node.children[i];
+        Node z = new Node(y.isLeaf, t);
+        z.numKeys = t - 1;
+        System.arraycopy(y.keys, t, z.keys, 0, t - 1);
+        if (!y.isLeaf) {
+            System.arraycopy(y.children, t, z.children, 0, t);
+            Arrays.fill(y.children, t, 2 * t, null);
+        }
+        y.numKeys = t - 1;
+        System.arraycopy(node.children, i + 1, node.children, i + 2, node.numKeys - i);
+        node.children[i + 1] = z;
+        System.arraycopy(node.keys, i, node.keys, i + 1, node.numKeys - i);
+        node.keys[i] = y.keys[t - 1];
+        node.numKeys++;
+    }
+
+    /**
+     * Checks whether the tree contains the given key.
+     * @param key the key to be searched for.
+     * @return true if the key is present, false otherwise.
+     */
+    public boolean contains(int key) {
+        Node node = root;
+        while (true) {
+            int[] keys = node.keys;
+            int lo = 0;
+            int hi = node.numKeys - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int k = keys[mid];
+                if (k == key) {
+                    return true;
+                } else if (key < k) {
+                    hi = mid - 1;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            if (node.isLeaf) {
+                return false;
+            }
+            node = node.children[lo];
+        }
+    }
+
+    /**
+     * Counts the keys between two bounds, both inclusive.
+     * @param from the lower bound.
+     * @param to the upper bound.
+     * @return the number of keys k with from &lt;= k &lt;= to.
+     */
+    public long countRange(int from, int to) {
+        if (from > to) {
+            return 0;
+        }
+        return countRange(root, from, to);
+    }
+
+    private long countRange(Node node, int from, int to) {
+        int start = lowerBound(node, from);
+        int end = upperBound(node, to);
+        long count = end - start;
+        if (!node.isLeaf) {
+            for (int i = start; i <= end; i++) {
+                count += countRange(node.children[i], from, to);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Passes every key between two bounds, both inclusive, to the given action in ascending order.
+     * @param from the lower bound.
+     * @param to the upper bound.
+     * @param action the action to be performed for each key.
+     */
+    public void forEachInRange(int from, int to, IntConsumer action) {
+        if (from <= to) {
+            forEachInRange(root, from, to, action);
+        }
+    }
+
+    /**
+     * Passes every key to the given action in ascending order.
+     * @param action the action to be performed for each key.
+     */
+    public void forEach(IntConsumer action) {
+        forEachInRange(root, Integer.MIN_VALUE, Integer.MAX_VALUE, action);
+    }
+
+    private void forEachInRange(Node node, int from, int to, IntConsumer action) {
+        int start = lowerBound(node, from);
+        int end = upperBound(node, to);
+        for (int i = start; i < end; i++) {
+            if (!node.isLeaf) {
+                forEachInRange(node.children[i], from, to, action);
+            }
+            action.accept(node.keys[i]);
+        }
+        if (!node.isLeaf) {
+            forEachInRange(node.children[end], from, to, action);
+        }
+    }
+
+    /**
+     * Finds the first position in a node whose key is not less than the given key.
+     * @param node the node to be searched.
+     * @param key the key to be located.
+     * @return the index of the first key &gt;= key, or the number of keys if there is none.
+     */
+    private static int lowerBound(Node node, int key) {
+        int[] keys = node.keys;
+        int lo = 0;
+        int hi = node.numKeys;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Finds the first position in a node whose key is greater than the given key.
+     * @param node the node to be searched.
+     * @param key the key to be located.
+     * @return the index of the first key &gt; key, or the number of keys if there is none.
+     */
+    private static int upperBound(Node node, int key) {
+        int[] keys = node.keys;
+        int lo = 0;
+        int hi = node.numKeys;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,41 @@
+package dev.pluginz;
+
+import dev.pluginz.interfaces.EvictionPolicy;
+
+import java.util.function.IntPredicate;
+
+/**
+ * LruPolicy evicts the least recently used frame that is not pinned.
+ * Frames are kept in a list ordered by their last access, which every hit has to update.
+ */
+public class LruPolicy implements EvictionPolicy {
+    private final FrameList recency;
+
+    /**
+     * LruPolicy constructor.
+     * @param capacity the number of frames of the pool.
+     */
+    public LruPolicy(int capacity) {
+        recency = new FrameList(capacity);
+    }
+
+    @Override
+    public void loaded(int frame, long pageId) {
+        recency.addFirst(frame);
+    }
+
+    @Override
+    public void accessed(int frame) {
+        recency.moveToFirst(frame);
+    }
+
+    @Override
+    public int victim(IntPredicate evictable) {
+        return recency.lastMatching(evictable);
+    }
+
+    @Override
+    public void evicted(int frame, long pageId) {
+        recency.remove(frame);
+    }
+}
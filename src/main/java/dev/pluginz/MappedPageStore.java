@@ -0,0 +1,144 @@
+package dev.pluginz;
+
+import dev.pluginz.interfaces.PageStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * MappedPageStore keeps its pages in a file that is memory-mapped through {@link FileChannel#map}.
+ * The file starts with a small header followed by the pages in id order, see {@link PageFileHeader}.
+ * The file is mapped in chunks of about 64 megabytes, so growing it never remaps existing pages.
+ * Reopening a file makes all its pages available again without reading them; the operating system
+ * loads them on first access. Changes reach the disk when the operating system writes the mapping back,
+ * at the latest on {@link #flush()} or {@link #close()}.
+ */
+public class MappedPageStore implements PageStore {
+
+    private static final long CHUNK_BYTES = 64L << 20;
+
+    private final FileChannel channel;
+    private final Arena arena = Arena.ofShared();
+    private final MemorySegment header;
+    private final int pageSize;
+    private final int pagesPerChunk;
+    private MemorySegment[] chunks = new MemorySegment[8];
+    private long pageCount;
+
+    /**
+     * MappedPageStore constructor.
+     * Creates the file if it does not exist or is empty, otherwise opens the pages it holds.
+     * @param path the path of the page file.
+     * @param pageSize the size of every page in bytes, a positive multiple of 8.
+     * @throws IllegalArgumentException if pageSize is not a positive multiple of 8.
+     * @throws IOException if the file cannot be opened or mapped, is not a page file, or uses a different page size.
+     */
+    public MappedPageStore(Path path, int pageSize) throws IOException {
+        if (pageSize <= 0 || pageSize % 8 != 0) {
+            throw new IllegalArgumentException("Page size must be a positive multiple of 8, got " + pageSize);
+        }
+        this.pageSize = pageSize;
+        this.pagesPerChunk = (int) Math.max(1, CHUNK_BYTES / pageSize);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean created = channel.size() == 0;
+            if (!created && channel.size() < PageFileHeader.BYTES) {
+                throw new IOException(path + " is not a page file");
+            }
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, PageFileHeader.BYTES, arena);
+            if (created) {
+                PageFileHeader.init(header, pageSize);
+            } else {
+                long count = PageFileHeader.validate(header, path, pageSize);
+                for (long chunk = 0; chunk * pagesPerChunk < count; chunk++) {
+                    mapChunk((int) chunk);
+                }
+                this.pageCount = count;
+            }
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void mapChunk(int chunk) throws IOException {
+        if (chunk == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        long bytes = (long) pagesPerChunk * pageSize;
+        long position = PageFileHeader.position((long) chunk * pagesPerChunk, pageSize);
+        // Mapping beyond the end of the file grows it; the new bytes read as zeros.
+        chunks[chunk] = channel.map(FileChannel.MapMode.READ_WRITE, position, bytes, arena);
+    }
+
+    @Override
+    public int pageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public long pageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Allocates a new page filled with zeros.
+     * @return the id of the new page.
+     * @throws UncheckedIOException if the file cannot be grown.
+     */
+    @Override
+    public long allocate() {
+        if (pageCount % pagesPerChunk == 0) {
+            try {
+                mapChunk((int) (pageCount / pagesPerChunk));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        pageCount++;
+        PageFileHeader.setPageCount(header, pageCount);
+        return pageCount - 1;
+    }
+
+    @Override
+    public MemorySegment page(long id) {
+        if (id < 0 || id >= pageCount) {
+            throw new IndexOutOfBoundsException("Page " + id + " has not been allocated");
+        }
+        return chunks[(int) (id / pagesPerChunk)].asSlice((id % pagesPerChunk) * pageSize, pageSize);
+    }
+
+    /**
+     * Forces all changed pages and the header to the disk.
+     */
+    @Override
+    public void flush() {
+        for (int chunk = 0; chunk * (long) pagesPerChunk < pageCount; chunk++) {
+            chunks[chunk].force();
+        }
+        header.force();
+    }
+
+    /**
+     * Flushes the store, unmaps the file and trims it to the allocated pages.
+     * @throws UncheckedIOException if the file cannot be trimmed or closed.
+     */
+    @Override
+    public void close() {
+        flush();
+        arena.close();
+        chunks = null;
+        try (FileChannel file = channel) {
+            file.truncate(PageFileHeader.position(pageCount, pageSize));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,480 @@
+package dev.pluginz;
+
+import dev.pluginz.interfaces.ComparableContent;
+import dev.pluginz.interfaces.KeyCodec;
+import dev.pluginz.interfaces.PinnedPageStore;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * OffHeapBTree is a B-Tree whose nodes live in the pages of a {@link PinnedPageStore} instead of on the heap.
+ * Keys are encoded with a fixed-width {@link KeyCodec} and children are referenced by page id,
+ * so a tree of any size only costs a handful of heap objects and adds nothing for the garbage collector to trace.
+ * Like {@link BTree}, duplicate keys are kept.
+ * <p>
+ * Page 0 holds the tree metadata; every other page holds one node laid out as
+ * <pre>
+ * [numKeys: int][isLeaf: int][keys: (2t - 1) * width bytes][padding][children: 2t * long]
+ * </pre>
+ * With a {@link MappedPageStore} the tree lives in a file and can be reopened without rebuilding it, see {@link #open}.
+ * Pages are only accessed while pinned, and at most three at a time, so the tree also runs on a bounded {@link BufferPool}.
+ * The tree is not thread-safe.
+ */
+public class OffHeapBTree<CT extends ComparableContent<CT>> implements Iterable<CT>, AutoCloseable {
+
+    private static final long META_MIN_DEGREE = 0;
+    private static final long META_KEY_WIDTH = 4;
+    private static final long META_ROOT = 8;
+    private static final long META_SIZE = 16;
+    private static final long META_HEIGHT = 24;
+    private static final int META_BYTES = 28;
+
+    private static final long NUM_KEYS = 0;
+    private static final long IS_LEAF = 4;
+    private static final long KEYS = 8;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED;
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED;
+
+    private final KeyCodec<CT> codec;
+    private final PinnedPageStore store;
+    private final int t;
+    private final int width;
+    private final long children;
+    private long root;
+    private long size;
+    private int height;
+
+    /**
+     * OffHeapBTree constructor using the {@link BTree#DEFAULT_MIN_DEGREE} and native memory from an {@link ArenaPageStore}.
+     * @param codec the codec used to store the keys.
+     */
+    public OffHeapBTree(KeyCodec<CT> codec) {
+        this(codec, BTree.DEFAULT_MIN_DEGREE);
+    }
+
+    /**
+     * OffHeapBTree constructor using native memory from an {@link ArenaPageStore}.
+     * @param codec the codec used to store the keys.
+     * @param minDegree the minimum degree of the tree, at least 2.
+     * @throws IllegalArgumentException if minDegree is smaller than 2.
+     */
+    public OffHeapBTree(KeyCodec<CT> codec, int minDegree) {
+        this(codec, minDegree, new ArenaPageStore(pageSize(checkMinDegree(minDegree), codec.width())));
+    }
+
+    /**
+     * OffHeapBTree constructor.
+     * An empty store is initialized with a new tree; a store that already holds pages is opened
+     * as the tree it contains, which must have been created with the same minimum degree and key width.
+     * The tree takes ownership of the store and closes it in {@link #close()}.
+     * @param codec the codec used to store the keys.
+     * @param minDegree the minimum degree of the tree, at least 2.
+     * @param store the store holding the pages of the tree.
+     * @throws IllegalArgumentException if minDegree is smaller than 2, the pages of the store are too small
+     *         or the store holds a tree with a different layout.
+     */
+    public OffHeapBTree(KeyCodec<CT> codec, int minDegree, PinnedPageStore store) {
+        checkMinDegree(minDegree);
+        int required = pageSize(minDegree, codec.width());
+        if (store.pageSize() < required) {
+            throw new IllegalArgumentException("Pages of " + store.pageSize() + " bytes are too small, need " + required);
+        }
+        this.codec = codec;
+        this.store = store;
+        this.t = minDegree;
+        this.width = codec.width();
+        this.children = childrenOffset(minDegree, width);
+        if (store.pageCount() == 0) {
+            MemorySegment meta = store.pin(store.allocate());
+            try {
+                meta.set(INT, META_MIN_DEGREE, t);
+                meta.set(INT, META_KEY_WIDTH, width);
+            } finally {
+                store.unpin(0, true);
+            }
+            this.root = newNode(true);
+            writeMeta();
+        } else {
+            MemorySegment meta = store.pin(0);
+            try {
+                if (meta.get(INT, META_MIN_DEGREE) != t || meta.get(INT, META_KEY_WIDTH) != width) {
+                    throw new IllegalArgumentException("Store holds a tree with minimum degree " + meta.get(INT, META_MIN_DEGREE)
+                            + " and key width " + meta.get(INT, META_KEY_WIDTH) + ", expected " + t + " and " + width);
+                }
+                this.root = meta.get(LONG, META_ROOT);
+                this.size = meta.get(LONG, META_SIZE);
+                this.height = meta.get(INT, META_HEIGHT);
+            } finally {
+                store.unpin(0, false);
+            }
+        }
+    }
+
+    private void writeMeta() {
+        MemorySegment meta = store.pin(0);
+        try {
+            meta.set(LONG, META_ROOT, root);
+            meta.set(LONG, META_SIZE, size);
+            meta.set(INT, META_HEIGHT, height);
+        } finally {
+            store.unpin(0, true);
+        }
+    }
+
+    /**
+     * Opens the tree stored in a page file, or creates a new one if the file does not exist yet.
+     * Opening only maps the file; no page is read until the tree touches it.
+     * @param path the path of the page file.
+     * @param codec the codec used to store the keys.
+     * @param minDegree the minimum degree of the tree, at least 2.
+     * @param <CT> the type of the keys.
+     * @return the tree.
+     * @throws IllegalArgumentException if minDegree is smaller than 2 or the file holds a tree with a different layout.
+     * @throws IOException if the file cannot be opened or is not a page file of this layout.
+     */
+    public static <CT extends ComparableContent<CT>> OffHeapBTree<CT> open(Path path, KeyCodec<CT> codec, int minDegree) throws IOException {
+        MappedPageStore store = new MappedPageStore(path, pageSize(checkMinDegree(minDegree), codec.width()));
+        try {
+            return new OffHeapBTree<>(codec, minDegree, store);
+        } catch (RuntimeException e) {
+            store.close();
+            throw e;
+        }
+    }
+
+    private static int checkMinDegree(int minDegree) {
+        if (minDegree < 2) {
+            throw new IllegalArgumentException("Minimum degree must be at least 2, got " + minDegree);
+        }
+        return minDegree;
+    }
+
+    private static long childrenOffset(int minDegree, int keyWidth) {
+        return (KEYS + (long) (2 * minDegree - 1) * keyWidth + 7) & ~7L;
+    }
+
+    /**
+     * Returns the smallest page size that can hold a node of a tree with the given layout.
+     * @param minDegree the minimum degree of the tree.
+     * @param keyWidth the width of an encoded key in bytes.
+     * @return the page size in bytes, a multiple of 8.
+     */
+    public static int pageSize(int minDegree, int keyWidth) {
+        long bytes = Math.max(META_BYTES, childrenOffset(minDegree, keyWidth) + 2L * minDegree * Long.BYTES);
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A node of minimum degree " + minDegree + " does not fit into a page");
+        }
+        return (int) ((bytes + 7) & ~7L);
+    }
+
+    /**
+     * Returns the minimum degree of the tree.
+     * @return the minimum degree.
+     */
+    public int getMinDegree() {
+        return t;
+    }
+
+    /**
+     * Returns the number of keys in the tree.
+     * @return the number of keys.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the store holding the pages of the tree.
+     * @return the page store.
+     */
+    public PinnedPageStore getStore() {
+        return store;
+    }
+
+    /**
+     * Inserts a key into the tree.
+     * Full nodes are split on the way down, so the insertion needs a single pass
+     * and never holds more than the current node, its child and a new sibling.
+     * Every pinned page is unpinned again even if the store fails, so that a bounded store is not left with pinned frames.
+     * @param key the key to be inserted.
+     */
+    public void insert(CT key) {
+        long id = root;
+        MemorySegment node = store.pin(id);
+        boolean dirty = false;
+        try {
+            if (numKeys(node) == 2 * t - 1) {
+                long s = newNode(false);
+                MemorySegment newRoot = store.pin(s);
+                try {
+                    setChild(newRoot, 0, id);
+                    splitChild(newRoot, 0, node);
+                } catch (RuntimeException e) {
+                    store.unpin(s, true);
+                    throw e;
+                }
+                store.unpin(id, true);
+                root = s;
+                height++;
+                id = s;
+                node = newRoot;
+                dirty = true;
+            }
+            while (!isLeaf(node)) {
+                int i = upperBound(node, key);
+                long childId = child(node, i);
+                MemorySegment child = store.pin(childId);
+                boolean childDirty = false;
+                try {
+                    if (numKeys(child) == 2 * t - 1) {
+                        splitChild(node, i, child);
+                        dirty = true;
+                        childDirty = true;
+                        if (codec.compare(key, node, keyOffset(i)) > 0) {
+                            store.unpin(childId, true);
+                            child = null;
+                            childId = child(node, i + 1);
+                            childDirty = false;
+                            child = store.pin(childId);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    if (child != null) {
+                        store.unpin(childId, childDirty);
+                    }
+                    throw e;
+                }
+                store.unpin(id, dirty);
+                id = childId;
+                node = child;
+                dirty = childDirty;
+            }
+            int n = numKeys(node);
+            int i = upperBound(node, key);
+            dirty = true;
+            MemorySegment.copy(node, keyOffset(i), node, keyOffset(i + 1), (long) (n - i) * width);
+            codec.write(node, keyOffset(i), key);
+            node.set(INT, NUM_KEYS, n + 1);
+        } finally {
+            store.unpin(id, dirty);
+        }
+        size++;
+        writeMeta();
+    }
+
+    /**
+     * Splits a full child node of the given node. Both nodes must be pinned by the caller,
+     * who is responsible for marking them dirty.
+     * @param node the parent node.
+     * @param i the index of the child to be split.
+     * @param y the child to be split.
+     */
+    private void splitChild(MemorySegment node, int i, MemorySegment y) {
+        boolean leaf = isLeaf(y);
+        long id = newNode(leaf);
+        MemorySegment z = store.pin(id);
+        try {
+            MemorySegment.copy(y, keyOffset(t), z, keyOffset(0), (long) (t - 1) * width);
+            if (!leaf) {
+                MemorySegment.copy(y, childOffset(t), z, childOffset(0), (long) t * Long.BYTES);
+            }
+            z.set(INT, NUM_KEYS, t - 1);
+        } finally {
+            store.unpin(id, true);
+        }
+        y.set(INT, NUM_KEYS, t - 1);
+        int n = numKeys(node);
+        MemorySegment.copy(node, childOffset(i + 1), node, childOffset(i + 2), (long) (n - i) * Long.BYTES);
+        setChild(node, i + 1, id);
+        MemorySegment.copy(node, keyOffset(i), node, keyOffset(i + 1), (long) (n - i) * width);
+        MemorySegment.copy(y, keyOffset(t - 1), node, keyOffset(i), width);
+        node.set(INT, NUM_KEYS, n + 1);
+    }
+
+    /**
+     * Searches for a key in the tree.
+     * @param key the key to be searched for.
+     * @return the stored key decoded by the codec if it is found, null otherwise.
+     */
+    public CT search(CT key) {
+        long id = root;
+        while (true) {
+            MemorySegment node = store.pin(id);
+            long next;
+            try {
+                int lo = 0;
+                int hi = numKeys(node) - 1;
+                while (lo <= hi) {
+                    int mid = (lo + hi) >>> 1;
+                    int cmp = codec.compare(key, node, keyOffset(mid));
+                    if (cmp == 0) {
+                        return codec.read(node, keyOffset(mid));
+                    } else if (cmp < 0) {
+                        hi = mid - 1;
+                    } else {
+                        lo = mid + 1;
+                    }
+                }
+                if (isLeaf(node)) {
+                    return null;
+                }
+                next = child(node, lo);
+            } finally {
+                store.unpin(id, false);
+            }
+            id = next;
+        }
+    }
+
+    /**
+     * Returns an iterator over all keys in ascending order.
+     * Every key is decoded when it is returned, and pages are only pinned while the iterator reads them.
+     * The tree must not be modified while iterating.
+     * @return the iterator.
+     */
+    @Override
+    public Iterator<CT> iterator() {
+        return new Iterator<CT>() {
+            private final long[] ids = new long[height + 1];
+            private final int[] counts = new int[height + 1];
+            private final boolean[] leaves = new boolean[height + 1];
+            private final int[] indexes = new int[height + 1];
+            private int depth;
+
+            {
+                pushLeftmost(root);
+                skipExhausted();
+            }
+
+            private void pushLeftmost(long id) {
+                while (true) {
+                    MemorySegment node = store.pin(id);
+                    long first;
+                    try {
+                        ids[depth] = id;
+                        counts[depth] = numKeys(node);
+                        leaves[depth] = isLeaf(node);
+                        indexes[depth] = 0;
+                        first = leaves[depth] ? -1 : child(node, 0);
+                    } finally {
+                        store.unpin(id, false);
+                    }
+                    if (leaves[depth++]) {
+                        return;
+                    }
+                    id = first;
+                }
+            }
+
+            private void skipExhausted() {
+                while (depth > 0 && indexes[depth - 1] >= counts[depth - 1]) {
+                    depth--;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return depth > 0;
+            }
+
+            @Override
+            public CT next() {
+                if (depth == 0) {
+                    throw new NoSuchElementException();
+                }
+                long id = ids[depth - 1];
+                int i = indexes[depth - 1]++;
+                MemorySegment node = store.pin(id);
+                CT key;
+                long next;
+                try {
+                    key = codec.read(node, keyOffset(i));
+                    next = leaves[depth - 1] ? -1 : child(node, i + 1);
+                } finally {
+                    store.unpin(id, false);
+                }
+                if (next >= 0) {
+                    pushLeftmost(next);
+                }
+                skipExhausted();
+                return key;
+            }
+        };
+    }
+
+    /**
+     * Writes all changed pages of the tree to durable storage, if the store has any.
+     */
+    public void flush() {
+        store.flush();
+    }
+
+    /**
+     * Closes the underlying store and releases its memory. The tree must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        store.close();
+    }
+
+    private long newNode(boolean isLeaf) {
+        long id = store.allocate();
+        MemorySegment node = store.pin(id);
+        try {
+            node.set(INT, IS_LEAF, isLeaf ? 1 : 0);
+        } finally {
+            store.unpin(id, true);
+        }
+        return id;
+    }
+
+    /**
+     * Finds the first position in a node whose key is greater than the given key.
+     * @param node the node to be searched.
+     * @param key the key to be located.
+     * @return the index of the first greater key, or the number of keys if there is none.
+     */
+    private int upperBound(MemorySegment node, CT key) {
+        int lo = 0;
+        int hi = numKeys(node);
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (codec.compare(key, node, keyOffset(mid)) < 0) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    private static int numKeys(MemorySegment node) {
+        return node.get(INT, NUM_KEYS);
+    }
+
+    private static boolean isLeaf(MemorySegment node) {
+        return node.get(INT, IS_LEAF) != 0;
+    }
+
+    private long keyOffset(int i) {
+        return KEYS + (long) i * width;
+    }
+
+    private long childOffset(int i) {
+        return children + (long) i * Long.BYTES;
+    }
+
+    private long child(MemorySegment node, int i) {
+        return node.get(LONG, childOffset(i));
+    }
+
+    private void setChild(MemorySegment node, int i, long id) {
+        node.set(LONG, childOffset(i), id);
+    }
+}
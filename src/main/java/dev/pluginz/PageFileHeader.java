@@ -0,0 +1,80 @@
+package dev.pluginz;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.file.Path;
+
+/**
+ * PageFileHeader reads and writes the header shared by all page files.
+ * A page file starts with this header, followed by the pages in id order:
+ * <pre>
+ * [magic: long][version: int][pageSize: int][pageCount: long][padding up to 64 bytes][page 0][page 1]...
+ * </pre>
+ * Both {@link MappedPageStore} and {@link BufferPool} use this format, so either can open a file written by the other.
+ */
+final class PageFileHeader {
+
+    static final long BYTES = 64;
+
+    private static final long MAGIC = 0x4254524545504147L;
+    private static final int VERSION = 1;
+    private static final long OFFSET_MAGIC = 0;
+    private static final long OFFSET_VERSION = 8;
+    private static final long OFFSET_PAGE_SIZE = 12;
+    private static final long OFFSET_PAGE_COUNT = 16;
+
+    private PageFileHeader() {
+    }
+
+    /**
+     * Writes the header of a new, empty page file.
+     * @param header the segment holding the header.
+     * @param pageSize the size of every page in bytes.
+     */
+    static void init(MemorySegment header, int pageSize) {
+        header.set(ValueLayout.JAVA_LONG, OFFSET_MAGIC, MAGIC);
+        header.set(ValueLayout.JAVA_INT, OFFSET_VERSION, VERSION);
+        header.set(ValueLayout.JAVA_INT, OFFSET_PAGE_SIZE, pageSize);
+        header.set(ValueLayout.JAVA_LONG, OFFSET_PAGE_COUNT, 0);
+    }
+
+    /**
+     * Checks the header of an existing page file.
+     * @param header the segment holding the header.
+     * @param path the path of the file, used in error messages.
+     * @param pageSize the expected page size.
+     * @return the number of pages in the file.
+     * @throws IOException if the file is not a page file or uses a different page size.
+     */
+    static long validate(MemorySegment header, Path path, int pageSize) throws IOException {
+        if (header.get(ValueLayout.JAVA_LONG, OFFSET_MAGIC) != MAGIC
+                || header.get(ValueLayout.JAVA_INT, OFFSET_VERSION) != VERSION) {
+            throw new IOException(path + " is not a page file");
+        }
+        int stored = header.get(ValueLayout.JAVA_INT, OFFSET_PAGE_SIZE);
+        if (stored != pageSize) {
+            throw new IOException(path + " uses pages of " + stored + " bytes, expected " + pageSize);
+        }
+        return header.get(ValueLayout.JAVA_LONG, OFFSET_PAGE_COUNT);
+    }
+
+    /**
+     * Records the number of pages in the header.
+     * @param header the segment holding the header.
+     * @param pageCount the number of pages.
+     */
+    static void setPageCount(MemorySegment header, long pageCount) {
+        header.set(ValueLayout.JAVA_LONG, OFFSET_PAGE_COUNT, pageCount);
+    }
+
+    /**
+     * Returns the position of a page in the file.
+     * @param id the id of the page.
+     * @param pageSize the size of every page in bytes.
+     * @return the byte position of the page.
+     */
+    static long position(long id, int pageSize) {
+        return BYTES + id * pageSize;
+    }
+}
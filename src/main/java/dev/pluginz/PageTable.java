@@ -0,0 +1,81 @@
+package dev.pluginz;
+
+import java.util.Arrays;
+
+/**
+ * PageTable maps page ids to ints, such as the frames of resident pages, with open addressing and linear probing.
+ * It never allocates after construction, so looking up a page costs no garbage.
+ * Page ids must not be negative, and the table must never hold more entries than its capacity.
+ */
+final class PageTable {
+    private final long[] ids;
+    private final int[] values;
+    private final int mask;
+
+    /**
+     * PageTable constructor.
+     * @param capacity the largest number of entries the table holds at a time.
+     */
+    PageTable(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) * 2;
+        ids = new long[slots];
+        values = new int[slots];
+        mask = slots - 1;
+        Arrays.fill(ids, -1);
+    }
+
+    private int slot(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Returns the value of a page.
+     * @param id the id of the page.
+     * @return the value, or -1 if the page is not in the table.
+     */
+    int get(long id) {
+        for (int i = slot(id); ids[i] != -1; i = (i + 1) & mask) {
+            if (ids[i] == id) {
+                return values[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a page that is not in the table yet.
+     * @param id the id of the page.
+     * @param value the value of the page.
+     */
+    void put(long id, int value) {
+        int i = slot(id);
+        while (ids[i] != -1) {
+            i = (i + 1) & mask;
+        }
+        ids[i] = id;
+        values[i] = value;
+    }
+
+    /**
+     * Removes a page that is in the table.
+     * @param id the id of the page.
+     */
+    void remove(long id) {
+        int i = slot(id);
+        while (ids[i] != id) {
+            i = (i + 1) & mask;
+        }
+        // Shift later entries of the probe sequence back, so that no lookup stops at the gap.
+        int gap = i;
+        for (i = (i + 1) & mask; ids[i] != -1; i = (i + 1) & mask) {
+            int home = slot(ids[i]);
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                ids[gap] = ids[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        ids[gap] = -1;
+    }
+}
@@ -0,0 +1,102 @@
+package dev.pluginz;
+
+import dev.pluginz.interfaces.ComparableContent;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * ParallelBTreeBuilder builds a {@link BTree} from unsorted keys on all threads of a {@link ForkJoinPool}.
+ * The keys are sorted with {@link Arrays#parallelSort(Object[], java.util.Comparator)}, a parallel merge sort
+ * that keeps duplicates in input order. The nodes are then built bottom-up like
+ * {@link BTree#bulkLoad(java.util.Iterator, double)} does: the groups of every level cover contiguous key ranges
+ * and their positions follow from their index, so all nodes of a level are built in parallel and joined by the
+ * next level. The result is the same densely packed tree that a sequential bulk load of the sorted keys gives.
+ * <p>
+ * Both phases run in the given pool, so its parallelism bounds the number of threads used.
+ * The input is not modified.
+ * @param <CT> the type of the keys.
+ */
+public class ParallelBTreeBuilder<CT extends ComparableContent<CT>> {
+
+    private final Class<CT> clazz;
+    private final int minDegree;
+    private final double fillFactor;
+    private final ForkJoinPool pool;
+
+    /**
+     * ParallelBTreeBuilder constructor building completely filled nodes in the common pool.
+     * @param clazz the Class object representing CT.
+     * @param minDegree the minimum degree of the built trees, at least 2.
+     * @throws IllegalArgumentException if minDegree is smaller than 2.
+     */
+    public ParallelBTreeBuilder(Class<CT> clazz, int minDegree) {
+        this(clazz, minDegree, 1.0, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * ParallelBTreeBuilder constructor.
+     * @param clazz the Class object representing CT.
+     * @param minDegree the minimum degree of the built trees, at least 2.
+     * @param fillFactor the targeted share of used key slots per node, in (0, 1].
+     * @param pool the pool whose threads sort the keys and build the nodes.
+     * @throws IllegalArgumentException if minDegree is smaller than 2 or fillFactor is not in (0, 1].
+     */
+    public ParallelBTreeBuilder(Class<CT> clazz, int minDegree, double fillFactor, ForkJoinPool pool) {
+        if (minDegree < 2) {
+            throw new IllegalArgumentException("Minimum degree must be at least 2, got " + minDegree);
+        }
+        if (!(fillFactor > 0 && fillFactor <= 1)) {
+            throw new IllegalArgumentException("Fill factor must be in (0, 1], got " + fillFactor);
+        }
+        this.clazz = clazz;
+        this.minDegree = minDegree;
+        this.fillFactor = fillFactor;
+        this.pool = pool;
+    }
+
+    /**
+     * Builds a B-Tree holding the given keys.
+     * @param keys the keys in any order; duplicates are kept.
+     * @return the new B-Tree.
+     */
+    public BTree<CT> build(CT[] keys) {
+        return sortAndBuild(keys.clone());
+    }
+
+    /**
+     * Builds a B-Tree holding the given keys.
+     * @param keys the keys in any order; duplicates are kept.
+     * @return the new B-Tree.
+     */
+    public BTree<CT> build(Collection<? extends CT> keys) {
+        @SuppressWarnings("unchecked")
+        CT[] array = (CT[]) java.lang.reflect.Array.newInstance(clazz, keys.size());
+        return sortAndBuild(keys.toArray(array));
+    }
+
+    /**
+     * Sorts the keys in place and builds the tree from them, both in the pool.
+     * @param keys an array owned by the builder.
+     * @return the new B-Tree.
+     */
+    private BTree<CT> sortAndBuild(CT[] keys) {
+        BTree<CT> tree = new BTree<>(clazz, minDegree);
+        pool.invoke(ForkJoinTask.adapt(() -> {
+            Arrays.parallelSort(keys, (a, b) -> a.compare(b));
+            // Parallel streams started by a task of the pool run in that pool.
+            tree.buildFromSorted(Arrays.asList(keys), fillFactor, true);
+        }));
+        return tree;
+    }
+
+    /**
+     * Returns the pool in which the trees are built.
+     * @return the pool.
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+}
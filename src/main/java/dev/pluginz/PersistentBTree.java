@@ -0,0 +1,348 @@
+package dev.pluginz;
+
+import dev.pluginz.interfaces.ComparableContent;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * PersistentBTree is a copy-on-write B-Tree whose nodes are never modified once they are published.
+ * An insertion copies only the nodes on the path from the root to the affected leaf and shares every
+ * other node with the previous version. Taking a {@link Snapshot} is therefore O(1): it simply captures
+ * the current root. Snapshots can be read from any thread without locks while the writer moves ahead.
+ * Like {@link BTree}, duplicate keys are kept.
+ */
+public class PersistentBTree<CT extends ComparableContent<CT>> {
+
+    /**
+     * Node is an immutable node of the tree. Its arrays are sized to the number of keys it holds.
+     */
+    static final class Node<CT> {
+        final CT[] keys;
+        final Node<CT>[] children;
+
+        /**
+         * Node constructor.
+         * @param keys the keys of the node.
+         * @param children the children of the node, or null for a leaf.
+         */
+        Node(CT[] keys, Node<CT>[] children) {
+            this.keys = keys;
+            this.children = children;
+        }
+
+        boolean isLeaf() {
+            return children == null;
+        }
+    }
+
+    /**
+     * Snapshot is an immutable point-in-time view of a PersistentBTree.
+     */
+    public static final class Snapshot<CT extends ComparableContent<CT>> implements Iterable<CT> {
+        private final Node<CT> root;
+        private final long size;
+        private final int height;
+
+        private Snapshot(Node<CT> root, long size, int height) {
+            this.root = root;
+            this.size = size;
+            this.height = height;
+        }
+
+        /**
+         * Returns the number of keys in this snapshot.
+         * @return the number of keys.
+         */
+        public long size() {
+            return size;
+        }
+
+        /**
+         * Checks whether this snapshot holds no keys.
+         * @return true if the snapshot is empty, false otherwise.
+         */
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Searches for a key in this snapshot.
+         * @param key the key to be searched for.
+         * @return the key if it is found, null otherwise.
+         */
+        public CT search(CT key) {
+            Node<CT> node = root;
+            while (true) {
+                int lo = 0;
+                int hi = node.keys.length - 1;
+                while (lo <= hi) {
+                    int mid = (lo + hi) >>> 1;
+                    int cmp = key.compare(node.keys[mid]);
+                    if (cmp == 0) {
+                        return node.keys[mid];
+                    } else if (cmp < 0) {
+                        hi = mid - 1;
+                    } else {
+                        lo = mid + 1;
+                    }
+                }
+                if (node.isLeaf()) {
+                    return null;
+                }
+                node = node.children[lo];
+            }
+        }
+
+        /**
+         * Returns an iterator over all keys of this snapshot in ascending order.
+         * @return the iterator.
+         */
+        @Override
+        public Iterator<CT> iterator() {
+            return new SnapshotIterator<>(root, height);
+        }
+
+        @Override
+        public Spliterator<CT> spliterator() {
+            return Spliterators.spliterator(iterator(), size, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+        }
+
+        /**
+         * Returns a sequential stream of all keys of this snapshot in ascending order.
+         * @return the stream.
+         */
+        public Stream<CT> stream() {
+            return StreamSupport.stream(spliterator(), false);
+        }
+
+        Node<CT> getRoot() {
+            return root;
+        }
+    }
+
+    /**
+     * SnapshotIterator walks a snapshot in order with an explicit stack of (node, index) frames.
+     */
+    private static final class SnapshotIterator<CT> implements Iterator<CT> {
+        private final Node<CT>[] nodes;
+        private final int[] indexes;
+        private int depth;
+
+        @SuppressWarnings("unchecked")
+        SnapshotIterator(Node<CT> root, int height) {
+            nodes = (Node<CT>[]) new Node<?>[height + 1];
+            indexes = new int[height + 1];
+            pushLeftmost(root);
+            skipExhausted();
+        }
+
+        private void pushLeftmost(Node<CT> node) {
+            while (true) {
+                nodes[depth] = node;
+                indexes[depth] = 0;
+                depth++;
+                if (node.isLeaf()) {
+                    return;
+                }
+                node = node.children[0];
+            }
+        }
+
+        private void skipExhausted() {
+            while (depth > 0 && indexes[depth - 1] >= nodes[depth - 1].keys.length) {
+                nodes[--depth] = null;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return depth > 0;
+        }
+
+        @Override
+        public CT next() {
+            if (depth == 0) {
+                throw new NoSuchElementException();
+            }
+            Node<CT> node = nodes[depth - 1];
+            int i = indexes[depth - 1]++;
+            CT key = node.keys[i];
+            if (!node.isLeaf()) {
+                pushLeftmost(node.children[i + 1]);
+            }
+            skipExhausted();
+            return key;
+        }
+    }
+
+    /**
+     * Replacement describes the copy that replaces a node after an insertion.
+     * If the node overflowed, it was cut in two around median; otherwise right is null.
+     */
+    private static final class Replacement<CT> {
+        final Node<CT> left;
+        final CT median;
+        final Node<CT> right;
+
+        Replacement(Node<CT> left, CT median, Node<CT> right) {
+            this.left = left;
+            this.median = median;
+            this.right = right;
+        }
+    }
+
+    private final int t;
+    private final Class<CT> clazz;
+    private volatile Snapshot<CT> current;
+
+    /**
+     * PersistentBTree constructor using the {@link BTree#DEFAULT_MIN_DEGREE}.
+     * @param clazz the Class object representing CT.
+     */
+    public PersistentBTree(Class<CT> clazz) {
+        this(clazz, BTree.DEFAULT_MIN_DEGREE);
+    }
+
+    /**
+     * PersistentBTree constructor.
+     * @param clazz the Class object representing CT.
+     * @param minDegree the minimum degree of the tree, at least 2.
+     * @throws IllegalArgumentException if minDegree is smaller than 2.
+     */
+    public PersistentBTree(Class<CT> clazz, int minDegree) {
+        if (minDegree < 2) {
+            throw new IllegalArgumentException("Minimum degree must be at least 2, got " + minDegree);
+        }
+        this.t = minDegree;
+        this.clazz = clazz;
+        this.current = new Snapshot<>(new Node<>(newKeys(0), null), 0, 0);
+    }
+
+    /**
+     * Returns the minimum degree of the tree.
+     * @return the minimum degree.
+     */
+    public int getMinDegree() {
+        return t;
+    }
+
+    /**
+     * Returns an immutable view of the current state of the tree in O(1).
+     * @return the snapshot.
+     */
+    public Snapshot<CT> snapshot() {
+        return current;
+    }
+
+    /**
+     * Returns the number of keys in the tree.
+     * @return the number of keys.
+     */
+    public long size() {
+        return current.size();
+    }
+
+    /**
+     * Searches for a key in the current state of the tree.
+     * @param key the key to be searched for.
+     * @return the key if it is found, null otherwise.
+     */
+    public CT search(CT key) {
+        return current.search(key);
+    }
+
+    /**
+     * Inserts a key into the tree.
+     * Only the nodes on the path to the affected leaf are copied; snapshots taken before are not affected.
+     * Writers are serialized, readers never block.
+     * @param key the key to be inserted.
+     */
+    public synchronized void insert(CT key) {
+        Snapshot<CT> snapshot = current;
+        Replacement<CT> result = insert(snapshot.root, key);
+        Node<CT> root = result.left;
+        int height = snapshot.height;
+        if (result.right != null) {
+            CT[] keys = newKeys(1);
+            keys[0] = result.median;
+            root = new Node<>(keys, newChildren(result.left, result.right));
+            height++;
+        }
+        current = new Snapshot<>(root, snapshot.size + 1, height);
+    }
+
+    /**
+     * Inserts a key into a copy of the subtree rooted with the given node.
+     * @param node the root of the subtree.
+     * @param key the key to be inserted.
+     * @return the replacement of the subtree root.
+     */
+    private Replacement<CT> insert(Node<CT> node, CT key) {
+        int i = upperBound(node, key);
+        if (node.isLeaf()) {
+            return fit(insertAt(node.keys, i, key), null);
+        }
+        Replacement<CT> result = insert(node.children[i], key);
+        Node<CT>[] children = node.children.clone();
+        children[i] = result.left;
+        if (result.right != null) {
+            return fit(insertAt(node.keys, i, result.median), insertAt(children, i + 1, result.right));
+        }
+        return new Replacement<>(new Node<>(node.keys, children), null, null);
+    }
+
+    /**
+     * Wraps keys and children into a node, splitting them around the median if there are too many keys.
+     * @param keys the keys.
+     * @param children the children, or null for a leaf.
+     * @return the replacement holding the new node or nodes.
+     */
+    private Replacement<CT> fit(CT[] keys, Node<CT>[] children) {
+        if (keys.length <= 2 * t - 1) {
+            return new Replacement<>(new Node<>(keys, children), null, null);
+        }
+        // 2t keys: t stay left, the next one moves up and t - 1 go right.
+        Node<CT> left = new Node<>(Arrays.copyOfRange(keys, 0, t),
+                children == null ? null : Arrays.copyOfRange(children, 0, t + 1));
+        Node<CT> right = new Node<>(Arrays.copyOfRange(keys, t + 1, keys.length),
+                children == null ? null : Arrays.copyOfRange(children, t + 1, children.length));
+        return new Replacement<>(left, keys[t], right);
+    }
+
+    private int upperBound(Node<CT> node, CT key) {
+        int lo = 0;
+        int hi = node.keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (key.compare(node.keys[mid]) < 0) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    private static <E> E[] insertAt(E[] array, int index, E element) {
+        E[] copy = Arrays.copyOf(array, array.length + 1);
+        System.arraycopy(array, index, copy, index + 1, array.length - index);
+        copy[index] = element;
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private CT[] newKeys(int length) {
+        return (CT[]) java.lang.reflect.Array.newInstance(clazz, length);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <CT> Node<CT>[] newChildren(Node<CT> left, Node<CT> right) {
+        return (Node<CT>[]) new Node<?>[]{left, right};
+    }
+}
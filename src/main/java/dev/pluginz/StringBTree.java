@@ -0,0 +1,518 @@
+package dev.pluginz;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * StringBTree is a B+ tree specialized for String keys that share long prefixes, such as paths or tenant-scoped ids.
+ * Every node stores the longest common prefix of its keys once and the remaining suffixes back to back in a single
+ * UTF-8 byte array, so a node costs a few arrays instead of one String object per key. Inner nodes hold the
+ * shortest separators that still divide their children, not full keys.
+ * <p>
+ * Lookups encode the key once and compare it against the stored bytes directly: the node prefix is checked once
+ * per node, and the binary search compares only suffixes. Keys are never decoded except when they are returned.
+ * Keys are ordered by their UTF-8 bytes, which is the order of their Unicode code points; it differs from
+ * {@link String#compareTo(String)} only for supplementary characters. Like {@link BPlusTree}, duplicate keys are kept.
+ */
+public class StringBTree implements Iterable<String> {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    /**
+     * Node is a nested class that represents a node in the StringBTree.
+     * Key i consists of prefix followed by the bytes of suffixes from end(i - 1) to end(i).
+     * Leaves use next; inner nodes use their keys as separators and children.
+     */
+    static final class Node {
+        byte[] prefix = EMPTY;
+        byte[] suffixes = EMPTY;
+        final int[] ends;
+        final Node[] children;
+        final boolean isLeaf;
+        int numKeys;
+        Node next;
+
+        /**
+         * Node constructor.
+         * @param isLeaf indicates whether the node is a leaf node.
+         * @param t the minimum degree of the tree.
+         */
+        Node(boolean isLeaf, int t) {
+            this.isLeaf = isLeaf;
+            this.ends = new int[2 * t - 1];
+            this.children = isLeaf ? null : new Node[2 * t];
+        }
+
+        int start(int i) {
+            return i == 0 ? 0 : ends[i - 1];
+        }
+
+        int used() {
+            return numKeys == 0 ? 0 : ends[numKeys - 1];
+        }
+
+        /**
+         * Reassembles the full bytes of a key.
+         * @param i the index of the key.
+         * @return the bytes of the key.
+         */
+        byte[] key(int i) {
+            int start = start(i);
+            byte[] key = Arrays.copyOf(prefix, prefix.length + ends[i] - start);
+            System.arraycopy(suffixes, start, key, prefix.length, ends[i] - start);
+            return key;
+        }
+    }
+
+    private final int t;
+    private Node root;
+    private long size;
+
+    /**
+     * StringBTree constructor using the {@link BTree#DEFAULT_MIN_DEGREE}.
+     */
+    public StringBTree() {
+        this(BTree.DEFAULT_MIN_DEGREE);
+    }
+
+    /**
+     * StringBTree constructor.
+     * Every node except the root holds between minDegree - 1 and 2 * minDegree - 1 keys.
+     * @param minDegree the minimum degree of the tree, at least 2.
+     * @throws IllegalArgumentException if minDegree is smaller than 2.
+     */
+    public StringBTree(int minDegree) {
+        if (minDegree < 2) {
+            throw new IllegalArgumentException("Minimum degree must be at least 2, got " + minDegree);
+        }
+        this.t = minDegree;
+        this.root = new Node(true, minDegree);
+    }
+
+    /**
+     * Returns the minimum degree of the tree.
+     * @return the minimum degree.
+     */
+    public int getMinDegree() {
+        return t;
+    }
+
+    /**
+     * Returns the number of keys in the tree.
+     * @return the number of keys.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of key bytes the nodes store, prefixes and suffixes of leaves and inner nodes together.
+     * Comparing it with the UTF-8 length of all keys shows how well the keys compress.
+     * @return the number of stored key bytes.
+     */
+    public long getStoredKeyBytes() {
+        return storedKeyBytes(root);
+    }
+
+    private static long storedKeyBytes(Node node) {
+        long bytes = node.prefix.length + node.used();
+        if (!node.isLeaf) {
+            for (int i = 0; i <= node.numKeys; i++) {
+                bytes += storedKeyBytes(node.children[i]);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Inserts a key into the tree.
+     * Full nodes are split on the way down, so the insertion needs a single pass.
+     * @param key the key to be inserted.
+     * @throws NullPointerException if the key is null.
+     */
+    public void insert(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        Node node = root;
+        if (node.numKeys == 2 * t - 1) {
+            Node s = new Node(false, t);
+            s.children[0] = node;
+            root = s;
+            splitChild(s, 0);
+            node = s;
+        }
+        while (!node.isLeaf) {
+            int i = upperBound(node, bytes);
+            if (node.children[i].numKeys == 2 * t - 1) {
+                splitChild(node, i);
+                if (compare(node, i, bytes) >= 0) {
+                    i++;
+                }
+            }
+            node = node.children[i];
+        }
+        insertKey(node, upperBound(node, bytes), bytes);
+        size++;
+    }
+
+    /**
+     * Splits a full child node of the given node.
+     * A leaf keeps its first t keys, and the shortest byte string that is greater than its last key and not greater
+     * than the first key of the new right leaf becomes the separator. An inner node moves its median separator up.
+     * @param node the parent node.
+     * @param i the index of the child to be split.
+     */
+    private void splitChild(Node node, int i) {
+        Node y = node.children[i];
+        Node z = new Node(y.isLeaf, t);
+        byte[] separator;
+        if (y.isLeaf) {
+            separator = shortestSeparator(y.key(t - 1), y.key(t));
+            copyKeys(y, t, 2 * t - 1, z);
+            copyKeys(y, 0, t, y);
+            z.next = y.next;
+            y.next = z;
+        } else {
+            separator = y.key(t - 1);
+            copyKeys(y, t, 2 * t - 1, z);
+            copyKeys(y, 0, t - 1, y);
+            System.arraycopy(y.children, t, z.children, 0, t);
+            Arrays.fill(y.children, t, 2 * t, null);
+        }
+        System.arraycopy(node.children, i + 1, node.children, i + 2, node.numKeys - i);
+        node.children[i + 1] = z;
+        insertKey(node, i, separator);
+    }
+
+    /**
+     * Returns the shortest byte string s with lower &lt; s &lt;= upper, or upper itself if both are equal.
+     * The result is a prefix of upper, one byte longer than the common prefix of both.
+     * @param lower the last key of the left node.
+     * @param upper the first key of the right node, not less than lower.
+     * @return the separator.
+     */
+    static byte[] shortestSeparator(byte[] lower, byte[] upper) {
+        int common = Arrays.mismatch(lower, upper);
+        if (common < 0) {
+            return upper;
+        }
+        return Arrays.copyOf(upper, common + 1);
+    }
+
+    /**
+     * Inserts a key at the given position of a node, shortening the node prefix if the key does not share it.
+     * @param node the node, not full.
+     * @param i the position of the new key.
+     * @param key the bytes of the key.
+     */
+    private static void insertKey(Node node, int i, byte[] key) {
+        int p;
+        if (node.numKeys == 0) {
+            node.prefix = key;
+            p = key.length;
+        } else {
+            p = commonPrefix(node.prefix, key);
+            if (p < node.prefix.length) {
+                shortenPrefix(node, p);
+            }
+        }
+        int length = key.length - p;
+        int used = node.used();
+        int start = node.start(i);
+        if (used + length > node.suffixes.length) {
+            node.suffixes = Arrays.copyOf(node.suffixes, Math.max(used + length, 2 * node.suffixes.length));
+        }
+        System.arraycopy(node.suffixes, start, node.suffixes, start + length, used - start);
+        System.arraycopy(key, p, node.suffixes, start, length);
+        System.arraycopy(node.ends, i, node.ends, i + 1, node.numKeys - i);
+        node.ends[i] = start + length;
+        for (int j = i + 1; j <= node.numKeys; j++) {
+            node.ends[j] += length;
+        }
+        node.numKeys++;
+    }
+
+    /**
+     * Moves the tail of the node prefix from position p into every suffix.
+     * @param node the node.
+     * @param p the new prefix length, smaller than the current one.
+     */
+    private static void shortenPrefix(Node node, int p) {
+        int extra = node.prefix.length - p;
+        byte[] suffixes = new byte[node.used() + node.numKeys * extra];
+        int position = 0;
+        int start = 0;
+        for (int j = 0; j < node.numKeys; j++) {
+            int end = node.ends[j];
+            System.arraycopy(node.prefix, p, suffixes, position, extra);
+            position += extra;
+            System.arraycopy(node.suffixes, start, suffixes, position, end - start);
+            position += end - start;
+            node.ends[j] = position;
+            start = end;
+        }
+        node.prefix = Arrays.copyOf(node.prefix, p);
+        node.suffixes = suffixes;
+    }
+
+    /**
+     * Replaces the keys of a target node with keys from a source node, which may be the same node.
+     * The common prefix of the copied keys is recomputed; it is never shorter than the prefix of the source.
+     * @param source the node holding the keys.
+     * @param from the index of the first key to be copied.
+     * @param to the index after the last key to be copied.
+     * @param target the node receiving the keys.
+     */
+    private static void copyKeys(Node source, int from, int to, Node target) {
+        int firstStart = source.start(from);
+        int lastStart = source.start(to - 1);
+        // The keys are sorted, so the common prefix of the first and the last key is shared by all of them.
+        int extra = Arrays.mismatch(source.suffixes, firstStart, source.ends[from],
+                source.suffixes, lastStart, source.ends[to - 1]);
+        if (extra < 0) {
+            extra = source.ends[from] - firstStart;
+        }
+        byte[] prefix = Arrays.copyOf(source.prefix, source.prefix.length + extra);
+        System.arraycopy(source.suffixes, firstStart, prefix, source.prefix.length, extra);
+        byte[] suffixes = new byte[source.ends[to - 1] - firstStart - (to - from) * extra];
+        int position = 0;
+        int start = firstStart;
+        for (int j = from; j < to; j++) {
+            // Read the old end before it is overwritten, since source and target may be the same node.
+            int end = source.ends[j];
+            System.arraycopy(source.suffixes, start + extra, suffixes, position, end - start - extra);
+            position += end - start - extra;
+            target.ends[j - from] = position;
+            start = end;
+        }
+        target.prefix = prefix;
+        target.suffixes = suffixes;
+        target.numKeys = to - from;
+    }
+
+    private static int commonPrefix(byte[] a, byte[] b) {
+        int mismatch = Arrays.mismatch(a, b);
+        return mismatch < 0 ? a.length : mismatch;
+    }
+
+    /**
+     * Checks whether the tree contains the given key.
+     * @param key the key to be searched for.
+     * @return true if the key is present, false otherwise.
+     */
+    public boolean contains(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        Node leaf = findLeaf(bytes);
+        int i = lowerBound(leaf, bytes);
+        if (i == leaf.numKeys) {
+            leaf = leaf.next;
+            i = 0;
+        }
+        return leaf != null && compare(leaf, i, bytes) == 0;
+    }
+
+    /**
+     * Descends to the leftmost leaf that may hold keys not less than the given key.
+     * @param key the bytes of the key.
+     * @return the leaf.
+     */
+    private Node findLeaf(byte[] key) {
+        Node node = root;
+        while (!node.isLeaf) {
+            node = node.children[lowerBound(node, key)];
+        }
+        return node;
+    }
+
+    /**
+     * Compares a key with the node prefix.
+     * @param node the node.
+     * @param key the bytes of the key.
+     * @return 0 if the key starts with the prefix, a negative value if the key is less than every key of the node,
+     *         and a positive value if it is greater than every key of the node.
+     */
+    private static int comparePrefix(Node node, byte[] key) {
+        byte[] prefix = node.prefix;
+        int length = Math.min(prefix.length, key.length);
+        int mismatch = Arrays.mismatch(key, 0, length, prefix, 0, length);
+        if (mismatch >= 0) {
+            return Byte.compareUnsigned(key[mismatch], prefix[mismatch]);
+        }
+        return key.length < prefix.length ? -1 : 0;
+    }
+
+    /**
+     * Compares a key with the key at the given position of a node.
+     * @param node the node.
+     * @param i the index of the stored key.
+     * @param key the bytes of the key.
+     * @return a negative value, zero or a positive value if the key is less than, equal to or greater than the stored key.
+     */
+    private static int compare(Node node, int i, byte[] key) {
+        int cmp = comparePrefix(node, key);
+        if (cmp != 0) {
+            return cmp;
+        }
+        return Arrays.compareUnsigned(key, node.prefix.length, key.length, node.suffixes, node.start(i), node.ends[i]);
+    }
+
+    /**
+     * Finds the first position in a node whose key is not less than the given key.
+     * @param node the node to be searched.
+     * @param key the bytes of the key.
+     * @return the index of the first key not less than the given key, or the number of keys if there is none.
+     */
+    private static int lowerBound(Node node, byte[] key) {
+        int cmp = comparePrefix(node, key);
+        if (cmp != 0) {
+            return cmp < 0 ? 0 : node.numKeys;
+        }
+        int p = node.prefix.length;
+        int lo = 0;
+        int hi = node.numKeys;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Arrays.compareUnsigned(key, p, key.length, node.suffixes, node.start(mid), node.ends[mid]) > 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Finds the first position in a node whose key is greater than the given key.
+     * @param node the node to be searched.
+     * @param key the bytes of the key.
+     * @return the index of the first greater key, or the number of keys if there is none.
+     */
+    private static int upperBound(Node node, byte[] key) {
+        int cmp = comparePrefix(node, key);
+        if (cmp != 0) {
+            return cmp < 0 ? 0 : node.numKeys;
+        }
+        int p = node.prefix.length;
+        int lo = 0;
+        int hi = node.numKeys;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Arrays.compareUnsigned(key, p, key.length, node.suffixes, node.start(mid), node.ends[mid]) < 0) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns an iterator over all keys in ascending order.
+     * @return the iterator.
+     */
+    @Override
+    public Iterator<String> iterator() {
+        return iterator(null, false, null, false);
+    }
+
+    /**
+     * Returns an iterator over the keys between two bounds in ascending order.
+     * The iterator descends once to the first leaf of the range and then follows the leaf chain,
+     * decoding only the keys it returns. It is not fail-fast; the tree must not be modified while iterating.
+     * @param from the lower bound, or null for no lower bound.
+     * @param fromInclusive whether keys equal to the lower bound are included.
+     * @param to the upper bound, or null for no upper bound.
+     * @param toInclusive whether keys equal to the upper bound are included.
+     * @return the iterator.
+     */
+    public Iterator<String> iterator(String from, boolean fromInclusive, String to, boolean toInclusive) {
+        return new LeafIterator(from == null ? null : from.getBytes(StandardCharsets.UTF_8), fromInclusive,
+                to == null ? null : to.getBytes(StandardCharsets.UTF_8), toInclusive);
+    }
+
+    /**
+     * Returns a sequential stream of all keys in ascending order.
+     * @return the stream.
+     */
+    public Stream<String> stream() {
+        return stream(null, false, null, false);
+    }
+
+    /**
+     * Returns a sequential stream of the keys between two bounds in ascending order.
+     * @param from the lower bound, or null for no lower bound.
+     * @param fromInclusive whether keys equal to the lower bound are included.
+     * @param to the upper bound, or null for no upper bound.
+     * @param toInclusive whether keys equal to the upper bound are included.
+     * @return the stream.
+     */
+    public Stream<String> stream(String from, boolean fromInclusive, String to, boolean toInclusive) {
+        Iterator<String> iterator = iterator(from, fromInclusive, to, toInclusive);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * LeafIterator walks the leaf chain from the first key within the lower bound.
+     */
+    private class LeafIterator implements Iterator<String> {
+        private Node leaf;
+        private int index;
+        private final byte[] upper;
+        private final boolean upperInclusive;
+
+        LeafIterator(byte[] lower, boolean lowerInclusive, byte[] upper, boolean upperInclusive) {
+            this.upper = upper;
+            this.upperInclusive = upperInclusive;
+            if (lower == null) {
+                Node node = root;
+                while (!node.isLeaf) {
+                    node = node.children[0];
+                }
+                leaf = node;
+            } else {
+                leaf = findLeaf(lower);
+                index = lowerInclusive ? lowerBound(leaf, lower) : upperBound(leaf, lower);
+                // Keys equal to an exclusive lower bound may continue in the following leaves.
+                while (leaf != null && index == leaf.numKeys) {
+                    leaf = leaf.next;
+                    index = leaf == null || lowerInclusive ? 0 : upperBound(leaf, lower);
+                }
+            }
+            advanceLeaf();
+        }
+
+        private void advanceLeaf() {
+            while (leaf != null && index >= leaf.numKeys) {
+                leaf = leaf.next;
+                index = 0;
+            }
+            if (leaf != null && upper != null) {
+                int cmp = compare(leaf, index, upper);
+                if (cmp < 0 || (cmp == 0 && !upperInclusive)) {
+                    leaf = null;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null;
+        }
+
+        @Override
+        public String next() {
+            if (leaf == null) {
+                throw new NoSuchElementException();
+            }
+            byte[] key = leaf.key(index++);
+            advanceLeaf();
+            return new String(key, StandardCharsets.UTF_8);
+        }
+    }
+}
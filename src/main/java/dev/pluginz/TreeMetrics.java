@@ -0,0 +1,322 @@
+package dev.pluginz;
+
+import jdk.jfr.FlightRecorder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TreeMetrics collects operation counts, latencies, comparisons, splits and merges of the trees it is attached to,
+ * see {@link BTree#setMetrics(TreeMetrics)} and {@link InstrumentedBinarySearchTree}.
+ * All counters are striped {@link LongAdder}s, so several trees or threads can share one instance without
+ * contending on a single cache line. A B-Tree without metrics checks a single null reference per operation and
+ * records nothing; a plain binary search tree is not instrumented at all.
+ * <p>
+ * The same data is emitted to JDK Flight Recorder: a {@code dev.pluginz.TreeOperation} event per operation
+ * (disabled by default, since it is very frequent), a periodic {@code dev.pluginz.TreeStatistics} event with
+ * the counters of every live instance, and a {@code dev.pluginz.TreeShape} event whenever a tree measures its shape.
+ */
+public final class TreeMetrics {
+
+    /**
+     * Operation enumerates the operations whose count and latency are recorded.
+     */
+    public enum Operation {
+        INSERT,
+        REMOVE,
+        SEARCH
+    }
+
+    /**
+     * Shape describes the structure of a tree at the time it was measured.
+     */
+    public static final class Shape {
+        private final int height;
+        private final long nodeCount;
+        private final long keyCount;
+        private final double averageFill;
+
+        /**
+         * Shape constructor.
+         * @param height the number of edges from the root to the deepest leaf, -1 for an empty binary search tree.
+         * @param nodeCount the number of nodes.
+         * @param keyCount the number of keys.
+         * @param averageFill the share of used key slots over all nodes, between 0 and 1.
+         */
+        public Shape(int height, long nodeCount, long keyCount, double averageFill) {
+            this.height = height;
+            this.nodeCount = nodeCount;
+            this.keyCount = keyCount;
+            this.averageFill = averageFill;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public long getNodeCount() {
+            return nodeCount;
+        }
+
+        public long getKeyCount() {
+            return keyCount;
+        }
+
+        public double getAverageFill() {
+            return averageFill;
+        }
+    }
+
+    private static final Set<TreeMetrics> LIVE = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    static {
+        FlightRecorder.addPeriodicEvent(TreeStatisticsEvent.class, TreeMetrics::emitStatistics);
+    }
+
+    private final String name;
+    private final LongAdder[] counts = new LongAdder[Operation.values().length];
+    private final LongAdder[] nanos = new LongAdder[Operation.values().length];
+    private final LongAccumulator[] maxNanos = new LongAccumulator[Operation.values().length];
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder splits = new LongAdder();
+    private final LongAdder merges = new LongAdder();
+    private volatile Shape shape;
+
+    /**
+     * TreeMetrics constructor.
+     * @param name the name under which the metrics are reported to Flight Recorder.
+     */
+    public TreeMetrics(String name) {
+        this.name = name;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+            nanos[i] = new LongAdder();
+            maxNanos[i] = new LongAccumulator(Math::max, 0);
+        }
+        LIVE.add(this);
+    }
+
+    /**
+     * Returns the name under which the metrics are reported.
+     * @return the name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records a lookup.
+     * @param startNanos the value of {@link System#nanoTime()} when the lookup started.
+     * @param comparisons the number of key comparisons.
+     * @param hit whether the key was found.
+     */
+    public void recordSearch(long startNanos, int comparisons, boolean hit) {
+        long elapsed = record(Operation.SEARCH, startNanos);
+        this.comparisons.add(comparisons);
+        if (hit) {
+            hits.increment();
+        }
+        commit(Operation.SEARCH, elapsed, comparisons, hit);
+    }
+
+    /**
+     * Records an insert. Splits are counted separately by {@link #recordSplit()}.
+     * @param startNanos the value of {@link System#nanoTime()} when the insert started.
+     */
+    public void recordInsert(long startNanos) {
+        commit(Operation.INSERT, record(Operation.INSERT, startNanos), 0, true);
+    }
+
+    /**
+     * Records a removal. Merges are counted separately by {@link #recordMerge()}.
+     * @param startNanos the value of {@link System#nanoTime()} when the removal started.
+     * @param found whether a key was removed.
+     */
+    public void recordRemove(long startNanos, boolean found) {
+        commit(Operation.REMOVE, record(Operation.REMOVE, startNanos), 0, found);
+    }
+
+    /**
+     * Records a node split.
+     */
+    public void recordSplit() {
+        splits.increment();
+    }
+
+    /**
+     * Records a node merge.
+     */
+    public void recordMerge() {
+        merges.increment();
+    }
+
+    /**
+     * Records the shape of a tree and emits it to Flight Recorder.
+     * @param shape the measured shape.
+     */
+    public void recordShape(Shape shape) {
+        this.shape = shape;
+        TreeShapeEvent event = new TreeShapeEvent();
+        if (event.isEnabled()) {
+            event.tree = name;
+            event.height = shape.getHeight();
+            event.nodeCount = shape.getNodeCount();
+            event.keyCount = shape.getKeyCount();
+            event.averageFill = shape.getAverageFill();
+            event.commit();
+        }
+    }
+
+    private long record(Operation operation, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        int i = operation.ordinal();
+        counts[i].increment();
+        nanos[i].add(elapsed);
+        maxNanos[i].accumulate(elapsed);
+        return elapsed;
+    }
+
+    private void commit(Operation operation, long elapsed, int comparisons, boolean success) {
+        TreeOperationEvent event = new TreeOperationEvent();
+        if (event.isEnabled()) {
+            event.tree = name;
+            event.operation = operation.name();
+            event.latency = elapsed;
+            event.comparisons = comparisons;
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns the number of recorded operations of a kind.
+     * @param operation the kind of operation.
+     * @return the number of operations.
+     */
+    public long getCount(Operation operation) {
+        return counts[operation.ordinal()].sum();
+    }
+
+    /**
+     * Returns the average latency of an operation.
+     * @param operation the kind of operation.
+     * @return the average latency in nanoseconds, or 0 if none was recorded.
+     */
+    public double getAverageNanos(Operation operation) {
+        long count = getCount(operation);
+        return count == 0 ? 0 : (double) nanos[operation.ordinal()].sum() / count;
+    }
+
+    /**
+     * Returns the highest latency of an operation.
+     * @param operation the kind of operation.
+     * @return the highest latency in nanoseconds, or 0 if none was recorded.
+     */
+    public long getMaxNanos(Operation operation) {
+        return maxNanos[operation.ordinal()].get();
+    }
+
+    /**
+     * Returns the number of key comparisons made by lookups.
+     * @return the number of comparisons.
+     */
+    public long getComparisons() {
+        return comparisons.sum();
+    }
+
+    /**
+     * Returns the average number of key comparisons per lookup.
+     * @return the comparisons per lookup, or 0 if no lookup was recorded.
+     */
+    public double getComparisonsPerLookup() {
+        long searches = getCount(Operation.SEARCH);
+        return searches == 0 ? 0 : (double) getComparisons() / searches;
+    }
+
+    /**
+     * Returns the share of lookups that found their key.
+     * @return the hit ratio between 0 and 1, or 0 if no lookup was recorded.
+     */
+    public double getHitRatio() {
+        long searches = getCount(Operation.SEARCH);
+        return searches == 0 ? 0 : (double) hits.sum() / searches;
+    }
+
+    /**
+     * Returns the number of node splits.
+     * @return the number of splits.
+     */
+    public long getSplits() {
+        return splits.sum();
+    }
+
+    /**
+     * Returns the average number of node splits per insert.
+     * @return the splits per insert, or 0 if no insert was recorded.
+     */
+    public double getSplitsPerInsert() {
+        long inserts = getCount(Operation.INSERT);
+        return inserts == 0 ? 0 : (double) getSplits() / inserts;
+    }
+
+    /**
+     * Returns the number of node merges.
+     * @return the number of merges.
+     */
+    public long getMerges() {
+        return merges.sum();
+    }
+
+    /**
+     * Returns the shape recorded last.
+     * @return the shape, or null if no shape was recorded yet.
+     */
+    public Shape getShape() {
+        return shape;
+    }
+
+    /**
+     * Resets all counters to zero. The recorded shape is kept.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i].reset();
+            nanos[i].reset();
+            maxNanos[i].reset();
+        }
+        comparisons.reset();
+        hits.reset();
+        splits.reset();
+        merges.reset();
+    }
+
+    private static void emitStatistics() {
+        List<TreeMetrics> live;
+        synchronized (LIVE) {
+            live = new ArrayList<>(LIVE);
+        }
+        for (TreeMetrics metrics : live) {
+            TreeStatisticsEvent event = new TreeStatisticsEvent();
+            event.tree = metrics.name;
+            event.inserts = metrics.getCount(Operation.INSERT);
+            event.removes = metrics.getCount(Operation.REMOVE);
+            event.searches = metrics.getCount(Operation.SEARCH);
+            event.comparisonsPerLookup = metrics.getComparisonsPerLookup();
+            event.splitsPerInsert = metrics.getSplitsPerInsert();
+            event.merges = metrics.getMerges();
+            Shape shape = metrics.shape;
+            if (shape != null) {
+                event.height = shape.getHeight();
+                event.nodeCount = shape.getNodeCount();
+                event.averageFill = shape.getAverageFill();
+            }
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package dev.pluginz;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * TreeOperationEvent is the Flight Recorder event for a single operation on a tree with {@link TreeMetrics}.
+ * It is disabled by default; enable {@code dev.pluginz.TreeOperation} in the recording settings to capture it.
+ */
+@Name("dev.pluginz.TreeOperation")
+@Label("Tree Operation")
+@Category("BetterTree")
+@Description("An insert, remove or lookup on a tree")
+@Enabled(false)
+@StackTrace(false)
+final class TreeOperationEvent extends jdk.jfr.Event {
+
+    @Label("Tree")
+    String tree;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    @Label("Comparisons")
+    int comparisons;
+
+    @Label("Success")
+    @Description("Whether a lookup found or a removal removed its key")
+    boolean success;
+}
@@ -0,0 +1,33 @@
+package dev.pluginz;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * TreeShapeEvent is the Flight Recorder event emitted whenever a tree with {@link TreeMetrics} measures its shape.
+ */
+@Name("dev.pluginz.TreeShape")
+@Label("Tree Shape")
+@Category("BetterTree")
+@Description("Height, size and fill of a tree")
+@StackTrace(false)
+final class TreeShapeEvent extends jdk.jfr.Event {
+
+    @Label("Tree")
+    String tree;
+
+    @Label("Height")
+    int height;
+
+    @Label("Node Count")
+    long nodeCount;
+
+    @Label("Key Count")
+    long keyCount;
+
+    @Label("Average Fill")
+    double averageFill;
+}
@@ -0,0 +1,51 @@
+package dev.pluginz;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * TreeStatisticsEvent is the periodic Flight Recorder event with the counters of every live {@link TreeMetrics}.
+ * The shape fields hold the last shape a tree recorded, or zero if it never measured one.
+ */
+@Name("dev.pluginz.TreeStatistics")
+@Label("Tree Statistics")
+@Category("BetterTree")
+@Description("Operation counters and the last measured shape of a tree")
+@Period("10 s")
+@StackTrace(false)
+final class TreeStatisticsEvent extends jdk.jfr.Event {
+
+    @Label("Tree")
+    String tree;
+
+    @Label("Inserts")
+    long inserts;
+
+    @Label("Removes")
+    long removes;
+
+    @Label("Searches")
+    long searches;
+
+    @Label("Comparisons per Lookup")
+    double comparisonsPerLookup;
+
+    @Label("Splits per Insert")
+    double splitsPerInsert;
+
+    @Label("Merges")
+    long merges;
+
+    @Label("Height")
+    int height;
+
+    @Label("Node Count")
+    long nodeCount;
+
+    @Label("Average Fill")
+    double averageFill;
+}
@@ -0,0 +1,104 @@
+package dev.pluginz;
+
+import dev.pluginz.interfaces.EvictionPolicy;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * TwoQueuePolicy implements the full 2Q algorithm of Johnson and Shasha.
+ * A page loaded for the first time enters the FIFO queue A1in, where repeated accesses do not promote it.
+ * When it is evicted from A1in only its id is remembered in A1out. A page that is loaded again while its id
+ * is still in A1out has proven to be hot and enters Am, which is managed as LRU. One-off accesses, such as
+ * a range scan over cold leaves, therefore never push the hot upper levels of a tree out of Am.
+ * <p>
+ * A1out is a ring of the ids of the last evictions from A1in plus a {@link PageTable} from id to ring slot,
+ * so that, like the buffer pool itself, the policy never allocates after construction. An id that is loaded
+ * again leaves a hole in the ring, which the next eviction that reaches the slot overwrites.
+ */
+public class TwoQueuePolicy implements EvictionPolicy {
+    private final FrameList in;
+    private final FrameList main;
+    private final long[] out;
+    private final PageTable outSlots;
+    private int outNext;
+    private final int inCapacity;
+
+    /**
+     * TwoQueuePolicy constructor using the recommended sizes: A1in holds a quarter of the frames,
+     * A1out remembers as many ids as half of the frames.
+     * @param capacity the number of frames of the pool.
+     */
+    public TwoQueuePolicy(int capacity) {
+        this(capacity, Math.max(1, capacity / 4), Math.max(1, capacity / 2));
+    }
+
+    /**
+     * TwoQueuePolicy constructor.
+     * @param capacity the number of frames of the pool.
+     * @param inCapacity the number of frames A1in may hold before it has to give up frames.
+     * @param outCapacity the number of page ids A1out remembers.
+     * @throws IllegalArgumentException if inCapacity or outCapacity is smaller than 1.
+     */
+    public TwoQueuePolicy(int capacity, int inCapacity, int outCapacity) {
+        if (inCapacity < 1 || outCapacity < 1) {
+            throw new IllegalArgumentException("Queue sizes must be at least 1, got " + inCapacity + " and " + outCapacity);
+        }
+        this.in = new FrameList(capacity);
+        this.main = new FrameList(capacity);
+        this.out = new long[outCapacity];
+        this.outSlots = new PageTable(outCapacity);
+        this.inCapacity = inCapacity;
+        Arrays.fill(out, -1);
+    }
+
+    @Override
+    public void loaded(int frame, long pageId) {
+        int slot = outSlots.get(pageId);
+        if (slot >= 0) {
+            outSlots.remove(pageId);
+            out[slot] = -1;
+            main.addFirst(frame);
+        } else {
+            in.addFirst(frame);
+        }
+    }
+
+    @Override
+    public void accessed(int frame) {
+        if (main.contains(frame)) {
+            main.moveToFirst(frame);
+        }
+    }
+
+    @Override
+    public int victim(IntPredicate evictable) {
+        int frame = -1;
+        if (in.size() > inCapacity || main.size() == 0) {
+            frame = in.lastMatching(evictable);
+        }
+        if (frame < 0) {
+            frame = main.lastMatching(evictable);
+        }
+        if (frame < 0) {
+            frame = in.lastMatching(evictable);
+        }
+        return frame;
+    }
+
+    @Override
+    public void evicted(int frame, long pageId) {
+        if (in.contains(frame)) {
+            in.remove(frame);
+            // The ring slot after the newest id holds the oldest one, which is forgotten.
+            if (out[outNext] >= 0) {
+                outSlots.remove(out[outNext]);
+            }
+            out[outNext] = pageId;
+            outSlots.put(pageId, outNext);
+            outNext = (outNext + 1) % out.length;
+        } else {
+            main.remove(frame);
+        }
+    }
+}
@@ -21,6 +21,9 @@
  * binaeren Suchbaums. Alle Objekte im rechten Teilbaum sind groesser als das
  * Inhaltsobjekt des binaeren Suchbaums. Diese Bedingung gilt (rekursiv) auch in
  * beiden Teilbaeumen. <br />
+ * Intern besteht der Baum nur aus Knoten mit direkten Verweisen auf ihre
+ * Nachfolger; leere Teilbaeume belegen keinen Speicher. Die Teilbaeume werden
+ * erst bei Aufruf von getLeftTree bzw. getRightTree als Sicht erzeugt. <br />
  * Hinweis: In dieser Version wird die Klasse BinaryTree nicht benutzt.
  * </p>
  *
@@ -36,34 +39,52 @@ public class BinarySearchTree<ContentType extends ComparableContent<ContentType>
     /* --------- Anfang der privaten inneren Klasse -------------- */
 
     /**
-     * Durch diese innere Klasse kann man dafuer sorgen, dass ein leerer Baum
-     * null ist, ein nicht-leerer Baum jedoch immer eine nicht-null-Wurzel sowie
-     * nicht-null-Teilbaeume hat.
+     * Ein Knoten speichert sein Inhaltsobjekt und direkte Verweise auf die
+     * Wurzelknoten seiner Teilbaeume. Ein leerer Teilbaum ist null, so dass
+     * jedes Element genau ein Objekt belegt und die Suche ohne Umweg ueber
+     * Teilbaum-Objekte von Knoten zu Knoten laeuft.
      */
-    private class BSTNode<CT extends ComparableContent<CT>> {
+    private static class BSTNode<CT extends ComparableContent<CT>> {
 
         private CT content;
-        private BinarySearchTree<CT> left, right;
+        private BSTNode<CT> left, right;
 
         public BSTNode(CT pContent) {
-            // Der Knoten hat einen linken und rechten Teilbaum, die
-            // beide von null verschieden sind. Also hat ein Blatt immer zwei
-            // leere Teilbaeume unter sich.
             this.content = pContent;
-            left = new BinarySearchTree<CT>();
-            right = new BinarySearchTree<CT>();
         }
     }
 
     /* ----------- Ende der privaten inneren Klasse -------------- */
 
-    private BSTNode<ContentType> node;
+    /**
+     * Die Wurzel, falls dieses Objekt ein eigenstaendiger Suchbaum ist.
+     */
+    private BSTNode<ContentType> root;
+
+    /**
+     * Der Elternknoten und die Seite, falls dieses Objekt eine Sicht auf einen
+     * Teilbaum ist. Die Sicht liest ihre Wurzel bei jedem Zugriff aus dem
+     * Elternknoten, so dass Aenderungen ueber die Sicht im Gesamtbaum landen
+     * und umgekehrt.
+     */
+    private final BSTNode<ContentType> parent;
+    private final boolean leftSide;
 
     /**
      * Der Konstruktor erzeugt einen leeren Suchbaum.
      */
     public BinarySearchTree() {
-        this.node = null;
+        this.root = null;
+        this.parent = null;
+        this.leftSide = false;
+    }
+
+    /**
+     * Der Konstruktor erzeugt eine Sicht auf einen Teilbaum des Knotens pParent.
+     */
+    private BinarySearchTree(BSTNode<ContentType> pParent, boolean pLeftSide) {
+        this.parent = pParent;
+        this.leftSide = pLeftSide;
     }
 
     /**
@@ -74,7 +95,7 @@ public class BinarySearchTree<ContentType extends ComparableContent<ContentType>
      *
      */
     public boolean isEmpty() {
-        return this.node == null;
+        return this.node() == null;
     }
 
     /**
@@ -93,29 +114,51 @@ public class BinarySearchTree<ContentType extends ComparableContent<ContentType>
      */
     public void insert(ContentType pContent) {
         if (pContent != null) {
-            if (isEmpty()) {
-                this.node = new BSTNode<ContentType>(pContent);
-            } else if (pContent.isLess(this.node.content)) {
-                this.node.left.insert(pContent);
-            } else if(pContent.isGreater(this.node.content)) {
-                this.node.right.insert(pContent);
+            BSTNode<ContentType> current = node();
+            if (current == null) {
+                setNode(new BSTNode<ContentType>(pContent));
+                return;
+            }
+            // Der Baum wird ohne Rekursion bis zu dem leeren Teilbaum durchlaufen,
+            // in den das Objekt gehoert, damit auch entartete Baeume den Stack nicht sprengen.
+            while (true) {
+                // Ein einziger Vergleich entscheidet ueber die Richtung.
+                int cmp = pContent.compare(current.content);
+                if (cmp < 0) {
+                    if (current.left == null) {
+                        current.left = new BSTNode<ContentType>(pContent);
+                        return;
+                    }
+                    current = current.left;
+                } else if (cmp > 0) {
+                    if (current.right == null) {
+                        current.right = new BSTNode<ContentType>(pContent);
+                        return;
+                    }
+                    current = current.right;
+                } else {
+                    return;
+                }
             }
         }
     }
 
     /**
      * Diese Anfrage liefert den linken Teilbaum des binaeren Suchbaumes. <br />
-     * Wenn er leer ist, wird null zurueckgegeben.
+     * Wenn er leer ist, wird null zurueckgegeben. <br />
+     * Der Teilbaum ist eine bei jedem Aufruf neu erzeugte Sicht auf den
+     * linken Nachfolger; Aenderungen ueber die Sicht veraendern diesen Baum.
      *
      * @return den linken Teilbaum (Objekt vom Typ BinarySearchTree<ContentType>)
      *         bzw. null, wenn der Suchbaum leer ist
      *
      */
     public BinarySearchTree<ContentType> getLeftTree() {
-        if (this.isEmpty()) {
+        BSTNode<ContentType> current = node();
+        if (current == null) {
             return null;
         } else {
-            return this.node.left;
+            return new BinarySearchTree<ContentType>(current, true);
         }
     }
 
@@ -128,26 +171,30 @@ public class BinarySearchTree<ContentType extends ComparableContent<ContentType>
      *
      */
     public ContentType getContent() {
-        if (this.isEmpty()) {
+        BSTNode<ContentType> current = node();
+        if (current == null) {
             return null;
         } else {
-            return this.node.content;
+            return current.content;
         }
     }
 
     /**
      * Diese Anfrage liefert den rechten Teilbaum des binaeren Suchbaumes. <br />
-     * Wenn er leer ist, wird null zurueckgegeben.
+     * Wenn er leer ist, wird null zurueckgegeben. <br />
+     * Der Teilbaum ist eine bei jedem Aufruf neu erzeugte Sicht auf den
+     * rechten Nachfolger; Aenderungen ueber die Sicht veraendern diesen Baum.
      *
      * @return den rechten Teilbaum (Objekt vom Typ BinarySearchTree<ContentType>)
      *         bzw. null, wenn der aktuelle Suchbaum leer ist
      *
      */
     public BinarySearchTree<ContentType> getRightTree() {
-        if (this.isEmpty()) {
+        BSTNode<ContentType> current = node();
+        if (current == null) {
             return null;
         } else {
-            return this.node.right;
+            return new BinarySearchTree<ContentType>(current, false);
         }
     }
 
@@ -162,45 +209,43 @@ public class BinarySearchTree<ContentType extends ComparableContent<ContentType>
      *
      */
     public void remove(ContentType pContent) {
-        if (isEmpty() || pContent == null ) {
+        tryRemove(pContent);
+    }
+
+    /**
+     * Entfernt das mit pContent uebereinstimmende Objekt wie remove und
+     * liefert zusaetzlich, ob ein Objekt gefunden wurde. So muessen
+     * Unterklassen nicht vorher eigens danach suchen.
+     *
+     * @param pContent
+     *            zu entfernendes Objekt vom Typ ContentType
+     * @return true, wenn ein Objekt entfernt wurde, sonst false
+     *
+     */
+    protected boolean tryRemove(ContentType pContent) {
+        if (pContent == null) {
             // Abbrechen, da kein Element zum entfernen vorhanden ist.
-            return;
+            return false;
         }
 
-        if (pContent.isLess(node.content)) {
-            // Element ist im linken Teilbaum zu loeschen.
-            node.left.remove(pContent);
-        } else if (pContent.isGreater(node.content)) {
-            // Element ist im rechten Teilbaum zu loeschen.
-            node.right.remove(pContent);
-        } else {
-            // Element ist gefunden.
-            if (node.left.isEmpty()) {
-                if (node.right.isEmpty()) {
-                    // Es gibt keinen Nachfolger.
-                    node = null;
-                } else {
-                    // Es gibt nur rechts einen Nachfolger.
-                    node = getNodeOfRightSuccessor();
-                }
-            } else if (node.right.isEmpty()) {
-                // Es gibt nur links einen Nachfolger.
-                node = getNodeOfLeftSuccessor();
-            } else {
-                // Es gibt links und rechts einen Nachfolger.
-                if (getNodeOfRightSuccessor().left.isEmpty()) {
-                    // Der rechte Nachfolger hat keinen linken Nachfolger.
-                    node.content = getNodeOfRightSuccessor().content;
-                    node.right = getNodeOfRightSuccessor().right;
-                } else {
-                    BinarySearchTree<ContentType> previous = node.right
-                            .ancestorOfSmallRight();
-                    BinarySearchTree<ContentType> smallest = previous.node.left;
-                    this.node.content = smallest.node.content;
-                    previous.remove(smallest.node.content);
-                }
+        // Den Knoten suchen, dessen Inhaltsobjekt zu entfernen ist, und sich
+        // merken, an welchem Verweis er haengt.
+        BSTNode<ContentType> above = null;
+        boolean fromLeft = false;
+        BSTNode<ContentType> current = node();
+        while (current != null) {
+            int cmp = pContent.compare(current.content);
+            if (cmp == 0) {
+                // Element ist gefunden.
+                replace(above, fromLeft, removeContent(current));
+                return true;
             }
+            above = current;
+            // Element ist im linken bzw. rechten Teilbaum zu loeschen.
+            fromLeft = cmp < 0;
+            current = fromLeft ? current.left : current.right;
         }
+        return false;
     }
 
     /**
@@ -215,48 +260,140 @@ public class BinarySearchTree<ContentType extends ComparableContent<ContentType>
      *
      */
     public ContentType search(ContentType pContent) {
-        if (this.isEmpty() || pContent == null) {
+        if (pContent == null) {
             // Abbrechen, da es kein Element zu suchen gibt.
             return null;
-        } else {
-            ContentType content = this.getContent();
-            if (pContent.isLess(content)) {
+        }
+        BSTNode<ContentType> current = node();
+        while (current != null) {
+            ContentType content = current.content;
+            int cmp = pContent.compare(content);
+            if (cmp < 0) {
                 // Element wird im linken Teilbaum gesucht.
-                return this.getLeftTree().search(pContent);
-            } else if (pContent.isGreater(content)) {
+                current = current.left;
+            } else if (cmp > 0) {
                 // Element wird im rechten Teilbaum gesucht.
-                return this.getRightTree().search(pContent);
-            } else if (pContent.isEqual(content)) {
+                current = current.right;
+            } else {
                 // Element wurde gefunden.
                 return content;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Die Anfrage sucht wie search und zaehlt dabei die Vergleiche, ohne
+     * Teilbaum-Sichten zu erzeugen. Die Anzahl der Vergleiche wird in
+     * pComparisons[0] abgelegt, damit Unterklassen dasselbe Feld bei jeder
+     * Suche wiederverwenden koennen.
+     *
+     * @param pContent
+     *            zu suchendes Objekt vom Typ ContentType
+     * @param pComparisons
+     *            Feld, in dessen erstem Eintrag die Anzahl der Vergleiche
+     *            abgelegt wird
+     * @return das gefundene Objekt vom Typ ContentType, bei erfolgloser Suche null
+     *
+     */
+    protected ContentType search(ContentType pContent, int[] pComparisons) {
+        int comparisons = 0;
+        ContentType found = null;
+        BSTNode<ContentType> current = pContent == null ? null : node();
+        while (current != null) {
+            int cmp = pContent.compare(current.content);
+            comparisons++;
+            if (cmp < 0) {
+                current = current.left;
+            } else if (cmp > 0) {
+                current = current.right;
             } else {
-                // Dieser Fall sollte nicht auftreten.
-                return null;
+                found = current.content;
+                break;
             }
         }
+        pComparisons[0] = comparisons;
+        return found;
     }
 
     /* ----------- Weitere private Methoden -------------- */
 
     /**
-     * Die Methode liefert denjenigen Baum, dessen linker Nachfolger keinen linken
-     * Nachfolger mehr hat. Es ist also spaeter moeglich, in einem Baum im
-     * rechten Nachfolger den Vorgaenger des linkesten Nachfolgers zu finden.
-     *
+     * Liefert den Wurzelknoten dieses Baums bzw. dieser Sicht, null fuer einen leeren Baum.
+     */
+    private BSTNode<ContentType> node() {
+        if (parent == null) {
+            return root;
+        }
+        return leftSide ? parent.left : parent.right;
+    }
+
+    /**
+     * Ersetzt den Wurzelknoten dieses Baums bzw. dieser Sicht.
+     */
+    private void setNode(BSTNode<ContentType> pNode) {
+        if (parent == null) {
+            root = pNode;
+        } else if (leftSide) {
+            parent.left = pNode;
+        } else {
+            parent.right = pNode;
+        }
+    }
+
+    /**
+     * Haengt pNode an den Verweis, an dem bisher der entfernte Knoten hing:
+     * an den Knoten pAbove oder, falls dieser null ist, an die Wurzel.
      */
-    private BinarySearchTree<ContentType> ancestorOfSmallRight() {
-        if (getNodeOfLeftSuccessor().left.isEmpty()) {
-            return this;
+    private void replace(BSTNode<ContentType> pAbove, boolean pLeft, BSTNode<ContentType> pNode) {
+        if (pAbove == null) {
+            setNode(pNode);
+        } else if (pLeft) {
+            pAbove.left = pNode;
         } else {
-            return node.left.ancestorOfSmallRight();
+            pAbove.right = pNode;
         }
     }
 
-    private BSTNode<ContentType> getNodeOfLeftSuccessor() {
-        return node.left.node;
+    /**
+     * Entfernt das Inhaltsobjekt des Knotens pNode und liefert den Knoten, der
+     * an dessen Stelle treten muss.
+     */
+    private static <CT extends ComparableContent<CT>> BSTNode<CT> removeContent(BSTNode<CT> pNode) {
+        if (pNode.left == null) {
+            // Es gibt hoechstens rechts einen Nachfolger.
+            return pNode.right;
+        } else if (pNode.right == null) {
+            // Es gibt nur links einen Nachfolger.
+            return pNode.left;
+        }
+        // Es gibt links und rechts einen Nachfolger.
+        if (pNode.right.left == null) {
+            // Der rechte Nachfolger hat keinen linken Nachfolger.
+            pNode.content = pNode.right.content;
+            pNode.right = pNode.right.right;
+        } else {
+            BSTNode<CT> previous = ancestorOfSmallRight(pNode.right);
+            BSTNode<CT> smallest = previous.left;
+            pNode.content = smallest.content;
+            // Das kleinste Element hat keinen linken Nachfolger und wird
+            // durch seinen rechten Teilbaum ersetzt.
+            previous.left = smallest.right;
+        }
+        return pNode;
     }
 
-    private BSTNode<ContentType> getNodeOfRightSuccessor() {
-        return node.right.node;
+    /**
+     * Die Methode liefert denjenigen Knoten, dessen linker Nachfolger keinen linken
+     * Nachfolger mehr hat. Es ist also spaeter moeglich, in einem Baum im
+     * rechten Nachfolger den Vorgaenger des linkesten Nachfolgers zu finden.
+     *
+     */
+    private static <CT extends ComparableContent<CT>> BSTNode<CT> ancestorOfSmallRight(BSTNode<CT> pNode) {
+        BSTNode<CT> current = pNode;
+        while (current.left.left != null) {
+            current = current.left;
+        }
+        return current;
     }
-}
\ No newline at end of file
+}
@@ -4,6 +4,8 @@ package dev.pluginz.interfaces;
  * The ComparableContent interface defines a contract for comparing objects of a generic type ContentType.
  * It provides three default methods: isLess, isEqual, and isGreater.
  * These methods should be overridden by the implementing class to provide the correct comparison logic.
+ * Additionally, compare combines the three checks into a single three-way comparison. Implementations
+ * that can compare cheaply should override it, since the trees call it on their hot paths.
  *
  * @param <ContentType> the type of objects that this object may be compared to
  */
@@ -41,4 +43,21 @@ public interface ComparableContent <ContentType>{
     public default boolean isGreater(ContentType pContent){
         return false;
     }
-}
\ No newline at end of file
+
+    /**
+     * Compares this object with the specified object in a single call.
+     * The default implementation derives the result from isLess and isGreater, so existing
+     * implementations keep working unchanged. Implementing classes should override it with a
+     * direct comparison to save the second call.
+     *
+     * @param pContent the object to be compared with
+     * @return a negative value if this object is less than, zero if it is equal to, or a positive value
+     *         if it is greater than the specified object
+     */
+    public default int compare(ContentType pContent){
+        if (isLess(pContent)) {
+            return -1;
+        }
+        return isGreater(pContent) ? 1 : 0;
+    }
+}
@@ -0,0 +1,42 @@
+package dev.pluginz.interfaces;
+
+import java.util.function.IntPredicate;
+
+/**
+ * The EvictionPolicy interface decides which frame of a buffer pool gives up its page when a new page has to be loaded.
+ * Frames are numbered from 0 to the capacity of the pool minus 1. The pool reports every load, access and eviction,
+ * and asks for a victim whenever all frames are in use.
+ */
+public interface EvictionPolicy {
+
+    /**
+     * Records that a page was loaded into a free frame.
+     *
+     * @param frame the frame now holding the page
+     * @param pageId the id of the loaded page
+     */
+    public void loaded(int frame, long pageId);
+
+    /**
+     * Records that the page held by a frame was accessed again.
+     *
+     * @param frame the frame holding the page
+     */
+    public void accessed(int frame);
+
+    /**
+     * Chooses the frame whose page should be evicted.
+     *
+     * @param evictable tells whether a frame may be evicted, which is false while its page is pinned
+     * @return the chosen frame, or -1 if no frame may be evicted
+     */
+    public int victim(IntPredicate evictable);
+
+    /**
+     * Records that the page held by a frame was evicted, which makes the frame free.
+     *
+     * @param frame the frame that held the page
+     * @param pageId the id of the evicted page
+     */
+    public void evicted(int frame, long pageId);
+}
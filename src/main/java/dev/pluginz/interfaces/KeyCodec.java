@@ -0,0 +1,53 @@
+package dev.pluginz.interfaces;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * The KeyCodec interface defines how keys of type ContentType are stored in native memory.
+ * Every key occupies exactly {@link #width()} bytes, which lets the off-heap trees lay out
+ * the keys of a node as a plain array of fixed-width slots.
+ *
+ * @param <ContentType> the type of keys that this codec encodes
+ */
+public interface KeyCodec<ContentType extends ComparableContent<ContentType>> {
+
+    /**
+     * Returns the number of bytes a single encoded key occupies.
+     *
+     * @return the width of an encoded key in bytes, at least 1
+     */
+    public int width();
+
+    /**
+     * Writes a key into a segment.
+     *
+     * @param segment the segment to be written to
+     * @param offset the byte offset of the key slot within the segment
+     * @param key the key to be written
+     */
+    public void write(MemorySegment segment, long offset, ContentType key);
+
+    /**
+     * Reads a key from a segment.
+     *
+     * @param segment the segment to be read from
+     * @param offset the byte offset of the key slot within the segment
+     * @return the decoded key
+     */
+    public ContentType read(MemorySegment segment, long offset);
+
+    /**
+     * Compares a key with an encoded key in a single call.
+     * The default implementation decodes the stored key and uses {@link ComparableContent#compare}.
+     * Codecs whose encoding can be compared directly should override it to avoid creating a key object.
+     *
+     * @param key the key to be compared
+     * @param segment the segment holding the encoded key
+     * @param offset the byte offset of the encoded key within the segment
+     * @return a negative value if key is less than, zero if it is equal to, or a positive value
+     *         if it is greater than the encoded key
+     */
+    public default int compare(ContentType key, MemorySegment segment, long offset){
+        return key.compare(read(segment, offset));
+    }
+}
@@ -0,0 +1,21 @@
+package dev.pluginz.interfaces;
+
+/**
+ * The KeyHasher interface adds the hash contract that {@link ComparableContent} lacks.
+ * It is needed by structures that test membership without comparing keys, such as Bloom filters.
+ * Keys that are equal according to {@link ComparableContent#compare} must have equal hashes.
+ * The hash does not need to be well distributed; users of the hasher mix its bits themselves.
+ *
+ * @param <ContentType> the type of keys that this hasher hashes
+ */
+@FunctionalInterface
+public interface KeyHasher<ContentType> {
+
+    /**
+     * Returns a 64-bit hash of a key.
+     *
+     * @param key the key to be hashed
+     * @return the hash of the key
+     */
+    public long hash(ContentType key);
+}
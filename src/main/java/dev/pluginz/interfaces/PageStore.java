@@ -0,0 +1,44 @@
+package dev.pluginz.interfaces;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * The PageStore interface defines a storage of fixed-size pages that keeps every page in memory.
+ * Such a store can hand out pages directly through {@link #page(long)}; pinning a page is the same as
+ * looking it up, and unpinning does nothing.
+ * Bounded stores such as buffer pools only implement {@link PinnedPageStore}.
+ */
+public interface PageStore extends PinnedPageStore {
+
+    /**
+     * Returns the memory of a page.
+     * The segment is only valid until the store is closed.
+     *
+     * @param id the id of the page, between 0 and pageCount() - 1
+     * @return a segment of exactly pageSize() bytes
+     * @throws IndexOutOfBoundsException if the page has not been allocated
+     */
+    public MemorySegment page(long id);
+
+    /**
+     * Returns {@link #page(long)}, since every page is in memory anyway.
+     *
+     * @param id the id of the page, between 0 and pageCount() - 1
+     * @return a segment of exactly pageSize() bytes
+     * @throws IndexOutOfBoundsException if the page has not been allocated
+     */
+    @Override
+    public default MemorySegment pin(long id){
+        return page(id);
+    }
+
+    /**
+     * Does nothing, since no page is ever evicted.
+     *
+     * @param id the id of the page
+     * @param dirty whether the page was modified while pinned
+     */
+    @Override
+    public default void unpin(long id, boolean dirty){
+    }
+}
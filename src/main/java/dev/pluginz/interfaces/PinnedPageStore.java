@@ -0,0 +1,66 @@
+package dev.pluginz.interfaces;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * The PinnedPageStore interface defines a storage of fixed-size pages that are only accessed while pinned.
+ * Pages are numbered from 0 in the order they are allocated and are never freed individually;
+ * closing the store releases all of them at once.
+ * <p>
+ * A pinned page stays in memory until it is unpinned as often as it was pinned, so bounded stores such as
+ * buffer pools can move other pages in and out in the meantime. Code that pins a page has to unpin it again.
+ */
+public interface PinnedPageStore extends AutoCloseable {
+
+    /**
+     * Returns the size of every page in bytes.
+     *
+     * @return the page size
+     */
+    public int pageSize();
+
+    /**
+     * Returns the number of pages allocated so far.
+     *
+     * @return the number of pages
+     */
+    public long pageCount();
+
+    /**
+     * Allocates a new page filled with zeros.
+     *
+     * @return the id of the new page
+     */
+    public long allocate();
+
+    /**
+     * Pins a page in memory and returns it.
+     * The segment stays valid until the page is unpinned as often as it was pinned.
+     *
+     * @param id the id of the page, between 0 and pageCount() - 1
+     * @return a segment of exactly pageSize() bytes
+     * @throws IndexOutOfBoundsException if the page has not been allocated
+     */
+    public MemorySegment pin(long id);
+
+    /**
+     * Releases a page pinned with {@link #pin(long)}.
+     *
+     * @param id the id of the page
+     * @param dirty whether the page was modified while pinned
+     */
+    public void unpin(long id, boolean dirty);
+
+    /**
+     * Writes all changed pages to durable storage.
+     * The default implementation does nothing, which suits stores that only live in memory.
+     */
+    public default void flush(){
+    }
+
+    /**
+     * Releases all pages of the store.
+     */
+    @Override
+    public void close();
+}
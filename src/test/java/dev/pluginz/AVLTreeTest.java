@@ -0,0 +1,123 @@
+package dev.pluginz;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AVLTreeTest {
+
+    private AVLTree<ComparableContentImpl> avl;
+
+    @BeforeEach
+    public void setup() {
+        avl = new AVLTree<>();
+    }
+
+    @Test
+    public void insertAndSearchForValue() {
+        ComparableContentImpl value = new ComparableContentImpl(10);
+        avl.insert(value);
+        assertSame(value, avl.search(value));
+        assertNull(avl.search(new ComparableContentImpl(11)));
+        assertNull(avl.search(null));
+    }
+
+    @Test
+    public void ignoresDuplicatesAndNull() {
+        ComparableContentImpl value = new ComparableContentImpl(10);
+        avl.insert(value);
+        avl.insert(new ComparableContentImpl(10));
+        avl.insert(null);
+        assertSame(value, avl.getContent());
+        assertTrue(avl.getLeftTree().isEmpty());
+        assertTrue(avl.getRightTree().isEmpty());
+        assertEquals(0, avl.getHeight());
+    }
+
+    @Test
+    public void emptyTreeHasNoSubtrees() {
+        assertTrue(avl.isEmpty());
+        assertNull(avl.getContent());
+        assertNull(avl.getLeftTree());
+        assertNull(avl.getRightTree());
+        assertEquals(-1, avl.getHeight());
+        avl.remove(new ComparableContentImpl(1));
+        assertTrue(avl.isEmpty());
+    }
+
+    @Test
+    public void sortedInputKeepsLogarithmicHeight() {
+        int size = 100_000;
+        for (int i = 0; i < size; i++) {
+            avl.insert(new ComparableContentImpl(i));
+        }
+        assertTrue(avl.getHeight() <= 1.44 * Math.log(size + 2) / Math.log(2), "height " + avl.getHeight());
+        for (int i = size - 1; i >= 0; i -= 3) {
+            assertNotNull(avl.search(new ComparableContentImpl(i)));
+        }
+        for (int i = 0; i < size / 2; i++) {
+            avl.remove(new ComparableContentImpl(i));
+        }
+        assertTrue(avl.getHeight() <= 1.44 * Math.log(size / 2 + 2) / Math.log(2), "height " + avl.getHeight());
+        assertValid(avl);
+    }
+
+    @Test
+    public void staysBalancedUnderRandomInsertsAndRemovals() {
+        Random random = new Random(3);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 300; i++) {
+                int value = random.nextInt(1000);
+                expected.add(value);
+                avl.insert(new ComparableContentImpl(value));
+            }
+            for (int i = 0; i < 200; i++) {
+                int value = random.nextInt(1000);
+                assertEquals(expected.contains(value), avl.search(new ComparableContentImpl(value)) != null);
+                expected.remove(value);
+                avl.remove(new ComparableContentImpl(value));
+                assertNull(avl.search(new ComparableContentImpl(value)));
+            }
+            assertValid(avl);
+            List<Integer> actual = new ArrayList<>();
+            traverse(avl, actual);
+            assertEquals(new ArrayList<>(expected), actual);
+        }
+    }
+
+    /**
+     * Checks the AVL invariants: key order, stored heights and a height difference of at most one.
+     * @return the height of the tree.
+     */
+    private static int assertValid(AVLTree<ComparableContentImpl> tree) {
+        if (tree.isEmpty()) {
+            return -1;
+        }
+        int left = assertValid(tree.getLeftTree());
+        int right = assertValid(tree.getRightTree());
+        assertTrue(Math.abs(left - right) <= 1, "unbalanced at " + tree.getContent());
+        assertEquals(1 + Math.max(left, right), tree.getHeight(), "wrong height at " + tree.getContent());
+        if (!tree.getLeftTree().isEmpty()) {
+            assertTrue(tree.getLeftTree().getContent().isLess(tree.getContent()), "left key not smaller");
+        }
+        if (!tree.getRightTree().isEmpty()) {
+            assertTrue(tree.getRightTree().getContent().isGreater(tree.getContent()), "right key not greater");
+        }
+        return tree.getHeight();
+    }
+
+    private static void traverse(AVLTree<ComparableContentImpl> tree, List<Integer> output) {
+        if (!tree.isEmpty()) {
+            traverse(tree.getLeftTree(), output);
+            output.add(Integer.parseInt(tree.getContent().toString()));
+            traverse(tree.getRightTree(), output);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package dev.pluginz;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BPlusTreeTest {
+
+    private BPlusTree<ComparableContentImpl> tree;
+
+    @BeforeEach
+    public void setup() {
+        tree = new BPlusTree<>(ComparableContentImpl.class);
+    }
+
+    @Test
+    public void insertAndSearchForValue() {
+        ComparableContentImpl value = new ComparableContentImpl(10);
+        tree.insert(value);
+        assertEquals(value, tree.search(value));
+        assertNull(tree.search(new ComparableContentImpl(11)));
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    public void searchInEmptyTree() {
+        assertNull(tree.search(new ComparableContentImpl(10)));
+        assertFalse(tree.iterator().hasNext());
+    }
+
+    @Test
+    public void rejectsInvalidMinDegree() {
+        assertThrows(IllegalArgumentException.class, () -> new BPlusTree<>(ComparableContentImpl.class, 1));
+    }
+
+    @Test
+    public void randomInsertsAreScannedInOrder() {
+        for (int minDegree : new int[]{2, 3, 16}) {
+            BPlusTree<ComparableContentImpl> tree = new BPlusTree<>(ComparableContentImpl.class, minDegree);
+            List<Integer> values = new ArrayList<>();
+            Random random = new Random(minDegree);
+            for (int i = 0; i < 3000; i++) {
+                values.add(random.nextInt(1000));
+            }
+            for (int value : values) {
+                tree.insert(new ComparableContentImpl(value));
+            }
+            Collections.sort(values);
+            assertEquals(values, toInts(tree.stream()));
+            assertEquals(values.size(), tree.size());
+            for (int value = -1; value <= 1000; value++) {
+                assertEquals(values.contains(value), tree.search(new ComparableContentImpl(value)) != null);
+            }
+        }
+    }
+
+    @Test
+    public void rangeScanRespectsBoundsAndDuplicates() {
+        tree = new BPlusTree<>(ComparableContentImpl.class, 2);
+        for (int i = 0; i < 200; i++) {
+            tree.insert(new ComparableContentImpl(i / 4));
+        }
+        ComparableContentImpl from = new ComparableContentImpl(10);
+        ComparableContentImpl to = new ComparableContentImpl(12);
+        assertEquals(List.of(10, 10, 10, 10, 11, 11, 11, 11, 12, 12, 12, 12), toInts(tree.stream(from, true, to, true)));
+        assertEquals(List.of(11, 11, 11, 11), toInts(tree.stream(from, false, to, false)));
+        assertEquals(List.of(49, 49, 49, 49), toInts(tree.stream(new ComparableContentImpl(48), false, null, false)));
+        assertEquals(List.of(0, 0, 0, 0), toInts(tree.stream(null, false, new ComparableContentImpl(1), false)));
+        assertEquals(List.of(), toInts(tree.stream(new ComparableContentImpl(50), true, null, false)));
+        assertEquals(List.of(), toInts(tree.stream(to, true, from, true)));
+    }
+
+    private static List<Integer> toInts(Stream<ComparableContentImpl> stream) {
+        return stream.map(key -> Integer.parseInt(key.toString())).toList();
+    }
+}
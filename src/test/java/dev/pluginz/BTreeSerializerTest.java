@@ -0,0 +1,141 @@
+package dev.pluginz;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BTreeSerializerTest {
+
+    private final BTreeSerializer<ComparableContentImpl> serializer =
+            new BTreeSerializer<>(ComparableContentImpl.class, OffHeapBTreeTest.CODEC);
+
+    @Test
+    public void roundTripsTreesOfEveryDegree() throws IOException {
+        for (int minDegree : new int[]{2, 3, 7, 64}) {
+            BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class, minDegree);
+            List<Integer> expected = new ArrayList<>();
+            Random random = new Random(minDegree);
+            for (int i = 0; i < 20000; i++) {
+                // Values repeat, so duplicates have to survive the round trip as well.
+                int value = random.nextInt(5000);
+                expected.add(value);
+                tree.insert(new ComparableContentImpl(value));
+            }
+            Collections.sort(expected);
+            BTree<ComparableContentImpl> loaded = serializer.read(new ByteArrayInputStream(save(tree)));
+            assertEquals(minDegree, loaded.getMinDegree());
+            assertEquals(expected, toInts(loaded));
+            assertEquals(height(tree), height(loaded));
+            BTreeTest.assertValid(loaded);
+            // The loaded tree is an ordinary tree that accepts further changes.
+            loaded.insert(new ComparableContentImpl(-1));
+            assertNotNull(loaded.remove(new ComparableContentImpl(expected.get(0))));
+            BTreeTest.assertValid(loaded);
+        }
+    }
+
+    @Test
+    public void roundTripsEmptyAndSingleKeyTrees() throws IOException {
+        BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class);
+        assertEquals(List.of(), toInts(serializer.read(new ByteArrayInputStream(save(tree)))));
+        tree.insert(new ComparableContentImpl(42));
+        assertEquals(List.of(42), toInts(serializer.read(new ByteArrayInputStream(save(tree)))));
+    }
+
+    @Test
+    public void roundTripsBulkLoadedTreeThroughChannels() throws IOException {
+        ComparableContentImpl[] keys = new ComparableContentImpl[100000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new ComparableContentImpl(i);
+        }
+        BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class, 16);
+        tree.bulkLoad(keys);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.write(tree, Channels.newChannel(out));
+        BTree<ComparableContentImpl> loaded = serializer.read(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())));
+        List<Integer> values = toInts(loaded);
+        assertEquals(keys.length, values.size());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, (int) values.get(i));
+        }
+        BTreeTest.assertValid(loaded);
+    }
+
+    @Test
+    public void rejectsCorruptedSnapshots() throws IOException {
+        BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class, 3);
+        for (int i = 0; i < 500; i++) {
+            tree.insert(new ComparableContentImpl(i));
+        }
+        byte[] snapshot = save(tree);
+        for (int position = 0; position < snapshot.length; position += 7) {
+            byte[] corrupt = snapshot.clone();
+            corrupt[position] ^= 0x10;
+            assertThrows(IOException.class, () -> serializer.read(new ByteArrayInputStream(corrupt)),
+                    "flipped bit at " + position);
+        }
+    }
+
+    @Test
+    public void rejectsOversizedMinimumDegreeBeforeAllocating() throws IOException {
+        byte[] snapshot = save(new BTree<>(ComparableContentImpl.class, 2));
+        // The minimum degree follows the magic number and the version.
+        for (int minDegree : new int[]{BTreeSerializer.MAX_MIN_DEGREE + 1, 1 << 30, Integer.MAX_VALUE}) {
+            byte[] corrupt = snapshot.clone();
+            ByteBuffer.wrap(corrupt).putInt(12, minDegree);
+            assertThrows(IOException.class, () -> serializer.read(new ByteArrayInputStream(corrupt)),
+                    "minimum degree " + minDegree);
+        }
+        BTree<ComparableContentImpl> tooWide = new BTree<>(ComparableContentImpl.class, BTreeSerializer.MAX_MIN_DEGREE + 1);
+        assertThrows(IllegalArgumentException.class, () -> save(tooWide));
+    }
+
+    @Test
+    public void rejectsTruncatedSnapshots() throws IOException {
+        BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class, 2);
+        for (int i = 0; i < 100; i++) {
+            tree.insert(new ComparableContentImpl(i));
+        }
+        byte[] snapshot = save(tree);
+        for (int length = 0; length < snapshot.length; length++) {
+            byte[] truncated = Arrays.copyOf(snapshot, length);
+            assertThrows(EOFException.class, () -> serializer.read(new ByteArrayInputStream(truncated)),
+                    "cut at " + length);
+        }
+    }
+
+    private byte[] save(BTree<ComparableContentImpl> tree) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.write(tree, out);
+        return out.toByteArray();
+    }
+
+    private static int height(BTree<ComparableContentImpl> tree) {
+        int height = 0;
+        for (BTree<ComparableContentImpl>.Node<ComparableContentImpl> node = tree.getRoot(); !node.isLeaf();
+             node = node.getChildren()[0]) {
+            height++;
+        }
+        return height;
+    }
+
+    private static List<Integer> toInts(BTree<ComparableContentImpl> tree) {
+        List<Integer> result = new ArrayList<>();
+        for (ComparableContentImpl key : tree) {
+            result.add(Integer.parseInt(key.toString()));
+        }
+        return result;
+    }
+}
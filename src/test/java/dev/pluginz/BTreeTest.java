@@ -1,12 +1,22 @@
 package dev.pluginz;
 
+import dev.pluginz.interfaces.ComparableContent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Spliterator;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -83,4 +93,573 @@ public class BTreeTest {
         assertTrue(IntStream.range(0, outputNumbers.length - 1)
                 .allMatch(i -> outputNumbers[i] <= outputNumbers[i + 1]));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void rejectsInvalidMinDegree() {
+        assertThrows(IllegalArgumentException.class, () -> new BTree<>(ComparableContentImpl.class, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BTree<>(ComparableContentImpl.class, 0));
+    }
+
+    @Test
+    public void insertAndSearchWithCustomMinDegree() {
+        for (int minDegree : new int[]{2, 3, 16, 64}) {
+            BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class, minDegree);
+            assertEquals(minDegree, tree.getMinDegree());
+            for (int i = 0; i < 2000; i++) {
+                tree.insert(new ComparableContentImpl((i * 7919) % 2000));
+            }
+            for (int i = 0; i < 2000; i++) {
+                assertNotNull(tree.search(new ComparableContentImpl(i)));
+            }
+            assertNull(tree.search(new ComparableContentImpl(2000)));
+            assertValid(tree);
+        }
+    }
+
+    @Test
+    public void defaultCompareFallsBackToIsLessAndIsGreater() {
+        ComparableContent<ComparableContentImpl> legacy = new ComparableContent<>() {
+            @Override
+            public boolean isLess(ComparableContentImpl pContent) {
+                return pContent.compare(new ComparableContentImpl(5)) > 0;
+            }
+
+            @Override
+            public boolean isGreater(ComparableContentImpl pContent) {
+                return pContent.compare(new ComparableContentImpl(5)) < 0;
+            }
+        };
+        assertTrue(legacy.compare(new ComparableContentImpl(7)) < 0);
+        assertEquals(0, legacy.compare(new ComparableContentImpl(5)));
+        assertTrue(legacy.compare(new ComparableContentImpl(3)) > 0);
+    }
+
+    @Test
+    public void notifiesOncePerInsert() {
+        List<BTree.TreeChangeEvent<ComparableContentImpl>> events = new ArrayList<>();
+        bTree.addListener(recordingListener(events));
+        for (int i = 0; i < 20; i++) {
+            bTree.insert(new ComparableContentImpl(i));
+        }
+        assertEquals(20, events.size());
+        int splits = 0;
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(1, events.get(i).getInsertedKeys().size());
+            assertEquals(0, events.get(i).getInsertedKeys().get(0).compare(new ComparableContentImpl(i)));
+            splits += events.get(i).getSplitCount();
+        }
+        assertTrue(splits > 0);
+        assertTrue(events.stream().anyMatch(BTree.TreeChangeEvent::isRootChanged));
+    }
+
+    @Test
+    public void suspendedNotificationsAreCoalesced() {
+        List<BTree.TreeChangeEvent<ComparableContentImpl>> events = new ArrayList<>();
+        bTree.addListener(recordingListener(events));
+        bTree.suspendNotifications();
+        bTree.suspendNotifications();
+        for (int i = 0; i < 50; i++) {
+            bTree.insert(new ComparableContentImpl(i));
+        }
+        bTree.resumeNotifications();
+        assertTrue(events.isEmpty());
+        bTree.resumeNotifications();
+        assertEquals(1, events.size());
+        assertEquals(50, events.get(0).getInsertedKeys().size());
+        assertTrue(events.get(0).isRootChanged());
+        assertThrows(IllegalStateException.class, () -> bTree.resumeNotifications());
+    }
+
+    @Test
+    public void bulkLoadBuildsValidPackedTree() {
+        for (int minDegree : new int[]{2, 3, 8}) {
+            for (double fillFactor : new double[]{0.1, 0.5, 0.75, 1.0}) {
+                for (int size : new int[]{0, 1, 2, 5, 6, 17, 100, 1234}) {
+                    BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class, minDegree);
+                    tree.bulkLoad(range(size), fillFactor);
+                    assertValid(tree);
+                    for (int i = 0; i < size; i++) {
+                        assertNotNull(tree.search(new ComparableContentImpl(i)));
+                    }
+                    assertNull(tree.search(new ComparableContentImpl(size)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void bulkLoadWithFullNodesIsFlatterThanInserts() {
+        BTree<ComparableContentImpl> inserted = new BTree<>(ComparableContentImpl.class, 2);
+        for (ComparableContentImpl key : range(10000)) {
+            inserted.insert(key);
+        }
+        BTree<ComparableContentImpl> loaded = new BTree<>(ComparableContentImpl.class, 2);
+        loaded.bulkLoad(range(10000));
+        assertTrue(height(loaded.getRoot()) < height(inserted.getRoot()));
+    }
+
+    @Test
+    public void bulkLoadFallsBackToInsertsForUnsortedInput() {
+        ComparableContentImpl[] keys = range(500);
+        ComparableContentImpl tmp = keys[100];
+        keys[100] = keys[400];
+        keys[400] = tmp;
+        bTree.bulkLoad(keys);
+        assertValid(bTree);
+        for (int i = 0; i < 500; i++) {
+            assertNotNull(bTree.search(new ComparableContentImpl(i)));
+        }
+
+        bTree.bulkLoad(Arrays.stream(range(10)), 1.0);
+        assertValid(bTree);
+    }
+
+    @Test
+    public void bulkLoadNotifiesOnce() {
+        List<BTree.TreeChangeEvent<ComparableContentImpl>> events = new ArrayList<>();
+        bTree.addListener(recordingListener(events));
+        bTree.bulkLoad(range(100));
+        assertEquals(1, events.size());
+        assertEquals(100, events.get(0).getInsertedKeys().size());
+    }
+
+    @Test
+    public void bulkLoadRejectsInvalidFillFactor() {
+        assertThrows(IllegalArgumentException.class, () -> bTree.bulkLoad(range(10), 0));
+        assertThrows(IllegalArgumentException.class, () -> bTree.bulkLoad(range(10), 1.5));
+    }
+
+    @Test
+    public void removeKeepsTreeValid() {
+        for (int minDegree : new int[]{2, 3, 5}) {
+            BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class, minDegree);
+            List<Integer> values = new ArrayList<>();
+            for (int i = 0; i < 600; i++) {
+                values.add(i % 400);
+            }
+            Collections.shuffle(values, new Random(minDegree));
+            for (int value : values) {
+                tree.insert(new ComparableContentImpl(value));
+            }
+            Collections.shuffle(values, new Random(minDegree + 1));
+            Map<Integer, Integer> remaining = new HashMap<>();
+            for (int value : values) {
+                remaining.merge(value, 1, Integer::sum);
+            }
+            for (int n = 0; n < values.size(); n++) {
+                int value = values.get(n);
+                ComparableContentImpl removed = tree.remove(new ComparableContentImpl(value));
+                assertNotNull(removed);
+                assertEquals(0, removed.compare(new ComparableContentImpl(value)));
+                remaining.merge(value, -1, Integer::sum);
+                assertEquals(remaining.get(value) > 0, tree.search(new ComparableContentImpl(value)) != null);
+                if (n % 25 == 0) {
+                    assertValid(tree);
+                }
+            }
+            assertTrue(tree.getRoot().isLeaf());
+            assertEquals(0, tree.getRoot().getNumKeys());
+        }
+    }
+
+    @Test
+    public void reusesNodesFreedByMerges() {
+        BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class, 2);
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            // Alternating growth and shrinkage makes splits pick up the nodes freed by earlier merges.
+            for (int i = 0; i < 300; i++) {
+                int value = random.nextInt(1000);
+                expected.add(value);
+                tree.insert(new ComparableContentImpl(value));
+            }
+            Collections.shuffle(expected, random);
+            for (int i = 0; i < 250; i++) {
+                int value = expected.remove(expected.size() - 1);
+                assertNotNull(tree.remove(new ComparableContentImpl(value)));
+            }
+            assertValid(tree);
+        }
+        Collections.sort(expected);
+        List<Integer> actual = new ArrayList<>();
+        for (ComparableContentImpl key : tree) {
+            actual.add(Integer.parseInt(key.toString()));
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void removeMissingKeyReturnsNull() {
+        assertNull(bTree.remove(new ComparableContentImpl(1)));
+        bTree.bulkLoad(range(100));
+        assertNull(bTree.remove(new ComparableContentImpl(100)));
+        assertValid(bTree);
+    }
+
+    @Test
+    public void removeShrinksHeightAndNotifies() {
+        bTree.bulkLoad(range(1000));
+        int initialHeight = height(bTree.getRoot());
+        List<BTree.TreeChangeEvent<ComparableContentImpl>> events = new ArrayList<>();
+        bTree.addListener(recordingListener(events));
+        bTree.suspendNotifications();
+        for (int i = 0; i < 990; i++) {
+            bTree.remove(new ComparableContentImpl(i));
+        }
+        bTree.resumeNotifications();
+        assertTrue(height(bTree.getRoot()) < initialHeight);
+        assertEquals(1, events.size());
+        assertEquals(990, events.get(0).getRemovedKeys().size());
+        assertTrue(events.get(0).getMergeCount() > 0);
+        assertTrue(events.get(0).isRootChanged());
+        assertValid(bTree);
+    }
+
+    @Test
+    public void iteratesInAscendingOrder() {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add(i % 300);
+        }
+        Collections.shuffle(values, new Random(1));
+        for (int value : values) {
+            bTree.insert(new ComparableContentImpl(value));
+        }
+        Collections.sort(values);
+        assertEquals(values, toInts(bTree.stream()));
+        List<Integer> iterated = new ArrayList<>();
+        for (ComparableContentImpl key : bTree) {
+            iterated.add(Integer.parseInt(key.toString()));
+        }
+        assertEquals(values, iterated);
+        assertFalse(new BTree<>(ComparableContentImpl.class).iterator().hasNext());
+    }
+
+    @Test
+    public void rangeScanRespectsBounds() {
+        for (int minDegree : new int[]{2, 4}) {
+            BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class, minDegree);
+            for (int i = 0; i < 200; i++) {
+                tree.insert(new ComparableContentImpl(i / 2));
+            }
+            ComparableContentImpl from = new ComparableContentImpl(10);
+            ComparableContentImpl to = new ComparableContentImpl(13);
+            assertEquals(List.of(10, 10, 11, 11, 12, 12, 13, 13), toInts(tree.stream(from, true, to, true)));
+            assertEquals(List.of(11, 11, 12, 12), toInts(tree.stream(from, false, to, false)));
+            assertEquals(List.of(0, 0, 1, 1), toInts(tree.stream(null, false, new ComparableContentImpl(2), false)));
+            assertEquals(List.of(99, 99), toInts(tree.stream(new ComparableContentImpl(98), false, null, false)));
+            assertEquals(List.of(), toInts(tree.stream(to, true, from, true)));
+            assertEquals(List.of(), toInts(tree.stream(new ComparableContentImpl(500), true, null, false)));
+            Iterator<ComparableContentImpl> iterator = tree.iterator(from, true, from, true);
+            assertEquals(2, toInts(Stream.generate(iterator::next).limit(2)).size());
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    public void spliteratorSplitsIntoDisjointOrderedParts() {
+        bTree = new BTree<>(ComparableContentImpl.class, 2);
+        bTree.bulkLoad(range(5000), 0.5);
+        for (ComparableContentImpl[] bounds : new ComparableContentImpl[][]{
+                {null, null}, {new ComparableContentImpl(123), new ComparableContentImpl(4321)}}) {
+            List<Spliterator<ComparableContentImpl>> parts = new ArrayList<>();
+            split(bTree.spliterator(bounds[0], true, bounds[1], false), parts, 6);
+            assertTrue(parts.size() > 8);
+            List<Integer> all = new ArrayList<>();
+            for (Spliterator<ComparableContentImpl> part : parts) {
+                part.forEachRemaining(key -> all.add(Integer.parseInt(key.toString())));
+            }
+            int start = bounds[0] == null ? 0 : 123;
+            int end = bounds[1] == null ? 5000 : 4321;
+            assertEquals(IntStream.range(start, end).boxed().toList(), all);
+        }
+        long sum = bTree.parallelStream().mapToLong(key -> Integer.parseInt(key.toString())).sum();
+        assertEquals(5000L * 4999 / 2, sum);
+    }
+
+    @Test
+    public void ranksAndSelectsUnderInsertsAndRemovals() {
+        for (int minDegree : new int[]{2, 3, 7}) {
+            BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class, minDegree);
+            List<Integer> expected = new ArrayList<>();
+            Random random = new Random(minDegree);
+            for (int round = 0; round < 10; round++) {
+                for (int i = 0; i < 200; i++) {
+                    int value = random.nextInt(300);
+                    expected.add(value);
+                    tree.insert(new ComparableContentImpl(value));
+                }
+                for (int i = 0; i < 120; i++) {
+                    int value = random.nextInt(300);
+                    boolean present = expected.remove((Integer) value);
+                    assertEquals(present, tree.remove(new ComparableContentImpl(value)) != null);
+                }
+                Collections.sort(expected);
+                assertValid(tree);
+                assertEquals(expected.size(), tree.size());
+                for (int k = 0; k < expected.size(); k++) {
+                    assertEquals((int) expected.get(k), Integer.parseInt(tree.select(k).toString()));
+                }
+                for (int value = -1; value <= 300; value += 7) {
+                    int smaller = 0;
+                    while (smaller < expected.size() && expected.get(smaller) < value) {
+                        smaller++;
+                    }
+                    assertEquals(smaller, tree.rank(new ComparableContentImpl(value)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void selectRejectsRanksOutsideTheTree() {
+        assertThrows(IllegalArgumentException.class, () -> bTree.select(0));
+        bTree.bulkLoad(range(10));
+        assertEquals(10, bTree.size());
+        assertEquals("9", bTree.select(9).toString());
+        assertThrows(IllegalArgumentException.class, () -> bTree.select(10));
+        assertThrows(IllegalArgumentException.class, () -> bTree.select(-1));
+    }
+
+    @Test
+    public void countsRangesLikeTheyAreScanned() {
+        for (int minDegree : new int[]{2, 4}) {
+            BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class, minDegree);
+            for (int i = 0; i < 200; i++) {
+                tree.insert(new ComparableContentImpl(i / 2));
+            }
+            ComparableContentImpl[] bounds = {null, new ComparableContentImpl(-5), new ComparableContentImpl(0),
+                    new ComparableContentImpl(10), new ComparableContentImpl(13), new ComparableContentImpl(99),
+                    new ComparableContentImpl(500)};
+            for (ComparableContentImpl from : bounds) {
+                for (ComparableContentImpl to : bounds) {
+                    for (boolean fromInclusive : new boolean[]{true, false}) {
+                        for (boolean toInclusive : new boolean[]{true, false}) {
+                            long scanned = tree.stream(from, fromInclusive, to, toInclusive).count();
+                            assertEquals(scanned, tree.count(from, fromInclusive, to, toInclusive));
+                            assertEquals(scanned, tree.spliterator(from, fromInclusive, to, toInclusive).estimateSize());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void joinsDisjointTreesInBothOrders() {
+        for (int minDegree : new int[]{2, 3}) {
+            for (int lowSize : new int[]{0, 1, 7, 40, 2000}) {
+                for (int highSize : new int[]{0, 1, 5, 300, 3000}) {
+                    BTree<ComparableContentImpl> low = treeOf(minDegree, IntStream.range(0, lowSize));
+                    BTree<ComparableContentImpl> high = treeOf(minDegree, IntStream.range(lowSize, lowSize + highSize));
+                    low.join(high);
+                    assertValid(low);
+                    assertValid(high);
+                    assertEquals(0, high.size());
+                    assertEquals(IntStream.range(0, lowSize + highSize).boxed().toList(), toInts(low.stream()));
+
+                    low = treeOf(minDegree, IntStream.range(0, lowSize));
+                    high = treeOf(minDegree, IntStream.range(lowSize, lowSize + highSize));
+                    high.join(low);
+                    assertValid(high);
+                    assertEquals(IntStream.range(0, lowSize + highSize).boxed().toList(), toInts(high.stream()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void joinsAndSplitsPackedTrees() {
+        // Completely filled nodes force splits along the spine that the lower tree is hung into.
+        for (int lowSize : new int[]{1, 3, 50, 5000}) {
+            BTree<ComparableContentImpl> low = new BTree<>(ComparableContentImpl.class, 2);
+            low.bulkLoad(range(lowSize));
+            BTree<ComparableContentImpl> high = new BTree<>(ComparableContentImpl.class, 2);
+            ComparableContentImpl[] highKeys = new ComparableContentImpl[4000];
+            for (int i = 0; i < highKeys.length; i++) {
+                highKeys[i] = new ComparableContentImpl(lowSize + i);
+            }
+            high.bulkLoad(highKeys);
+            high.join(low);
+            assertValid(high);
+            assertEquals(IntStream.range(0, lowSize + 4000).boxed().toList(), toInts(high.stream()));
+            BTree<ComparableContentImpl> upper = high.split(new ComparableContentImpl(lowSize / 2));
+            assertValid(high);
+            assertValid(upper);
+            assertEquals(lowSize / 2, high.size());
+            assertEquals(lowSize - lowSize / 2, upper.rank(new ComparableContentImpl(lowSize)));
+        }
+    }
+
+    @Test
+    public void joinKeepsDuplicatesAtTheBoundary() {
+        BTree<ComparableContentImpl> low = treeOf(2, IntStream.of(1, 2, 3, 3));
+        BTree<ComparableContentImpl> high = treeOf(2, IntStream.of(3, 3, 4));
+        low.join(high);
+        assertValid(low);
+        assertEquals(List.of(1, 2, 3, 3, 3, 3, 4), toInts(low.stream()));
+    }
+
+    @Test
+    public void joinMergesOverlappingTrees() {
+        BTree<ComparableContentImpl> evens = treeOf(3, IntStream.range(0, 500).map(i -> 2 * i));
+        BTree<ComparableContentImpl> odds = treeOf(3, IntStream.range(0, 500).map(i -> 2 * i + 1));
+        List<BTree.TreeChangeEvent<ComparableContentImpl>> joined = new ArrayList<>();
+        List<BTree.TreeChangeEvent<ComparableContentImpl>> emptied = new ArrayList<>();
+        evens.addListener(recordingListener(joined));
+        odds.addListener(recordingListener(emptied));
+        evens.join(odds);
+        assertValid(evens);
+        assertEquals(IntStream.range(0, 1000).boxed().toList(), toInts(evens.stream()));
+        assertEquals(0, odds.size());
+        assertEquals(1, joined.size());
+        assertEquals(500, joined.get(0).getInsertedKeys().size());
+        assertEquals(1, emptied.size());
+        assertEquals(500, emptied.get(0).getRemovedKeys().size());
+    }
+
+    @Test
+    public void joinRejectsIncompatibleTrees() {
+        BTree<ComparableContentImpl> other = new BTree<>(ComparableContentImpl.class, 4);
+        assertThrows(IllegalArgumentException.class, () -> bTree.join(other));
+        assertThrows(IllegalArgumentException.class, () -> bTree.join(bTree));
+    }
+
+    @Test
+    public void unionLeavesTheOtherTreeUnchanged() {
+        BTree<ComparableContentImpl> tree = treeOf(2, IntStream.range(0, 300).map(i -> i % 100));
+        BTree<ComparableContentImpl> other = treeOf(2, IntStream.range(50, 150));
+        tree.union(other);
+        assertValid(tree);
+        assertValid(other);
+        assertEquals(400, tree.size());
+        assertEquals(100, other.size());
+        List<Integer> expected = new ArrayList<>();
+        IntStream.range(0, 300).map(i -> i % 100).forEach(expected::add);
+        IntStream.range(50, 150).forEach(expected::add);
+        Collections.sort(expected);
+        assertEquals(expected, toInts(tree.stream()));
+    }
+
+    @Test
+    public void splitsAtAnyKeyAndJoinsBack() {
+        for (int minDegree : new int[]{2, 3, 5}) {
+            Random random = new Random(minDegree);
+            List<Integer> values = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                values.add(random.nextInt(1000));
+            }
+            BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class, minDegree);
+            values.forEach(value -> tree.insert(new ComparableContentImpl(value)));
+            Collections.sort(values);
+            for (int at : new int[]{-1, 0, 1, 17, 500, 999, 1000, 2000}) {
+                BTree<ComparableContentImpl> upper = tree.split(new ComparableContentImpl(at));
+                assertValid(tree);
+                assertValid(upper);
+                assertEquals(values.stream().filter(v -> v < at).toList(), toInts(tree.stream()));
+                assertEquals(values.stream().filter(v -> v >= at).toList(), toInts(upper.stream()));
+                tree.join(upper);
+                assertValid(tree);
+                assertEquals(values, toInts(tree.stream()));
+            }
+        }
+        BTree<ComparableContentImpl> upper = bTree.split(new ComparableContentImpl(1));
+        assertEquals(0, bTree.size());
+        assertEquals(0, upper.size());
+    }
+
+    private static BTree<ComparableContentImpl> treeOf(int minDegree, IntStream values) {
+        BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class, minDegree);
+        values.forEach(value -> tree.insert(new ComparableContentImpl(value)));
+        return tree;
+    }
+
+    private static void split(Spliterator<ComparableContentImpl> spliterator,
+                              List<Spliterator<ComparableContentImpl>> parts, int levels) {
+        Spliterator<ComparableContentImpl> prefix = levels > 0 ? spliterator.trySplit() : null;
+        if (prefix == null) {
+            parts.add(spliterator);
+            return;
+        }
+        split(prefix, parts, levels - 1);
+        split(spliterator, parts, levels - 1);
+    }
+
+    private static List<Integer> toInts(Stream<ComparableContentImpl> stream) {
+        return stream.map(key -> Integer.parseInt(key.toString())).toList();
+    }
+
+    private static ComparableContentImpl[] range(int size) {
+        ComparableContentImpl[] keys = new ComparableContentImpl[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = new ComparableContentImpl(i);
+        }
+        return keys;
+    }
+
+    private static BTree.BTreeListener<ComparableContentImpl> recordingListener(
+            List<BTree.TreeChangeEvent<ComparableContentImpl>> events) {
+        return new BTree.BTreeListener<>() {
+            @Override
+            public void onTreeChanged(BTree<ComparableContentImpl> tree) {
+                fail("the event variant should be called");
+            }
+
+            @Override
+            public void onTreeChanged(BTree<ComparableContentImpl> tree, BTree.TreeChangeEvent<ComparableContentImpl> event) {
+                events.add(event);
+            }
+        };
+    }
+
+    /**
+     * Checks the B-Tree invariants: key order, node occupancy and equal leaf depth.
+     */
+    static void assertValid(BTree<ComparableContentImpl> tree) {
+        BTree<ComparableContentImpl>.Node<ComparableContentImpl> root = tree.getRoot();
+        assertValid(root, true, tree.getMinDegree(), height(root), 0);
+    }
+
+    private static void assertValid(BTree<ComparableContentImpl>.Node<ComparableContentImpl> node, boolean isRoot,
+                                    int minDegree, int height, int depth) {
+        int numKeys = node.getNumKeys();
+        assertTrue(numKeys <= 2 * minDegree - 1, "node overflow");
+        if (!isRoot) {
+            assertTrue(numKeys >= minDegree - 1, "node underflow");
+        }
+        for (int i = 1; i < numKeys; i++) {
+            assertFalse(node.getKeys()[i - 1].isGreater(node.getKeys()[i]), "keys out of order");
+        }
+        if (node.isLeaf()) {
+            assertEquals(height, depth, "leaves at different depths");
+            assertEquals(numKeys, node.getSize(), "wrong subtree size");
+            return;
+        }
+        int size = numKeys;
+        for (int i = 0; i <= numKeys; i++) {
+            size += node.getChildren()[i].getSize();
+        }
+        assertEquals(size, node.getSize(), "wrong subtree size");
+        for (int i = 0; i <= numKeys; i++) {
+            BTree<ComparableContentImpl>.Node<ComparableContentImpl> child = node.getChildren()[i];
+            assertNotNull(child);
+            if (i > 0) {
+                assertFalse(node.getKeys()[i - 1].isGreater(child.getKeys()[0]), "child below separator");
+            }
+            if (i < numKeys) {
+                assertFalse(child.getKeys()[child.getNumKeys() - 1].isGreater(node.getKeys()[i]), "child above separator");
+            }
+            assertValid(child, false, minDegree, height, depth + 1);
+        }
+    }
+
+    private static int height(BTree<ComparableContentImpl>.Node<ComparableContentImpl> node) {
+        int height = 0;
+        while (!node.isLeaf()) {
+            node = node.getChildren()[0];
+            height++;
+        }
+        return height;
+    }
+}
@@ -5,7 +5,10 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -81,6 +84,82 @@ public class BinarySearchTreeTest {
         assertTrue(IntStream.range(0, outputNumbers.length - 1)
                 .allMatch(i -> outputNumbers[i] <= outputNumbers[i + 1]));
     }
+
+    @Test
+    public void handlesDegenerateSortedInput() throws InterruptedException {
+        // Sorted input turns the tree into a list. On a 64 KiB stack, a few thousand levels already
+        // overflow any recursion, so this shows that insert, search and remove work iteratively.
+        int size = 5000;
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(null, () -> {
+            try {
+                for (int i = 0; i < size; i++) {
+                    bst.insert(new ComparableContentImpl(i));
+                }
+                assertEquals(size - 1, Integer.parseInt(bst.search(new ComparableContentImpl(size - 1)).toString()));
+                assertNull(bst.search(new ComparableContentImpl(size)));
+                bst.remove(new ComparableContentImpl(size - 1));
+                assertNull(bst.search(new ComparableContentImpl(size - 1)));
+                assertNotNull(bst.search(new ComparableContentImpl(size - 2)));
+            } catch (Throwable e) {
+                failure[0] = e;
+            }
+        }, "bst", 64 * 1024);
+        thread.start();
+        thread.join();
+        if (failure[0] != null) {
+            fail("Failed on a 64 KiB stack", failure[0]);
+        }
+    }
+
+    @Test
+    public void removeKeepsOrderForEveryCase() {
+        int[] values = {50, 30, 70, 20, 40, 60, 80, 35, 45, 65, 75, 85, 33, 37};
+        for (int value : values) {
+            bst.insert(new ComparableContentImpl(value));
+        }
+        // Removes a leaf, nodes with one child, and nodes with two children whose right child has or lacks a left child.
+        int[] removals = {33, 20, 30, 70, 50, 99};
+        List<Integer> expected = new ArrayList<>(Arrays.stream(values).boxed().toList());
+        for (int value : removals) {
+            bst.remove(new ComparableContentImpl(value));
+            expected.remove(Integer.valueOf(value));
+            Collections.sort(expected);
+            StringBuilder outContent = new StringBuilder();
+            traverse(bst, outContent);
+            assertEquals(expected.stream().map(String::valueOf).reduce((x, y) -> x + " " + y).orElse(""),
+                    outContent.toString().trim());
+            assertNull(bst.search(new ComparableContentImpl(value)));
+        }
+    }
+
+    @Test
+    public void subtreeViewsWriteThroughToTheTree() {
+        bst.insert(new ComparableContentImpl(10));
+        BinarySearchTree<ComparableContentImpl> left = bst.getLeftTree();
+        BinarySearchTree<ComparableContentImpl> right = bst.getRightTree();
+        assertTrue(left.isEmpty());
+        assertNull(left.getContent());
+        assertNull(left.getLeftTree());
+
+        // A view of an empty subtree inserts into the slot it stands for.
+        left.insert(new ComparableContentImpl(5));
+        right.insert(new ComparableContentImpl(15));
+        assertEquals("5", bst.getLeftTree().getContent().toString());
+        assertEquals("15", bst.getRightTree().getContent().toString());
+        assertNotNull(bst.search(new ComparableContentImpl(5)));
+
+        // Changes made through the tree are visible through an existing view, and vice versa.
+        bst.insert(new ComparableContentImpl(3));
+        assertEquals("3", left.getLeftTree().getContent().toString());
+        left.remove(new ComparableContentImpl(5));
+        assertEquals("3", left.getContent().toString());
+        assertEquals("3", bst.getLeftTree().getContent().toString());
+        assertNull(bst.search(new ComparableContentImpl(5)));
+        right.remove(new ComparableContentImpl(15));
+        assertTrue(bst.getRightTree().isEmpty());
+    }
+
     private void traverse(BinarySearchTree<ComparableContentImpl> pBST, StringBuilder output) {
         if (!pBST.isEmpty()) {
             traverse(pBST.getLeftTree(), output);
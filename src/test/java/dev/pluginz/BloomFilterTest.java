@@ -0,0 +1,117 @@
+package dev.pluginz;
+
+import dev.pluginz.interfaces.KeyHasher;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BloomFilterTest {
+
+    private static final KeyHasher<ComparableContentImpl> HASHER = key -> Integer.parseInt(key.toString());
+
+    @Test
+    public void hasNoFalseNegatives() {
+        BloomFilter<ComparableContentImpl> filter = new BloomFilter<>(HASHER, 10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(new ComparableContentImpl(i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(new ComparableContentImpl(i)));
+        }
+        assertEquals(10_000, filter.getInsertions());
+        assertEquals(0, filter.getNegatives());
+    }
+
+    @Test
+    public void keepsFalsePositiveRateNearTarget() {
+        BloomFilter<ComparableContentImpl> filter = new BloomFilter<>(HASHER, 10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(new ComparableContentImpl(2 * i));
+        }
+        int accepted = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(new ComparableContentImpl(2 * i + 1))) {
+                accepted++;
+            }
+        }
+        assertTrue(accepted < 2_000, "accepted " + accepted + " absent keys");
+        assertEquals(0.01, filter.getExpectedFalsePositiveRate(), 0.005);
+        assertEquals(7, filter.getHashCount());
+    }
+
+    @Test
+    public void rejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter<>(HASHER, 0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter<>(HASHER, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter<>(HASHER, 10, 1));
+        BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class);
+        assertThrows(IllegalArgumentException.class, () -> tree.enableBloomFilter(HASHER, Double.NaN));
+    }
+
+    @Test
+    public void treeRejectsAbsentKeysWithoutLookup() {
+        BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class, 4);
+        for (int i = 0; i < 500; i++) {
+            tree.insert(new ComparableContentImpl(2 * i));
+        }
+        tree.enableBloomFilter(HASHER, 0.01);
+        TreeMetrics metrics = new TreeMetrics("bloom");
+        tree.setMetrics(metrics);
+        for (int i = 500; i < 5_000; i++) {
+            tree.insert(new ComparableContentImpl(2 * i));
+        }
+        BloomFilter<ComparableContentImpl> filter = tree.getBloomFilter();
+        assertTrue(filter.getCapacity() >= 5_000);
+        for (int i = 0; i < 5_000; i++) {
+            assertNotNull(tree.search(new ComparableContentImpl(2 * i)));
+            assertNull(tree.search(new ComparableContentImpl(2 * i + 1)));
+        }
+        assertEquals(10_000, filter.getQueries());
+        assertEquals(5_000, filter.getNegatives() + filter.getFalsePositives());
+        assertTrue(filter.getObservedFalsePositiveRate() < 0.05);
+        // Rejected keys are still counted as lookups, but without a single comparison.
+        assertEquals(10_000, metrics.getCount(TreeMetrics.Operation.SEARCH));
+        assertTrue(metrics.getComparisonsPerLookup() < 8);
+        BTreeTest.assertValid(tree);
+    }
+
+    @Test
+    public void removedKeysOnlyCostFalsePositives() {
+        BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class);
+        tree.enableBloomFilter(HASHER, 0.01);
+        for (int i = 0; i < 100; i++) {
+            tree.insert(new ComparableContentImpl(i));
+        }
+        for (int i = 0; i < 100; i++) {
+            tree.remove(new ComparableContentImpl(i));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertNull(tree.search(new ComparableContentImpl(i)));
+        }
+        assertEquals(100, tree.getBloomFilter().getFalsePositives());
+
+        tree.enableBloomFilter(HASHER, 0.01);
+        for (int i = 0; i < 100; i++) {
+            assertNull(tree.search(new ComparableContentImpl(i)));
+        }
+        assertEquals(100, tree.getBloomFilter().getNegatives());
+        tree.disableBloomFilter();
+        assertNull(tree.getBloomFilter());
+    }
+
+    @Test
+    public void bulkLoadFillsTheFilter() {
+        ComparableContentImpl[] keys = new ComparableContentImpl[3_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new ComparableContentImpl(i);
+        }
+        BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class, 8);
+        tree.enableBloomFilter(HASHER, 0.01);
+        tree.bulkLoad(keys);
+        for (ComparableContentImpl key : keys) {
+            assertSame(key, tree.search(key));
+        }
+        assertEquals(0, tree.getBloomFilter().getNegatives());
+        assertTrue(tree.getBloomFilter().getCapacity() >= keys.length);
+    }
+}
@@ -0,0 +1,345 @@
+package dev.pluginz;
+
+import dev.pluginz.interfaces.EvictionPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BufferPoolTest {
+
+    private static final int PAGE_SIZE = 64;
+
+    private Path file;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        file = Files.createTempFile("btree", ".pages");
+        Files.delete(file);
+    }
+
+    @AfterEach
+    public void teardown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void treeRunsOnSmallPoolWithEveryPolicy() throws IOException {
+        List<IntFunction<EvictionPolicy>> policies = List.of(ClockPolicy::new, LruPolicy::new, TwoQueuePolicy::new);
+        for (IntFunction<EvictionPolicy> policy : policies) {
+            Files.deleteIfExists(file);
+            int pageSize = OffHeapBTree.pageSize(3, OffHeapBTreeTest.CODEC.width());
+            List<Integer> expected = new ArrayList<>();
+            BufferPool pool = new BufferPool(file, pageSize, 8, policy);
+            try (OffHeapBTree<ComparableContentImpl> tree = new OffHeapBTree<>(OffHeapBTreeTest.CODEC, 3, pool)) {
+                Random random = new Random(5);
+                for (int i = 0; i < 5000; i++) {
+                    int value = random.nextInt(1000);
+                    expected.add(value);
+                    tree.insert(new ComparableContentImpl(value));
+                }
+                Collections.sort(expected);
+                assertEquals(expected, toInts(tree));
+                assertTrue(pool.getEvictions() > 0);
+                assertTrue(pool.getWriteBacks() > 0);
+            }
+            // The file written through the pool can be mapped directly.
+            try (OffHeapBTree<ComparableContentImpl> tree = OffHeapBTree.open(file, OffHeapBTreeTest.CODEC, 3)) {
+                assertEquals(5000, tree.size());
+                assertEquals(expected, toInts(tree));
+            }
+        }
+    }
+
+    @Test
+    public void reopensPagesWrittenByMappedStore() throws IOException {
+        try (OffHeapBTree<ComparableContentImpl> tree = OffHeapBTree.open(file, OffHeapBTreeTest.CODEC, 2)) {
+            for (int i = 0; i < 1000; i++) {
+                tree.insert(new ComparableContentImpl(i));
+            }
+        }
+        BufferPool pool = new BufferPool(file, OffHeapBTree.pageSize(2, OffHeapBTreeTest.CODEC.width()), 4);
+        try (OffHeapBTree<ComparableContentImpl> tree = new OffHeapBTree<>(OffHeapBTreeTest.CODEC, 2, pool)) {
+            assertEquals(1000, tree.size());
+            for (int i = 0; i < 1000; i++) {
+                assertNotNull(tree.search(new ComparableContentImpl(i)));
+            }
+            assertNull(tree.search(new ComparableContentImpl(1000)));
+        }
+    }
+
+    @Test
+    public void dirtyPagesAreWrittenBackOnEviction() throws IOException {
+        try (BufferPool pool = new BufferPool(file, PAGE_SIZE, 1)) {
+            long first = pool.allocate();
+            pool.pin(first).set(ValueLayout.JAVA_LONG, 0, 42);
+            pool.unpin(first, true);
+            long second = pool.allocate();
+            assertEquals(1, pool.getEvictions());
+            assertEquals(1, pool.getWriteBacks());
+            assertEquals(0, pool.pin(second).get(ValueLayout.JAVA_LONG, 0));
+            pool.unpin(second, false);
+            assertEquals(42, pool.pin(first).get(ValueLayout.JAVA_LONG, 0));
+            pool.unpin(first, false);
+            assertEquals(2, pool.getHits());
+            assertEquals(1, pool.getMisses());
+        }
+    }
+
+    @Test
+    public void pinnedPagesAreNeverEvicted() throws IOException {
+        try (BufferPool pool = new BufferPool(file, PAGE_SIZE, 2)) {
+            long first = pool.allocate();
+            long second = pool.allocate();
+            MemorySegment page = pool.pin(first);
+            pool.pin(second);
+            assertThrows(IllegalStateException.class, pool::allocate);
+            pool.unpin(second, false);
+            long third = pool.allocate();
+            page.set(ValueLayout.JAVA_LONG, 0, 7);
+            pool.unpin(first, true);
+            assertEquals(2, third);
+            assertThrows(IllegalStateException.class, () -> pool.unpin(first, false));
+            assertThrows(IndexOutOfBoundsException.class, () -> pool.pin(3));
+        }
+    }
+
+    @Test
+    public void failedInsertLeavesNoPagePinned() throws IOException {
+        BufferPool pool = new BufferPool(file, OffHeapBTree.pageSize(2, OffHeapBTreeTest.CODEC.width()), 2);
+        try (OffHeapBTree<ComparableContentImpl> tree = new OffHeapBTree<>(OffHeapBTreeTest.CODEC, 2, pool)) {
+            for (int i = 0; i < 3; i++) {
+                tree.insert(new ComparableContentImpl(i));
+            }
+            // Splitting the full root needs a third frame while the root and the new root are pinned.
+            assertThrows(IllegalStateException.class, () -> tree.insert(new ComparableContentImpl(3)));
+            pool.pin(0);
+            pool.pin(1);
+            pool.unpin(1, false);
+            pool.unpin(0, false);
+        }
+    }
+
+    @Test
+    public void lruEvictsLeastRecentlyUsedPage() throws IOException {
+        try (BufferPool pool = new BufferPool(file, PAGE_SIZE, 3, LruPolicy::new)) {
+            for (int i = 0; i < 3; i++) {
+                pool.allocate();
+            }
+            touch(pool, 0);
+            touch(pool, 2);
+            // Page 1 is now the least recently used one.
+            pool.allocate();
+            pool.resetStatistics();
+            touch(pool, 0);
+            touch(pool, 2);
+            touch(pool, 3);
+            assertEquals(3, pool.getHits());
+            touch(pool, 1);
+            assertEquals(1, pool.getMisses());
+        }
+    }
+
+    @Test
+    public void twoQueueKeepsHotPagesDuringScan() throws IOException {
+        int capacity = 16;
+        try (BufferPool pool = new BufferPool(file, PAGE_SIZE, capacity, TwoQueuePolicy::new)) {
+            for (int i = 0; i < 200; i++) {
+                pool.allocate();
+            }
+            // Reload page 0 while its id is still remembered, which makes it hot.
+            for (int i = 0; i < 4; i++) {
+                touch(pool, 0);
+                for (int page = 1 + 8 * i; page <= 8 * (i + 1); page++) {
+                    touch(pool, page);
+                }
+            }
+            pool.resetStatistics();
+            for (int page = 100; page < 200; page++) {
+                touch(pool, page);
+            }
+            touch(pool, 0);
+            assertEquals(1, pool.getHits());
+            assertEquals(100, pool.getMisses());
+        }
+    }
+
+    @Test
+    public void clockGivesReferencedPagesSecondChance() throws IOException {
+        try (BufferPool pool = new BufferPool(file, PAGE_SIZE, 4, ClockPolicy::new)) {
+            for (int i = 0; i < 4; i++) {
+                pool.allocate();
+            }
+            // All reference bits are set, so the first sweep clears them and the second evicts page 0.
+            pool.allocate();
+            touch(pool, 1);
+            pool.allocate();
+            pool.resetStatistics();
+            touch(pool, 1);
+            assertEquals(1, pool.getHits());
+        }
+    }
+
+    @Test
+    public void failedReadReturnsFrameToPool() throws IOException {
+        try (BufferPool pool = new BufferPool(file, PAGE_SIZE, 1)) {
+            pool.allocate();
+            pool.allocate();
+        }
+        FailingChannel channel = new FailingChannel(
+                FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        try (BufferPool pool = new BufferPool(file, channel, PAGE_SIZE, 1, ClockPolicy::new)) {
+            touch(pool, 0);
+            channel.failReads = true;
+            for (int i = 0; i < 3; i++) {
+                assertThrows(UncheckedIOException.class, () -> pool.pin(1));
+            }
+            channel.failReads = false;
+            // The single frame was given back after every failed read.
+            touch(pool, 1);
+            touch(pool, 0);
+            assertEquals(0, pool.getHits());
+        }
+    }
+
+    @Test
+    public void rejectsInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new BufferPool(file, PAGE_SIZE, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BufferPool(file, 12, 4));
+    }
+
+    /**
+     * FailingChannel delegates to a file channel, but fails positional reads on demand.
+     */
+    private static final class FailingChannel extends FileChannel {
+        private final FileChannel channel;
+        private boolean failReads;
+
+        FailingChannel(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            if (failReads) {
+                throw new IOException("Injected read failure");
+            }
+            return channel.read(dst, position);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return channel.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return channel.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return channel.write(srcs, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return channel.write(src, position);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            channel.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return channel.transferFrom(src, position, count);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static void touch(BufferPool pool, long id) {
+        pool.pin(id);
+        pool.unpin(id, false);
+    }
+
+    private static List<Integer> toInts(Iterable<ComparableContentImpl> keys) {
+        List<Integer> result = new ArrayList<>();
+        for (ComparableContentImpl key : keys) {
+            result.add(Integer.parseInt(key.toString()));
+        }
+        return result;
+    }
+}
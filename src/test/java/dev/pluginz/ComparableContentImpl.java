@@ -48,6 +48,16 @@ public class ComparableContentImpl implements ComparableContent<ComparableConten
         return value > pContent.value;
     }
 
+    /**
+     * Compares this object with the specified object.
+     * @param pContent the object to be compared with.
+     * @return a negative value, zero or a positive value if this object is less than, equal to or greater than the specified object.
+     */
+    @Override
+    public int compare(ComparableContentImpl pContent) {
+        return Integer.compare(value, pContent.value);
+    }
+
     /**
      * Returns a string representation of this object.
      * @return a string representation of this object.
@@ -0,0 +1,177 @@
+package dev.pluginz;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentBTreeTest {
+
+    private static final int THREADS = 8;
+
+    private ConcurrentBTree<ComparableContentImpl> tree;
+
+    @BeforeEach
+    public void setup() {
+        tree = new ConcurrentBTree<>(ComparableContentImpl.class, 2);
+    }
+
+    @Test
+    public void insertAndSearchForValue() {
+        ComparableContentImpl value = new ComparableContentImpl(10);
+        tree.insert(value);
+        assertEquals(value, tree.search(value));
+        assertNull(tree.search(new ComparableContentImpl(11)));
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    public void rejectsInvalidMinDegree() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentBTree<>(ComparableContentImpl.class, 1));
+    }
+
+    @Test
+    public void concurrentInsertsAreAllVisible() throws Exception {
+        int perThread = 20000;
+        runConcurrently(THREADS, thread -> {
+            // Interleave the key ranges so that threads keep splitting the same nodes.
+            for (int i = 0; i < perThread; i++) {
+                tree.insert(new ComparableContentImpl(i * THREADS + thread));
+            }
+        });
+        assertEquals((long) THREADS * perThread, tree.size());
+        for (int key = 0; key < THREADS * perThread; key++) {
+            assertNotNull(tree.search(new ComparableContentImpl(key)), "missing key " + key);
+        }
+        assertValid(tree);
+    }
+
+    @Test
+    public void completedInsertsAreVisibleToLaterSearches() throws Exception {
+        int writers = THREADS / 2;
+        int perWriter = 20000;
+        AtomicIntegerArray progress = new AtomicIntegerArray(writers);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger finishedWriters = new AtomicInteger();
+        ConcurrentLinkedQueue<String> violations = new ConcurrentLinkedQueue<>();
+        runConcurrently(THREADS, thread -> {
+            if (thread < writers) {
+                for (int i = 0; i < perWriter; i++) {
+                    tree.insert(new ComparableContentImpl(2 * (i * writers + thread)));
+                    progress.set(thread, i + 1);
+                }
+                if (finishedWriters.incrementAndGet() == writers) {
+                    done.set(true);
+                }
+            } else {
+                Random random = new Random(thread);
+                while (!done.get()) {
+                    int writer = random.nextInt(writers);
+                    int completed = progress.get(writer);
+                    if (completed > 0) {
+                        // An insert that completed before this search started must be visible (linearizability).
+                        int i = random.nextInt(completed);
+                        int key = 2 * (i * writers + writer);
+                        if (tree.search(new ComparableContentImpl(key)) == null) {
+                            violations.add("completed insert of " + key + " not visible");
+                        }
+                    }
+                    // Odd keys are never inserted.
+                    if (tree.search(new ComparableContentImpl(2 * random.nextInt(writers * perWriter) + 1)) != null) {
+                        violations.add("found a key that was never inserted");
+                    }
+                }
+            }
+        });
+        assertTrue(violations.isEmpty(), String.valueOf(violations.peek()));
+        assertEquals((long) writers * perWriter, tree.size());
+        assertValid(tree);
+    }
+
+    @Test
+    public void duplicatesFromManyThreadsAreKept() throws Exception {
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < 5000; i++) {
+                tree.insert(new ComparableContentImpl(i % 100));
+            }
+        });
+        assertEquals(THREADS * 5000L, tree.size());
+        List<Integer> keys = new ArrayList<>();
+        collect(tree.getRoot(), keys);
+        assertEquals(THREADS * 5000, keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i / (THREADS * 50), (int) keys.get(i));
+        }
+    }
+
+    private interface Task {
+        void run(int thread) throws Exception;
+    }
+
+    private static void runConcurrently(int threads, Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int thread = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void collect(ConcurrentBTree.Node<ComparableContentImpl> node, List<Integer> keys) {
+        for (int i = 0; i < node.numKeys; i++) {
+            if (!node.isLeaf) {
+                collect(node.children[i], keys);
+            }
+            keys.add(Integer.parseInt(node.keys[i].toString()));
+        }
+        if (!node.isLeaf) {
+            collect(node.children[node.numKeys], keys);
+        }
+    }
+
+    private static void assertValid(ConcurrentBTree<ComparableContentImpl> tree) {
+        List<Integer> keys = new ArrayList<>();
+        collect(tree.getRoot(), keys);
+        assertEquals(tree.size(), keys.size());
+        for (int i = 1; i < keys.size(); i++) {
+            assertTrue(keys.get(i - 1) <= keys.get(i), "keys out of order");
+        }
+        assertOccupancy(tree.getRoot(), true, tree.getMinDegree());
+    }
+
+    private static void assertOccupancy(ConcurrentBTree.Node<ComparableContentImpl> node, boolean isRoot, int minDegree) {
+        assertTrue(node.numKeys <= 2 * minDegree - 1);
+        assertTrue(isRoot || node.numKeys >= minDegree - 1);
+        if (!node.isLeaf) {
+            for (int i = 0; i <= node.numKeys; i++) {
+                assertOccupancy(node.children[i], false, minDegree);
+            }
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package dev.pluginz;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DurableBTreeTest {
+
+    private Path directory;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("durable");
+    }
+
+    @AfterEach
+    public void teardown() throws IOException {
+        deleteRecursively(directory);
+    }
+
+    @Test
+    public void recoversInsertsAndRemovesFromLog() throws IOException {
+        try (DurableBTree<ComparableContentImpl> tree = open(directory, 0)) {
+            for (int i = 0; i < 100; i++) {
+                tree.insert(new ComparableContentImpl(i));
+            }
+            for (int i = 0; i < 100; i += 2) {
+                assertNotNull(tree.remove(new ComparableContentImpl(i)));
+            }
+            assertNull(tree.remove(new ComparableContentImpl(0)));
+        }
+        try (DurableBTree<ComparableContentImpl> tree = open(directory, 0)) {
+            assertEquals(50, tree.size());
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 1; i < 100; i += 2) {
+                expected.add(i);
+            }
+            assertEquals(expected, toInts(tree));
+        }
+    }
+
+    @Test
+    public void recoversFromCheckpointAndLog() throws IOException {
+        try (DurableBTree<ComparableContentImpl> tree = open(directory, 0)) {
+            for (int i = 0; i < 1000; i++) {
+                tree.insert(new ComparableContentImpl(i));
+            }
+            tree.checkpoint();
+            assertEquals(16, Files.size(directory.resolve(DurableBTree.LOG_FILE)));
+            tree.insert(new ComparableContentImpl(1000));
+            tree.remove(new ComparableContentImpl(0));
+        }
+        try (DurableBTree<ComparableContentImpl> tree = open(directory, 0)) {
+            assertEquals(1000, tree.size());
+            assertNull(tree.search(new ComparableContentImpl(0)));
+            assertNotNull(tree.search(new ComparableContentImpl(1000)));
+            BTreeTest.assertValid(tree.getTree());
+        }
+    }
+
+    @Test
+    public void reopensFromCheckpointAlone() throws IOException {
+        try (DurableBTree<ComparableContentImpl> tree = open(directory, 0)) {
+            for (int i = 0; i < 500; i++) {
+                tree.insert(new ComparableContentImpl(i));
+            }
+            tree.checkpoint();
+            for (int i = 0; i < 500; i += 5) {
+                tree.remove(new ComparableContentImpl(i));
+            }
+            tree.checkpoint();
+        }
+        assertFalse(Files.exists(directory.resolve(DurableBTree.CHECKPOINT_FILE + ".tmp")));
+        assertEquals(16, Files.size(directory.resolve(DurableBTree.LOG_FILE)));
+        try (DurableBTree<ComparableContentImpl> tree = open(directory, 0)) {
+            assertEquals(400, tree.size());
+            assertNull(tree.search(new ComparableContentImpl(0)));
+            assertNotNull(tree.search(new ComparableContentImpl(499)));
+            BTreeTest.assertValid(tree.getTree());
+        }
+    }
+
+    @Test
+    public void takesCheckpointsPeriodically() throws IOException {
+        try (DurableBTree<ComparableContentImpl> tree = open(directory, 100)) {
+            for (int i = 0; i < 250; i++) {
+                tree.insert(new ComparableContentImpl(i));
+            }
+            assertTrue(Files.exists(directory.resolve(DurableBTree.CHECKPOINT_FILE)));
+            // 200 operations are in the checkpoint, the last 50 in the log.
+            assertEquals(16 + 50 * 9, Files.size(directory.resolve(DurableBTree.LOG_FILE)));
+        }
+        try (DurableBTree<ComparableContentImpl> tree = open(directory, 100)) {
+            assertEquals(250, tree.size());
+        }
+    }
+
+    @Test
+    public void recoversPrefixAfterCrashAtAnyPointOfTheLog() throws IOException {
+        Random random = new Random(17);
+        List<int[]> operations = new ArrayList<>();
+        try (DurableBTree<ComparableContentImpl> tree = open(directory, 0)) {
+            for (int i = 0; i < 40; i++) {
+                tree.insert(new ComparableContentImpl(i));
+            }
+            tree.checkpoint();
+            for (int i = 0; i < 150; i++) {
+                int value = random.nextInt(60);
+                if (random.nextInt(3) == 0) {
+                    if (tree.remove(new ComparableContentImpl(value)) != null) {
+                        operations.add(new int[]{-1, value});
+                    }
+                } else {
+                    tree.insert(new ComparableContentImpl(value));
+                    operations.add(new int[]{1, value});
+                }
+            }
+        }
+        byte[] log = Files.readAllBytes(directory.resolve(DurableBTree.LOG_FILE));
+        byte[] checkpoint = Files.readAllBytes(directory.resolve(DurableBTree.CHECKPOINT_FILE));
+        assertEquals(16 + operations.size() * 9, log.length);
+        Path crashed = Files.createTempDirectory("crashed");
+        try {
+            for (int length = 0; length <= log.length; length++) {
+                Files.write(crashed.resolve(DurableBTree.CHECKPOINT_FILE), checkpoint);
+                Files.write(crashed.resolve(DurableBTree.LOG_FILE), Arrays.copyOf(log, length));
+                int complete = Math.max(0, (length - 16) / 9);
+                try (DurableBTree<ComparableContentImpl> tree = open(crashed, 0)) {
+                    assertEquals(expectedAfter(operations, complete), toInts(tree), "log cut at " + length);
+                    // The torn tail is cut off, so new records follow the last intact one.
+                    tree.insert(new ComparableContentImpl(1000));
+                }
+                try (DurableBTree<ComparableContentImpl> tree = open(crashed, 0)) {
+                    List<Integer> expected = expectedAfter(operations, complete);
+                    expected.add(1000);
+                    assertEquals(expected, toInts(tree), "log cut at " + length + " and extended");
+                }
+            }
+        } finally {
+            deleteRecursively(crashed);
+        }
+    }
+
+    @Test
+    public void stopsReplayAtCorruptRecord() throws IOException {
+        try (DurableBTree<ComparableContentImpl> tree = open(directory, 0)) {
+            for (int i = 0; i < 10; i++) {
+                tree.insert(new ComparableContentImpl(i));
+            }
+        }
+        Path file = directory.resolve(DurableBTree.LOG_FILE);
+        byte[] log = Files.readAllBytes(file);
+        // Flip a bit in the key of the sixth record.
+        log[16 + 5 * 9 + 6] ^= 1;
+        Files.write(file, log);
+        try (DurableBTree<ComparableContentImpl> tree = open(directory, 0)) {
+            assertEquals(List.of(0, 1, 2, 3, 4), toInts(tree));
+        }
+    }
+
+    @Test
+    public void ignoresLogLeftOverFromInterruptedCheckpoint() throws IOException {
+        try (DurableBTree<ComparableContentImpl> tree = open(directory, 0)) {
+            for (int i = 0; i < 10; i++) {
+                tree.insert(new ComparableContentImpl(i));
+            }
+        }
+        byte[] oldLog = Files.readAllBytes(directory.resolve(DurableBTree.LOG_FILE));
+        try (DurableBTree<ComparableContentImpl> tree = open(directory, 0)) {
+            tree.checkpoint();
+        }
+        // A crash after the checkpoint was written but before the log was reset leaves the old log behind.
+        Files.write(directory.resolve(DurableBTree.LOG_FILE), oldLog);
+        try (DurableBTree<ComparableContentImpl> tree = open(directory, 0)) {
+            assertEquals(10, tree.size());
+            assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), toInts(tree));
+        }
+    }
+
+    @Test
+    public void concurrentWritersShareForces() throws Exception {
+        int threads = 4;
+        int perThread = 250;
+        try (DurableBTree<ComparableContentImpl> tree = open(directory, 0)) {
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t * perThread;
+                workers.add(new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        tree.insert(new ComparableContentImpl(offset + i));
+                    }
+                }));
+            }
+            workers.forEach(Thread::start);
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            assertEquals(threads * perThread, tree.size());
+            assertTrue(tree.getSyncCount() <= threads * perThread);
+        }
+        try (DurableBTree<ComparableContentImpl> tree = open(directory, 0)) {
+            assertEquals(threads * perThread, tree.size());
+            for (int i = 0; i < threads * perThread; i++) {
+                assertNotNull(tree.search(new ComparableContentImpl(i)));
+            }
+        }
+    }
+
+    @Test
+    public void closesAfterFailedWrite() throws IOException {
+        DurableBTree<ComparableContentImpl> tree = open(directory, 0);
+        tree.insert(new ComparableContentImpl(1));
+        // A directory in place of the temporary checkpoint file makes the checkpoint fail.
+        Files.createDirectory(directory.resolve(DurableBTree.CHECKPOINT_FILE + ".tmp"));
+        assertThrows(UncheckedIOException.class, tree::checkpoint);
+        assertThrows(UncheckedIOException.class, tree::close);
+        assertThrows(IllegalStateException.class, () -> tree.insert(new ComparableContentImpl(2)));
+        tree.close();
+        Files.delete(directory.resolve(DurableBTree.CHECKPOINT_FILE + ".tmp"));
+        try (DurableBTree<ComparableContentImpl> reopened = open(directory, 0)) {
+            assertNotNull(reopened.search(new ComparableContentImpl(1)));
+        }
+    }
+
+    @Test
+    public void rejectsUseAfterClose() throws IOException {
+        DurableBTree<ComparableContentImpl> tree = open(directory, 0);
+        tree.close();
+        assertThrows(IllegalStateException.class, () -> tree.insert(new ComparableContentImpl(1)));
+        assertThrows(IllegalArgumentException.class, () -> open(directory, -1));
+    }
+
+    private static DurableBTree<ComparableContentImpl> open(Path directory, long checkpointInterval) throws IOException {
+        return new DurableBTree<>(directory, ComparableContentImpl.class, OffHeapBTreeTest.CODEC, 2, checkpointInterval);
+    }
+
+    private static List<Integer> expectedAfter(List<int[]> operations, int count) {
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            keys.add(i);
+        }
+        for (int[] operation : operations.subList(0, count)) {
+            if (operation[0] > 0) {
+                keys.add(operation[1]);
+            } else {
+                keys.remove(Integer.valueOf(operation[1]));
+            }
+        }
+        Collections.sort(keys);
+        return keys;
+    }
+
+    private static List<Integer> toInts(DurableBTree<ComparableContentImpl> tree) {
+        List<Integer> result = new ArrayList<>();
+        for (ComparableContentImpl key : tree.getTree()) {
+            result.add(Integer.parseInt(key.toString()));
+        }
+        return result;
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+}
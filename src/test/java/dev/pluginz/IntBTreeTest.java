@@ -0,0 +1,79 @@
+package dev.pluginz;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntBTreeTest {
+
+    private IntBTree tree;
+
+    @BeforeEach
+    public void setup() {
+        tree = new IntBTree();
+    }
+
+    @Test
+    public void insertAndContains() {
+        tree.insert(10);
+        assertTrue(tree.contains(10));
+        assertFalse(tree.contains(11));
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    public void emptyTree() {
+        assertFalse(tree.contains(0));
+        assertEquals(0, tree.size());
+        assertEquals(0, tree.countRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void rejectsInvalidMinDegree() {
+        assertThrows(IllegalArgumentException.class, () -> new IntBTree(1));
+    }
+
+    @Test
+    public void randomInsertsMatchSortedReference() {
+        for (int minDegree : new int[]{2, 3, 32}) {
+            IntBTree tree = new IntBTree(minDegree);
+            Random random = new Random(minDegree);
+            int[] expected = new int[5000];
+            for (int i = 0; i < expected.length; i++) {
+                expected[i] = random.nextInt(2000) - 1000;
+                tree.insert(expected[i]);
+            }
+            Arrays.sort(expected);
+
+            List<Integer> actual = new ArrayList<>();
+            tree.forEach(actual::add);
+            assertArrayEquals(expected, actual.stream().mapToInt(Integer::intValue).toArray());
+            assertEquals(expected.length, tree.size());
+
+            for (int key = -1001; key <= 1000; key++) {
+                assertEquals(Arrays.binarySearch(expected, key) >= 0, tree.contains(key));
+            }
+        }
+    }
+
+    @Test
+    public void rangeOperations() {
+        for (int i = 0; i < 1000; i++) {
+            tree.insert(i * 2);
+        }
+        assertEquals(6, tree.countRange(10, 20));
+        assertEquals(5, tree.countRange(11, 20));
+        assertEquals(0, tree.countRange(20, 10));
+        assertEquals(1000, tree.countRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+
+        List<Integer> range = new ArrayList<>();
+        tree.forEachInRange(11, 19, range::add);
+        assertEquals(List.of(12, 14, 16, 18), range);
+    }
+}
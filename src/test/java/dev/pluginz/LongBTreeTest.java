@@ -0,0 +1,79 @@
+package dev.pluginz;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongBTreeTest {
+
+    private LongBTree tree;
+
+    @BeforeEach
+    public void setup() {
+        tree = new LongBTree();
+    }
+
+    @Test
+    public void insertAndContains() {
+        tree.insert(10L);
+        assertTrue(tree.contains(10L));
+        assertFalse(tree.contains(11L));
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    public void emptyTree() {
+        assertFalse(tree.contains(0L));
+        assertEquals(0, tree.size());
+        assertEquals(0, tree.countRange(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void rejectsInvalidMinDegree() {
+        assertThrows(IllegalArgumentException.class, () -> new LongBTree(1));
+    }
+
+    @Test
+    public void randomInsertsMatchSortedReference() {
+        for (int minDegree : new int[]{2, 3, 32}) {
+            LongBTree tree = new LongBTree(minDegree);
+            Random random = new Random(minDegree);
+            long[] expected = new long[5000];
+            for (int i = 0; i < expected.length; i++) {
+                expected[i] = random.nextInt(2000) - 1000L;
+                tree.insert(expected[i]);
+            }
+            Arrays.sort(expected);
+
+            List<Long> actual = new ArrayList<>();
+            tree.forEach(actual::add);
+            assertArrayEquals(expected, actual.stream().mapToLong(Long::longValue).toArray());
+            assertEquals(expected.length, tree.size());
+
+            for (long key = -1001; key <= 1000; key++) {
+                assertEquals(Arrays.binarySearch(expected, key) >= 0, tree.contains(key));
+            }
+        }
+    }
+
+    @Test
+    public void rangeOperations() {
+        for (long i = 0; i < 1000; i++) {
+            tree.insert(i * 2);
+        }
+        assertEquals(6, tree.countRange(10, 20));
+        assertEquals(5, tree.countRange(11, 20));
+        assertEquals(0, tree.countRange(20, 10));
+        assertEquals(1000, tree.countRange(Long.MIN_VALUE, Long.MAX_VALUE));
+
+        List<Long> range = new ArrayList<>();
+        tree.forEachInRange(11, 19, range::add);
+        assertEquals(List.of(12L, 14L, 16L, 18L), range);
+    }
+}
@@ -0,0 +1,176 @@
+package dev.pluginz;
+
+import dev.pluginz.interfaces.KeyCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapBTreeTest {
+
+    static final KeyCodec<ComparableContentImpl> CODEC = new KeyCodec<>() {
+        @Override
+        public int width() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void write(MemorySegment segment, long offset, ComparableContentImpl key) {
+            segment.set(ValueLayout.JAVA_INT_UNALIGNED, offset, Integer.parseInt(key.toString()));
+        }
+
+        @Override
+        public ComparableContentImpl read(MemorySegment segment, long offset) {
+            return new ComparableContentImpl(segment.get(ValueLayout.JAVA_INT_UNALIGNED, offset));
+        }
+    };
+
+    private OffHeapBTree<ComparableContentImpl> tree;
+
+    @BeforeEach
+    public void setup() {
+        tree = new OffHeapBTree<>(CODEC, 2);
+    }
+
+    @AfterEach
+    public void teardown() {
+        tree.close();
+    }
+
+    @Test
+    public void insertAndSearchForValue() {
+        tree.insert(new ComparableContentImpl(10));
+        assertEquals("10", tree.search(new ComparableContentImpl(10)).toString());
+        assertNull(tree.search(new ComparableContentImpl(11)));
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    public void rejectsInvalidMinDegree() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapBTree<>(CODEC, 1));
+    }
+
+    @Test
+    public void iteratesInOrderWithDuplicates() {
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(5000);
+            expected.add(value);
+            tree.insert(new ComparableContentImpl(value));
+        }
+        Collections.sort(expected);
+        assertEquals(expected, toInts(tree));
+        assertEquals(20000, tree.size());
+        for (int value = 0; value < 5000; value++) {
+            assertEquals(Collections.binarySearch(expected, value) >= 0, tree.search(new ComparableContentImpl(value)) != null);
+        }
+    }
+
+    @Test
+    public void emptyTreeHasNoKeys() {
+        assertFalse(tree.iterator().hasNext());
+        assertNull(tree.search(new ComparableContentImpl(1)));
+    }
+
+    @Test
+    public void opensTreeFromExistingStore() {
+        for (int i = 0; i < 1000; i++) {
+            tree.insert(new ComparableContentImpl(i));
+        }
+        OffHeapBTree<ComparableContentImpl> reopened = new OffHeapBTree<>(CODEC, 2, tree.getStore());
+        assertEquals(1000, reopened.size());
+        assertEquals(toInts(tree), toInts(reopened));
+        reopened.insert(new ComparableContentImpl(-1));
+        assertNotNull(reopened.search(new ComparableContentImpl(-1)));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapBTree<>(CODEC, 3, tree.getStore()));
+    }
+
+    @Test
+    public void rejectsPagesThatAreTooSmall() {
+        try (ArenaPageStore store = new ArenaPageStore(16)) {
+            assertThrows(IllegalArgumentException.class, () -> new OffHeapBTree<>(CODEC, 2, store));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ArenaPageStore(12));
+    }
+
+    @Test
+    public void storeHandsOutZeroedPagesAcrossChunks() {
+        try (ArenaPageStore store = new ArenaPageStore(1 << 19)) {
+            for (int i = 0; i < 5; i++) {
+                assertEquals(i, store.allocate());
+                MemorySegment page = store.page(i);
+                assertEquals(1 << 19, page.byteSize());
+                assertEquals(0, page.get(ValueLayout.JAVA_LONG, 0));
+                page.set(ValueLayout.JAVA_LONG, 0, i + 1);
+            }
+            for (int i = 0; i < 5; i++) {
+                assertEquals(i + 1, store.page(i).get(ValueLayout.JAVA_LONG, 0));
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> store.page(5));
+        }
+    }
+
+    @Test
+    public void reopensTreeFromPageFile() throws IOException {
+        Path file = Files.createTempFile("btree", ".pages");
+        Files.delete(file);
+        try {
+            List<Integer> expected = new ArrayList<>();
+            try (OffHeapBTree<ComparableContentImpl> created = OffHeapBTree.open(file, CODEC, 4)) {
+                Random random = new Random(3);
+                for (int i = 0; i < 10000; i++) {
+                    int value = random.nextInt();
+                    expected.add(value);
+                    created.insert(new ComparableContentImpl(value));
+                }
+            }
+            Collections.sort(expected);
+            // Closing trims the file from whole mapped chunks down to the allocated pages.
+            assertEquals(0, (Files.size(file) - 64) % OffHeapBTree.pageSize(4, CODEC.width()));
+            assertTrue(Files.size(file) < 1 << 20);
+            try (OffHeapBTree<ComparableContentImpl> reopened = OffHeapBTree.open(file, CODEC, 4)) {
+                assertEquals(10000, reopened.size());
+                assertEquals(expected, toInts(reopened));
+                reopened.insert(new ComparableContentImpl(42));
+            }
+            try (OffHeapBTree<ComparableContentImpl> reopened = OffHeapBTree.open(file, CODEC, 4)) {
+                assertEquals(10001, reopened.size());
+                assertNotNull(reopened.search(new ComparableContentImpl(42)));
+            }
+            assertThrows(IOException.class, () -> OffHeapBTree.open(file, CODEC, 8));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void rejectsFilesThatAreNoPageFiles() throws IOException {
+        Path file = Files.createTempFile("btree", ".pages");
+        try {
+            Files.write(file, new byte[100]);
+            assertThrows(IOException.class, () -> new MappedPageStore(file, 64));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<Integer> toInts(Iterable<ComparableContentImpl> keys) {
+        List<Integer> result = new ArrayList<>();
+        for (ComparableContentImpl key : keys) {
+            result.add(Integer.parseInt(key.toString()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,87 @@
+package dev.pluginz;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelBTreeBuilderTest {
+
+    @Test
+    public void buildsValidTreeFromUnsortedKeys() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int minDegree : new int[]{2, 3, 16}) {
+                for (int size : new int[]{0, 1, 5, 1000, 100_000}) {
+                    Random random = new Random(size + minDegree);
+                    ComparableContentImpl[] keys = new ComparableContentImpl[size];
+                    int[] values = new int[size];
+                    for (int i = 0; i < size; i++) {
+                        values[i] = random.nextInt(size / 2 + 1);
+                        keys[i] = new ComparableContentImpl(values[i]);
+                    }
+                    BTree<ComparableContentImpl> tree =
+                            new ParallelBTreeBuilder<>(ComparableContentImpl.class, minDegree, 1.0, pool).build(keys);
+                    BTreeTest.assertValid(tree);
+                    assertEquals(size, tree.size());
+                    Arrays.sort(values);
+                    List<Integer> actual = new ArrayList<>();
+                    for (ComparableContentImpl key : tree) {
+                        actual.add(Integer.parseInt(key.toString()));
+                    }
+                    assertEquals(Arrays.stream(values).boxed().toList(), actual);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void matchesSequentialBulkLoad() {
+        ComparableContentImpl[] sorted = new ComparableContentImpl[50_000];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = new ComparableContentImpl(i);
+        }
+        List<ComparableContentImpl> shuffled = new ArrayList<>(Arrays.asList(sorted));
+        java.util.Collections.shuffle(shuffled, new Random(5));
+        for (double fillFactor : new double[]{1.0, 0.7}) {
+            BTree<ComparableContentImpl> expected = new BTree<>(ComparableContentImpl.class, 8);
+            expected.bulkLoad(sorted, fillFactor);
+            BTree<ComparableContentImpl> actual = new ParallelBTreeBuilder<>(ComparableContentImpl.class, 8,
+                    fillFactor, ForkJoinPool.commonPool()).build(shuffled);
+            BTreeTest.assertValid(actual);
+            assertEquals(expected.getHeight(), actual.getHeight());
+            assertEquals(expected.measureShape().getNodeCount(), actual.measureShape().getNodeCount());
+            for (int k = 0; k < sorted.length; k += 97) {
+                assertSame(expected.select(k), actual.select(k));
+            }
+        }
+    }
+
+    @Test
+    public void keepsInputUnchanged() {
+        ComparableContentImpl[] keys = {new ComparableContentImpl(3), new ComparableContentImpl(1),
+                new ComparableContentImpl(2)};
+        ComparableContentImpl[] copy = keys.clone();
+        BTree<ComparableContentImpl> tree = new ParallelBTreeBuilder<>(ComparableContentImpl.class, 2).build(keys);
+        assertArrayEquals(copy, keys);
+        assertEquals("1", tree.select(0).toString());
+        tree.insert(new ComparableContentImpl(0));
+        BTreeTest.assertValid(tree);
+    }
+
+    @Test
+    public void rejectsInvalidParameters() {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        assertThrows(IllegalArgumentException.class,
+                () -> new ParallelBTreeBuilder<>(ComparableContentImpl.class, 1, 1.0, pool));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ParallelBTreeBuilder<>(ComparableContentImpl.class, 3, 0, pool));
+    }
+}
@@ -0,0 +1,154 @@
+package dev.pluginz;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentBTreeTest {
+
+    private PersistentBTree<ComparableContentImpl> tree;
+
+    @BeforeEach
+    public void setup() {
+        tree = new PersistentBTree<>(ComparableContentImpl.class, 2);
+    }
+
+    @Test
+    public void insertAndSearchForValue() {
+        ComparableContentImpl value = new ComparableContentImpl(10);
+        tree.insert(value);
+        assertEquals(value, tree.search(value));
+        assertNull(tree.search(new ComparableContentImpl(11)));
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    public void rejectsInvalidMinDegree() {
+        assertThrows(IllegalArgumentException.class, () -> new PersistentBTree<>(ComparableContentImpl.class, 1));
+    }
+
+    @Test
+    public void iteratesInOrderWithDuplicates() {
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            int value = random.nextInt(500);
+            expected.add(value);
+            tree.insert(new ComparableContentImpl(value));
+        }
+        Collections.sort(expected);
+        assertEquals(expected, toInts(tree.snapshot()));
+        assertEquals(2000, tree.snapshot().stream().count());
+        assertValid(tree.snapshot().getRoot(), tree.getMinDegree(), true);
+    }
+
+    @Test
+    public void snapshotIsNotAffectedByLaterInserts() {
+        for (int i = 0; i < 100; i++) {
+            tree.insert(new ComparableContentImpl(2 * i));
+        }
+        PersistentBTree.Snapshot<ComparableContentImpl> before = tree.snapshot();
+        List<Integer> expected = toInts(before);
+        for (int i = 0; i < 100; i++) {
+            tree.insert(new ComparableContentImpl(2 * i + 1));
+        }
+        assertEquals(100, before.size());
+        assertEquals(expected, toInts(before));
+        assertNull(before.search(new ComparableContentImpl(1)));
+        assertNotNull(tree.search(new ComparableContentImpl(1)));
+        assertEquals(200, tree.size());
+    }
+
+    @Test
+    public void emptySnapshot() {
+        PersistentBTree.Snapshot<ComparableContentImpl> empty = tree.snapshot();
+        tree.insert(new ComparableContentImpl(1));
+        assertTrue(empty.isEmpty());
+        assertFalse(empty.iterator().hasNext());
+        assertNull(empty.search(new ComparableContentImpl(1)));
+    }
+
+    @Test
+    public void insertSharesUntouchedSubtrees() {
+        for (int i = 0; i < 1000; i++) {
+            tree.insert(new ComparableContentImpl(i));
+        }
+        PersistentBTree.Node<ComparableContentImpl> before = tree.snapshot().getRoot();
+        // The largest key only touches the rightmost path.
+        tree.insert(new ComparableContentImpl(1000));
+        PersistentBTree.Node<ComparableContentImpl> after = tree.snapshot().getRoot();
+        assertNotSame(before, after);
+        assertEquals(before.children.length, after.children.length);
+        for (int i = 0; i < before.children.length - 1; i++) {
+            assertSame(before.children[i], after.children[i]);
+        }
+        assertNotSame(before.children[before.children.length - 1], after.children[after.children.length - 1]);
+    }
+
+    @Test
+    public void readersScanSnapshotsWhileWriterInserts() throws Exception {
+        int count = 20000;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                tree.insert(new ComparableContentImpl(i));
+            }
+        });
+        Thread reader = new Thread(() -> {
+            try {
+                while (writer.isAlive()) {
+                    PersistentBTree.Snapshot<ComparableContentImpl> snapshot = tree.snapshot();
+                    // Keys are inserted in ascending order, so every snapshot holds exactly 0 .. size - 1.
+                    int expected = 0;
+                    for (ComparableContentImpl key : snapshot) {
+                        if (Integer.parseInt(key.toString()) != expected++) {
+                            throw new AssertionError("unexpected key " + key);
+                        }
+                    }
+                    if (expected != snapshot.size()) {
+                        throw new AssertionError("expected " + snapshot.size() + " keys, got " + expected);
+                    }
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+        assertNull(failure.get());
+        assertEquals(count, tree.size());
+    }
+
+    private static List<Integer> toInts(Iterable<ComparableContentImpl> keys) {
+        List<Integer> result = new ArrayList<>();
+        for (ComparableContentImpl key : keys) {
+            result.add(Integer.parseInt(key.toString()));
+        }
+        return result;
+    }
+
+    private static int assertValid(PersistentBTree.Node<ComparableContentImpl> node, int t, boolean isRoot) {
+        if (!isRoot) {
+            assertTrue(node.keys.length >= t - 1);
+        }
+        assertTrue(node.keys.length <= 2 * t - 1);
+        if (node.isLeaf()) {
+            return 0;
+        }
+        assertEquals(node.keys.length + 1, node.children.length);
+        int height = assertValid(node.children[0], t, false);
+        for (int i = 1; i < node.children.length; i++) {
+            assertEquals(height, assertValid(node.children[i], t, false));
+        }
+        return height + 1;
+    }
+}
@@ -0,0 +1,164 @@
+package dev.pluginz;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StringBTreeTest {
+
+    private StringBTree tree;
+
+    @BeforeEach
+    public void setup() {
+        tree = new StringBTree();
+    }
+
+    @Test
+    public void insertAndContains() {
+        tree.insert("/tenants/acme/users/1");
+        assertTrue(tree.contains("/tenants/acme/users/1"));
+        assertFalse(tree.contains("/tenants/acme/users/"));
+        assertFalse(tree.contains("/tenants/acme/users/10"));
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    public void emptyTree() {
+        assertFalse(tree.contains(""));
+        assertFalse(tree.iterator().hasNext());
+        assertEquals(0, tree.getStoredKeyBytes());
+    }
+
+    @Test
+    public void rejectsInvalidMinDegree() {
+        assertThrows(IllegalArgumentException.class, () -> new StringBTree(1));
+    }
+
+    @Test
+    public void randomPathsMatchSortedReference() {
+        for (int minDegree : new int[]{2, 3, 16}) {
+            StringBTree tree = new StringBTree(minDegree);
+            Random random = new Random(minDegree);
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                String key = randomPath(random);
+                expected.add(key);
+                tree.insert(key);
+            }
+            Collections.sort(expected);
+            List<String> actual = new ArrayList<>();
+            tree.forEach(actual::add);
+            assertEquals(expected, actual);
+            assertEquals(expected.size(), tree.size());
+            for (int i = 0; i < 2000; i++) {
+                String probe = randomPath(random);
+                assertEquals(Collections.binarySearch(expected, probe) >= 0, tree.contains(probe), probe);
+            }
+            for (String key : expected) {
+                assertTrue(tree.contains(key), key);
+                // Every proper prefix that is not a key itself must be missed, even though it matches node prefixes.
+                String shorter = key.substring(0, key.length() - 1);
+                assertEquals(Collections.binarySearch(expected, shorter) >= 0, tree.contains(shorter), shorter);
+            }
+        }
+    }
+
+    @Test
+    public void keepsDuplicatesAcrossLeaves() {
+        StringBTree tree = new StringBTree(2);
+        for (int i = 0; i < 50; i++) {
+            tree.insert("same");
+            tree.insert("a" + i);
+            tree.insert("z" + i);
+        }
+        assertEquals(150, tree.size());
+        assertTrue(tree.contains("same"));
+        assertEquals(50, tree.stream("same", true, "same", true).count());
+        assertEquals(0, tree.stream("same", false, "same", true).count());
+        assertEquals(50, tree.stream("same", false, null, false).count());
+        assertEquals(50, tree.stream(null, false, "same", false).count());
+    }
+
+    @Test
+    public void rangeScanRespectsBounds() {
+        for (int i = 0; i < 1000; i++) {
+            tree.insert(String.format("/logs/%04d", i));
+        }
+        List<String> range = tree.stream("/logs/0100", true, "/logs/0200", false).collect(Collectors.toList());
+        assertEquals(100, range.size());
+        assertEquals("/logs/0100", range.get(0));
+        assertEquals("/logs/0199", range.get(99));
+        assertEquals(10, tree.stream("/logs/099", false, "/logs/0999", true).count());
+        assertEquals(0, tree.stream("/logs/1", true, null, false).count());
+        assertEquals(1000, tree.stream("/logs/", true, "/logs/9", true).count());
+        Iterator<String> iterator = tree.iterator("/logs/0999", true, null, false);
+        assertEquals("/logs/0999", iterator.next());
+        assertFalse(iterator.hasNext());
+        assertThrows(java.util.NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    public void ordersByCodePoints() {
+        String[] keys = {"z", "ä", "a", "😀", "�", "ab", ""};
+        for (String key : keys) {
+            tree.insert(key);
+        }
+        List<String> expected = new ArrayList<>(List.of(keys));
+        expected.sort((a, b) -> {
+            // UTF-8 byte order equals code point order.
+            return java.util.Arrays.compareUnsigned(a.getBytes(StandardCharsets.UTF_8), b.getBytes(StandardCharsets.UTF_8));
+        });
+        List<String> actual = new ArrayList<>();
+        tree.forEach(actual::add);
+        assertEquals(expected, actual);
+        assertEquals("😀", actual.get(actual.size() - 1));
+        for (String key : keys) {
+            assertTrue(tree.contains(key));
+        }
+    }
+
+    @Test
+    public void compressesSharedPrefixes() {
+        StringBTree tree = new StringBTree(32);
+        long raw = 0;
+        for (int tenant = 0; tenant < 10; tenant++) {
+            for (int i = 0; i < 1000; i++) {
+                String key = "/tenants/tenant-" + tenant + "/projects/main/documents/document-" + String.format("%06d", i);
+                raw += key.length();
+                tree.insert(key);
+            }
+        }
+        // Shared prefixes are stored once per node, so the nodes hold a fraction of the raw key bytes.
+        assertTrue(tree.getStoredKeyBytes() < raw / 3, tree.getStoredKeyBytes() + " of " + raw);
+    }
+
+    @Test
+    public void separatorsAreShortest() {
+        byte[] lower = "/a/apple".getBytes(StandardCharsets.UTF_8);
+        byte[] upper = "/a/banana".getBytes(StandardCharsets.UTF_8);
+        assertEquals("/a/b", new String(StringBTree.shortestSeparator(lower, upper), StandardCharsets.UTF_8));
+        byte[] prefix = "/a".getBytes(StandardCharsets.UTF_8);
+        assertEquals("/a/", new String(StringBTree.shortestSeparator(prefix, "/a/b".getBytes(StandardCharsets.UTF_8)),
+                StandardCharsets.UTF_8));
+        assertSame(upper, StringBTree.shortestSeparator(upper.clone(), upper));
+    }
+
+    private static String randomPath(Random random) {
+        StringBuilder path = new StringBuilder("/tenants/");
+        path.append(random.nextInt(3));
+        int depth = 1 + random.nextInt(3);
+        for (int i = 0; i < depth; i++) {
+            path.append(random.nextBoolean() ? "/dir" : "/d").append(random.nextInt(4));
+        }
+        return path.toString();
+    }
+}
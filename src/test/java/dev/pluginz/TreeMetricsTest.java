@@ -0,0 +1,167 @@
+package dev.pluginz;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TreeMetricsTest {
+
+    @Test
+    public void countsBTreeOperations() {
+        BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class, 2);
+        TreeMetrics metrics = new TreeMetrics("btree");
+        tree.setMetrics(metrics);
+        for (int i = 0; i < 1000; i++) {
+            tree.insert(new ComparableContentImpl(i));
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            assertNotNull(tree.search(new ComparableContentImpl(i)));
+        }
+        assertNull(tree.search(new ComparableContentImpl(1000)));
+        for (int i = 0; i < 500; i++) {
+            assertNotNull(tree.remove(new ComparableContentImpl(i)));
+        }
+        assertNull(tree.remove(new ComparableContentImpl(0)));
+
+        assertEquals(1000, metrics.getCount(TreeMetrics.Operation.INSERT));
+        assertEquals(501, metrics.getCount(TreeMetrics.Operation.SEARCH));
+        assertEquals(501, metrics.getCount(TreeMetrics.Operation.REMOVE));
+        assertEquals(500.0 / 501, metrics.getHitRatio(), 1e-9);
+        assertTrue(metrics.getSplits() > 0);
+        assertTrue(metrics.getSplitsPerInsert() < 1);
+        assertTrue(metrics.getMerges() > 0);
+        // A lookup compares at most log2(3) + 1 = 2 keys per level of a tree with minimum degree 2.
+        double maxPerLookup = 2.0 * (tree.getHeight() + 2);
+        assertTrue(metrics.getComparisonsPerLookup() >= 1 && metrics.getComparisonsPerLookup() <= maxPerLookup);
+        assertTrue(metrics.getAverageNanos(TreeMetrics.Operation.INSERT) > 0);
+        assertTrue(metrics.getMaxNanos(TreeMetrics.Operation.INSERT) >= metrics.getAverageNanos(TreeMetrics.Operation.INSERT));
+
+        tree.setMetrics(null);
+        tree.insert(new ComparableContentImpl(5000));
+        assertEquals(1000, metrics.getCount(TreeMetrics.Operation.INSERT));
+        metrics.reset();
+        assertEquals(0, metrics.getCount(TreeMetrics.Operation.SEARCH));
+        assertEquals(0.0, metrics.getComparisonsPerLookup());
+    }
+
+    @Test
+    public void measuresBTreeShape() {
+        BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class, 3);
+        TreeMetrics.Shape empty = tree.measureShape();
+        assertEquals(0, empty.getHeight());
+        assertEquals(1, empty.getNodeCount());
+        assertEquals(0.0, empty.getAverageFill());
+
+        ComparableContentImpl[] keys = new ComparableContentImpl[125];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new ComparableContentImpl(i);
+        }
+        tree.bulkLoad(keys);
+        TreeMetrics metrics = new TreeMetrics("packed");
+        tree.setMetrics(metrics);
+        assertNull(metrics.getShape());
+        TreeMetrics.Shape shape = tree.measureShape();
+        assertSame(shape, metrics.getShape());
+        // 125 keys in full nodes of 5 keys: 1 root with 4, 5 inner nodes with 4 and 21 leaves with 5 keys.
+        assertEquals(2, shape.getHeight());
+        assertEquals(tree.getHeight(), shape.getHeight());
+        assertEquals(125, shape.getKeyCount());
+        assertEquals(125.0 / (shape.getNodeCount() * 5), shape.getAverageFill(), 1e-9);
+        assertTrue(shape.getAverageFill() > 0.8);
+    }
+
+    @Test
+    public void countsBinarySearchTreeOperations() {
+        TreeMetrics metrics = new TreeMetrics("bst");
+        InstrumentedBinarySearchTree<ComparableContentImpl> tree = new InstrumentedBinarySearchTree<>(metrics);
+        assertEquals(-1, tree.measureShape().getHeight());
+        for (int value : new int[]{4, 2, 6, 1, 3, 5, 7}) {
+            tree.insert(new ComparableContentImpl(value));
+        }
+        assertNotNull(tree.search(new ComparableContentImpl(4)));
+        assertNotNull(tree.search(new ComparableContentImpl(7)));
+        assertNull(tree.search(new ComparableContentImpl(8)));
+        // The root takes one comparison, a leaf three, and a miss below a leaf three as well.
+        assertEquals(7, metrics.getComparisons());
+        tree.remove(new ComparableContentImpl(2));
+        tree.remove(new ComparableContentImpl(2));
+        assertEquals(7, metrics.getCount(TreeMetrics.Operation.INSERT));
+        assertEquals(2, metrics.getCount(TreeMetrics.Operation.REMOVE));
+        assertNull(tree.search(new ComparableContentImpl(2)));
+
+        TreeMetrics.Shape shape = tree.measureShape();
+        assertEquals(2, shape.getHeight());
+        assertEquals(6, shape.getNodeCount());
+        assertEquals(1.0, shape.getAverageFill());
+    }
+
+    @Test
+    public void sharedMetricsCountEveryThread() throws InterruptedException {
+        TreeMetrics metrics = new TreeMetrics("shared");
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class);
+                tree.setMetrics(metrics);
+                for (int i = 0; i < 10000; i++) {
+                    tree.insert(new ComparableContentImpl(i));
+                    tree.search(new ComparableContentImpl(i));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, metrics.getCount(TreeMetrics.Operation.INSERT));
+        assertEquals(1.0, metrics.getHitRatio());
+    }
+
+    @Test
+    public void emitsFlightRecorderEvents() throws IOException {
+        Path file = Files.createTempFile("metrics", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable("dev.pluginz.TreeOperation");
+                recording.enable("dev.pluginz.TreeShape");
+                recording.start();
+                BTree<ComparableContentImpl> tree = new BTree<>(ComparableContentImpl.class);
+                tree.setMetrics(new TreeMetrics("recorded"));
+                for (int i = 0; i < 10; i++) {
+                    tree.insert(new ComparableContentImpl(i));
+                }
+                tree.search(new ComparableContentImpl(3));
+                tree.measureShape();
+                recording.stop();
+                recording.dump(file);
+            }
+            int operations = 0;
+            int shapes = 0;
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (!"recorded".equals(event.getString("tree"))) {
+                    continue;
+                }
+                String type = event.getEventType().getName();
+                if (type.equals("dev.pluginz.TreeOperation")) {
+                    operations++;
+                } else if (type.equals("dev.pluginz.TreeShape")) {
+                    shapes++;
+                    assertEquals(10, event.getLong("keyCount"));
+                }
+            }
+            assertEquals(11, operations);
+            assertEquals(1, shapes);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}